@@ -0,0 +1,18 @@
+package com.example.productcatalogapi.benchmark;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+//Records the SQL Hibernate sends, so the plan report can EXPLAIN exactly what the filter endpoint runs
+public class CapturingStatementInspector implements StatementInspector {
+
+	static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+	@Override
+	public String inspect(String sql) {
+		STATEMENTS.add(sql);
+		return sql;
+	}
+}
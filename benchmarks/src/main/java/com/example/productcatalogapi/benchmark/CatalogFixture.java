@@ -0,0 +1,87 @@
+package com.example.productcatalogapi.benchmark;
+
+import com.example.productcatalogapi.ProductCatalogApiApplication;
+import com.example.productcatalogapi.dto.BulkMode;
+import com.example.productcatalogapi.dto.ProductRequestDTO;
+import com.example.productcatalogapi.service.ProductBulkService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Boots the service without a web server against an in-memory H2 database and seeds it with a
+ * deterministic synthetic catalog, so every run and every build benchmarks the same data.
+ */
+public final class CatalogFixture {
+
+	static final int CATEGORY_COUNT = 50;
+
+	private static final String[] WORDS = {
+			"wireless", "phone", "case", "charger", "cable", "lamp", "desk", "chair", "speaker", "headphones",
+			"laptop", "stand", "mouse", "keyboard", "monitor", "smart", "watch", "band", "camera", "lens",
+			"bottle", "mug", "kettle", "blender", "toaster", "jacket", "shoe", "sock", "bag", "wallet"
+	};
+
+	private CatalogFixture() {
+	}
+
+	public static ConfigurableApplicationContext start(int catalogSize, String... properties) {
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(ProductCatalogApiApplication.class)
+				.web(WebApplicationType.NONE)
+				.properties(
+						"spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+						"spring.jpa.hibernate.ddl-auto=create-drop",
+						"logging.level.root=WARN")
+				.properties(properties)
+				.run();
+		context.getBean(ProductBulkService.class).writeProducts(products(catalogSize), BulkMode.CREATE, true);
+		return context;
+	}
+
+	public static String code(long index) {
+		return String.format("SKU-%08d", index);
+	}
+
+	public static String word(int index) {
+		return WORDS[Math.floorMod(index, WORDS.length)];
+	}
+
+	public static String category(int index) {
+		return "category-" + Math.floorMod(index, CATEGORY_COUNT);
+	}
+
+	public static ProductRequestDTO product(long index, Random random) {
+		ProductRequestDTO product = new ProductRequestDTO();
+		product.setCode(code(index));
+		product.setName(word(random.nextInt()) + " " + word(random.nextInt()) + " " + index);
+		product.setDescription("A " + word(random.nextInt()) + " for your " + word(random.nextInt())
+				+ ", pairs well with a " + word(random.nextInt()));
+		product.setPrice(BigDecimal.valueOf(100 + random.nextInt(99_900), 2));
+		product.setCategory(category(random.nextInt()));
+		product.setStockQuantity(random.nextInt(500));
+		product.setIsActive(random.nextInt(10) != 0);
+		return product;
+	}
+
+	//Generates the catalog lazily so seeding millions of rows does not hold them all in memory
+	private static Iterator<ProductRequestDTO> products(int catalogSize) {
+		Random random = new Random(42);
+		return new Iterator<>() {
+			private long next = 1;
+
+			@Override
+			public boolean hasNext() {
+				return next <= catalogSize;
+			}
+
+			@Override
+			public ProductRequestDTO next() {
+				return product(next++, random);
+			}
+		};
+	}
+}
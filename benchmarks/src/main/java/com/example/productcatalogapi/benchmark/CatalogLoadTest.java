@@ -0,0 +1,133 @@
+package com.example.productcatalogapi.benchmark;
+
+import com.example.productcatalogapi.dto.ProductRequestDTO;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+
+/**
+ * Closed-loop HTTP load test against a running service, used to compare the platform thread
+ * pool with the virtual-threads profile at high concurrency.
+ *
+ * <pre>
+ * java -jar target/product-catalog-api-0.0.1-SNAPSHOT-exec.jar                                           # platform threads
+ * java -jar target/product-catalog-api-0.0.1-SNAPSHOT-exec.jar --spring.profiles.active=virtual-threads  # Java 21+
+ * mvn -f benchmarks/pom.xml exec:exec -Dbenchmark.main=com.example.productcatalogapi.benchmark.CatalogLoadTest \
+ *     -Dbenchmark.args="http://localhost:8080 1000 30 10000"
+ * </pre>
+ *
+ * Arguments: base URL, concurrent clients, duration in seconds, catalog size to seed (0 to skip seeding).
+ * Each client repeatedly requests a random product by id, by code, or a search page.
+ */
+public class CatalogLoadTest {
+
+	public static void main(String[] args) throws Exception {
+		String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+		int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+		int catalogSize = args.length > 3 ? Integer.parseInt(args[3]) : 10_000;
+
+		HttpClient client = HttpClient.newBuilder()
+				.connectTimeout(Duration.ofSeconds(10))
+				.executor(Executors.newFixedThreadPool(8))
+				.build();
+		if (catalogSize > 0) {
+			seed(client, baseUrl, catalogSize);
+		}
+
+		AtomicLong ok = new AtomicLong();
+		AtomicLong failed = new AtomicLong();
+		List<LatencySamples> latencies = new ArrayList<>();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+
+		ExecutorService workers = Executors.newFixedThreadPool(clients);
+		for (int c = 0; c < clients; c++) {
+			LatencySamples samples = new LatencySamples();
+			latencies.add(samples);
+			int clientId = c;
+			workers.execute(() -> {
+				SplittableRandom random = new SplittableRandom(clientId);
+				while (System.nanoTime() < deadline) {
+					long id = 1 + random.nextInt(Math.max(catalogSize, 1));
+					String path = switch (random.nextInt(3)) {
+						case 0 -> "/api/v1/products/" + id;
+						case 1 -> "/api/v1/products/code/" + CatalogFixture.code(id);
+						default -> "/api/v1/products/search?q=" + CatalogFixture.word(random.nextInt());
+					};
+					long start = System.nanoTime();
+					try {
+						HttpResponse<Void> response = client.send(
+								HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).build(),
+								HttpResponse.BodyHandlers.discarding());
+						(response.statusCode() < 400 ? ok : failed).incrementAndGet();
+					} catch (Exception ex) {
+						failed.incrementAndGet();
+					}
+					samples.record(System.nanoTime() - start);
+				}
+			});
+		}
+		workers.shutdown();
+		workers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+
+		long[] all = latencies.stream()
+				.flatMapToLong(LatencySamples::stream)
+				.sorted()
+				.toArray();
+		System.out.printf("clients=%d duration=%ds ok=%d failed=%d throughput=%.1f req/s%n",
+				clients, seconds, ok.get(), failed.get(), ok.get() / (double) seconds);
+		if (all.length > 0) {
+			System.out.printf("latency p50=%.2fms p99=%.2fms max=%.2fms%n",
+					all[all.length / 2] / 1e6, all[(int) (all.length * 0.99)] / 1e6, all[all.length - 1] / 1e6);
+		}
+		System.exit(0);
+	}
+
+	//Keeps the most recent latencies of one client
+	private static final class LatencySamples {
+
+		private final long[] samples = new long[1 << 16];
+		private int count;
+
+		void record(long nanos) {
+			samples[count++ & (samples.length - 1)] = nanos;
+		}
+
+		LongStream stream() {
+			return Arrays.stream(samples, 0, Math.min(count, samples.length));
+		}
+	}
+
+	//Loads the catalog through the bulk endpoint in batches of 5000
+	private static void seed(HttpClient client, String baseUrl, int catalogSize) throws Exception {
+		Random random = new Random(42);
+		for (long from = 1; from <= catalogSize; from += 5000) {
+			StringBuilder body = new StringBuilder();
+			for (long i = from; i < Math.min(from + 5000, catalogSize + 1L); i++) {
+				ProductRequestDTO product = CatalogFixture.product(i, random);
+				body.append(String.format(
+						"{\"code\":\"%s\",\"name\":\"%s\",\"description\":\"%s\",\"price\":%s,\"category\":\"%s\",\"stockQuantity\":%d,\"isActive\":%b}%n",
+						product.getCode(), product.getName(), product.getDescription(), product.getPrice().toPlainString(),
+						product.getCategory(), product.getStockQuantity(), product.getIsActive()));
+			}
+			client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/products/bulk?mode=UPSERT&failuresOnly=true"))
+							.header("Content-Type", "application/x-ndjson")
+							.POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+							.build(),
+					HttpResponse.BodyHandlers.discarding());
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.example.productcatalogapi.benchmark;
+
+import com.example.productcatalogapi.dto.ProductFilterDTO;
+import com.example.productcatalogapi.repository.ProductProjection;
+import com.example.productcatalogapi.service.ProductService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Prints the H2 query plan of the filtered listing for representative filter combinations.
+ * Criteria values are inlined by Hibernate, so the captured statement can be explained as is,
+ * and the report shows which index H2 picked for it. Run with
+ *   mvn -f benchmarks/pom.xml package exec:exec -Dbenchmark.main=com.example.productcatalogapi.benchmark.FilterPlanReport
+ */
+public class FilterPlanReport {
+
+	public static void main(String[] args) {
+		int catalogSize = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		BigDecimal low = new BigDecimal("100.00");
+		BigDecimal high = new BigDecimal("150.00");
+
+		Map<String, ProductFilterDTO> filters = new LinkedHashMap<>();
+		filters.put("category", new ProductFilterDTO(CatalogFixture.category(7), null, null, null, null, null, null));
+		filters.put("category + active", new ProductFilterDTO(CatalogFixture.category(7), true, null, null, null, null, null));
+		filters.put("category + active + price", new ProductFilterDTO(CatalogFixture.category(7), true, low, high, null, null, null));
+		filters.put("active + price", new ProductFilterDTO(null, true, low, high, null, null, null));
+		filters.put("price", new ProductFilterDTO(null, null, low, high, null, null, null));
+		filters.put("active + stock", new ProductFilterDTO(null, true, null, null, null, 5, null));
+		filters.put("search + category + price", new ProductFilterDTO(CatalogFixture.category(7), null, low, high, null, null, "lamp desk"));
+
+		try (ConfigurableApplicationContext context = CatalogFixture.start(catalogSize,
+				"spring.jpa.properties.hibernate.session_factory.statement_inspector=" + CapturingStatementInspector.class.getName(),
+				"spring.jpa.properties.hibernate.criteria.value_handling_mode=inline")) {
+			ProductService productService = context.getBean(ProductService.class);
+			JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+			Pageable pageable = PageRequest.of(0, 20, Sort.by("price"));
+
+			filters.forEach((name, filter) -> {
+				CapturingStatementInspector.STATEMENTS.clear();
+				long total = productService.filterProducts(filter, pageable, ProductProjection.DETAIL).getTotalElements();
+				String sql = CapturingStatementInspector.STATEMENTS.get(0)
+						.replace("offset ? rows", "offset 0 rows")
+						.replace("fetch first ? rows only", "fetch first 20 rows only");
+				String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+				// H2 reports the chosen index as a comment after the table, e.g. /* PUBLIC.IDX_...: CONDITION */
+				String access = plan.lines().map(String::trim).filter(line -> line.startsWith("/*")).findFirst().orElse(plan);
+				System.out.printf("%-28s %7d matches  %s%n", name, total,
+						access.length() > 140 ? access.substring(0, 140) + "..." : access);
+			});
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.example.productcatalogapi.benchmark;
+
+import com.example.productcatalogapi.dto.ProductFilterDTO;
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.repository.ProductProjection;
+import com.example.productcatalogapi.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Category + active + price range: one filtered query against the composite index, compared with what
+ * clients did before, fetching the whole category and filtering on their side.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ProductFilterBenchmark {
+
+	@Param({"100000"})
+	public int catalogSize;
+
+	//Serve reads from the columnar catalog instead of the database and product cache
+	@Param({"false"})
+	public boolean columnar;
+
+	private ConfigurableApplicationContext context;
+	private ProductService productService;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		//A system property, fixture properties are only defaults under application.properties
+		System.setProperty("catalog.columnar.enabled", String.valueOf(columnar));
+		context = CatalogFixture.start(catalogSize);
+		productService = context.getBean(ProductService.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@State(Scope.Thread)
+	public static class Criteria {
+
+		private final SplittableRandom random = new SplittableRandom(11);
+
+		ProductFilterDTO next() {
+			BigDecimal minPrice = BigDecimal.valueOf(100 + random.nextInt(90_000), 2);
+			return new ProductFilterDTO(CatalogFixture.category(random.nextInt(CatalogFixture.CATEGORY_COUNT)), true,
+					minPrice, minPrice.add(BigDecimal.valueOf(50)), null, null, null);
+		}
+	}
+
+	@Benchmark
+	public Page<ProductResponseDTO> filterInQuery(Criteria criteria) {
+		return productService.filterProducts(criteria.next(), PageRequest.of(0, 20, Sort.by("price")),
+				ProductProjection.DETAIL);
+	}
+
+	@Benchmark
+	public List<ProductResponseDTO> filterOnClient(Criteria criteria) {
+		ProductFilterDTO filter = criteria.next();
+		return productService.getProductsByCategory(filter.getCategory(), PageRequest.of(0, catalogSize),
+						ProductProjection.DETAIL).stream()
+				.filter(product -> Boolean.TRUE.equals(product.getIsActive()))
+				.filter(product -> product.getPrice().compareTo(filter.getMinPrice()) >= 0
+						&& product.getPrice().compareTo(filter.getMaxPrice()) <= 0)
+				.sorted((a, b) -> a.getPrice().compareTo(b.getPrice()))
+				.limit(20)
+				.collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.productcatalogapi.benchmark;
+
+import com.example.productcatalogapi.dto.PageDTO;
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.web.ProductJsonModule;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing one list page: reflective bean serialization against the hand-written product serializers,
+ * and the same page as Smile. No database involved, only the response body.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ProductJsonBenchmark {
+
+	@Param({"100"})
+	public int pageSize;
+
+	private PageDTO<ProductResponseDTO> page;
+	private ObjectMapper beanMapper;
+	private ObjectMapper moduleMapper;
+	private ObjectMapper smileMapper;
+
+	@Setup
+	public void setUp() {
+		List<ProductResponseDTO> products = new ArrayList<>(pageSize);
+		LocalDateTime now = LocalDateTime.now();
+		for (int i = 0; i < pageSize; i++) {
+			products.add(new ProductResponseDTO((long) i, String.format("P-%07d", i), "Product " + i,
+					"Description of product " + i, BigDecimal.valueOf(1000 + i, 2), CatalogFixture.category(i % 20),
+					i % 500, i % 10 != 0, now, now));
+		}
+		page = new PageDTO<>(products, 0, pageSize, 100_000, 100_000 / pageSize);
+		beanMapper = mapper().build();
+		moduleMapper = mapper().modulesToInstall(new ProductJsonModule()).build();
+		smileMapper = mapper().factory(new SmileFactory()).modulesToInstall(new ProductJsonModule()).build();
+	}
+
+	private static Jackson2ObjectMapperBuilder mapper() {
+		return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+	}
+
+	@Benchmark
+	public byte[] beanSerializer() throws Exception {
+		return beanMapper.writeValueAsBytes(page);
+	}
+
+	@Benchmark
+	public byte[] productSerializer() throws Exception {
+		return moduleMapper.writeValueAsBytes(page);
+	}
+
+	@Benchmark
+	public byte[] productSerializerSmile() throws Exception {
+		return smileMapper.writeValueAsBytes(page);
+	}
+}
@@ -0,0 +1,195 @@
+package com.example.productcatalogapi.benchmark;
+
+import com.example.productcatalogapi.dto.ProductRequestDTO;
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.dto.ProductSummaryDTO;
+import com.example.productcatalogapi.entity.Product;
+import com.example.productcatalogapi.repository.ProductProjection;
+import com.example.productcatalogapi.repository.ProductRepository;
+import com.example.productcatalogapi.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks the ProductService hot paths against an embedded H2 catalog.
+ * The catalog size is a JMH parameter (-p catalogSize=10000,1000000,5000000); cacheSize=0
+ * measures the database path of the id/code lookups, a non-zero size the cached path.
+ * The list* benchmarks compare a page read as entities with the projected reads, run them with
+ * -prof gc to see the allocation per page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class ProductServiceBenchmark {
+
+	private static final MethodHandle CONVERT_TO_RESPONSE_DTO;
+
+	static {
+		try {
+			CONVERT_TO_RESPONSE_DTO = MethodHandles.privateLookupIn(ProductService.class, MethodHandles.lookup())
+					.findVirtual(ProductService.class, "convertToResponseDTO",
+							MethodType.methodType(ProductResponseDTO.class, Product.class));
+		} catch (ReflectiveOperationException ex) {
+			throw new ExceptionInInitializerError(ex);
+		}
+	}
+
+	@Param({"10000"})
+	public int catalogSize;
+
+	@Param({"0"})
+	public int cacheSize;
+
+	//Serve reads from the columnar catalog instead of the database and product cache
+	@Param({"false"})
+	public boolean columnar;
+
+	private ConfigurableApplicationContext context;
+	private ProductService productService;
+	private ProductRepository productRepository;
+	private TransactionTemplate readOnlyTransaction;
+	private Product product;
+	private final AtomicLong createdCodes = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		//A system property, fixture properties are only defaults under application.properties
+		System.setProperty("catalog.columnar.enabled", String.valueOf(columnar));
+		context = CatalogFixture.start(catalogSize, "catalog.cache.max-size=" + cacheSize);
+		productService = context.getBean(ProductService.class);
+		productRepository = context.getBean(ProductRepository.class);
+		readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		readOnlyTransaction.setReadOnly(true);
+		product = new Product(1L, CatalogFixture.code(1), "wireless phone 1", "A lamp for your desk",
+				new BigDecimal("19.99"), CatalogFixture.category(1), 12, true, LocalDateTime.now(), LocalDateTime.now());
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@State(Scope.Thread)
+	public static class Keys {
+
+		private final SplittableRandom random = new SplittableRandom(7);
+
+		long nextId(ProductServiceBenchmark benchmark) {
+			return 1 + random.nextInt(benchmark.catalogSize);
+		}
+
+		String nextWord() {
+			return CatalogFixture.word(random.nextInt());
+		}
+
+		int nextPage(ProductServiceBenchmark benchmark) {
+			return random.nextInt(Math.max(1, benchmark.catalogSize / 100));
+		}
+
+		BigDecimal nextMinPrice() {
+			return BigDecimal.valueOf(100 + random.nextInt(90_000), 2);
+		}
+	}
+
+	@Benchmark
+	public ProductResponseDTO getProductById(Keys keys) {
+		return productService.getProductById(keys.nextId(this));
+	}
+
+	@Benchmark
+	public ProductResponseDTO getProductByCode(Keys keys) {
+		return productService.getProductByCode(CatalogFixture.code(keys.nextId(this)));
+	}
+
+	@Benchmark
+	public Page<ProductResponseDTO> searchProducts(Keys keys) {
+		return productService.searchProducts(keys.nextWord() + " " + keys.nextWord(), PageRequest.of(0, 20),
+				ProductProjection.DETAIL);
+	}
+
+	@Benchmark
+	public Page<ProductResponseDTO> getProductsByPriceRange(Keys keys) {
+		BigDecimal minPrice = keys.nextMinPrice();
+		return productService.getProductsByPriceRange(minPrice, minPrice.add(BigDecimal.TEN),
+				PageRequest.of(0, 20, Sort.by("price")), ProductProjection.DETAIL);
+	}
+
+	@Benchmark
+	public Page<ProductResponseDTO> getLowStockProducts() {
+		return productService.getLowStockProducts(5, PageRequest.of(0, 100), ProductProjection.DETAIL);
+	}
+
+	@Benchmark
+	public Page<ProductResponseDTO> listEntities(Keys keys) {
+		Pageable pageable = PageRequest.of(keys.nextPage(this), 100, Sort.by("id"));
+		return readOnlyTransaction.execute(status -> productRepository.findAll(pageable).map(product -> {
+			try {
+				return (ProductResponseDTO) CONVERT_TO_RESPONSE_DTO.invokeExact(productService, product);
+			} catch (Throwable ex) {
+				throw new IllegalStateException(ex);
+			}
+		}));
+	}
+
+	@Benchmark
+	public Page<ProductResponseDTO> listDetail(Keys keys) {
+		return productService.getAllProducts(PageRequest.of(keys.nextPage(this), 100, Sort.by("id")),
+				ProductProjection.DETAIL);
+	}
+
+	@Benchmark
+	public Page<ProductSummaryDTO> listSummary(Keys keys) {
+		return productService.getAllProducts(PageRequest.of(keys.nextPage(this), 100, Sort.by("id")),
+				ProductProjection.SUMMARY);
+	}
+
+	@Benchmark
+	public List<String> getAllCategories() {
+		return productService.getAllCategories();
+	}
+
+	@Benchmark
+	public ProductResponseDTO createProduct() {
+		long index = createdCodes.incrementAndGet();
+		ProductRequestDTO request = CatalogFixture.product(index, new Random(index));
+		request.setCode("BENCH-" + index);
+		return productService.createProduct(request);
+	}
+
+	@Benchmark
+	public ProductResponseDTO convertToResponseDTO() throws Throwable {
+		return (ProductResponseDTO) CONVERT_TO_RESPONSE_DTO.invokeExact(productService, product);
+	}
+}
@@ -0,0 +1,144 @@
+package com.example.productcatalogapi.benchmark;
+
+import com.example.productcatalogapi.index.CatalogIndexLoader;
+import com.example.productcatalogapi.service.ProductService;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Startup time and time to steady latency of a cold start (indexes from a table scan, empty product cache)
+ * against a warm start (catalog snapshot plus the hot products saved at the previous shutdown).
+ * Seeds a file-based H2 catalog once, then starts the service on it in a fresh JVM per mode and runs
+ * rounds of hot product reads and category listings, the requests a deploy used to send to the database.
+ * Latency is averaged over half-second windows. Time to steady runs from ready to the end of the last
+ * window slower than 1.5 times the median window of the second half. Run with
+ *   mvn -f benchmarks/pom.xml exec:exec -Dbenchmark.main=com.example.productcatalogapi.benchmark.StartupReport \
+ *       -Dbenchmark.args="100000 20"
+ * Arguments: catalog size, measured seconds per start.
+ */
+public class StartupReport {
+
+	private static final int HOT_PRODUCTS = 1000;
+	private static final int OPERATIONS_PER_ROUND = 100;
+	private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+	public static void main(String[] args) throws Exception {
+		if (args.length > 0 && args[0].equals("run")) {
+			run(Path.of(args[1]), Boolean.parseBoolean(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+			return;
+		}
+		int catalogSize = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+		Path dir = Files.createTempDirectory("startup-report");
+
+		long start = System.nanoTime();
+		configure(dir, true);
+		try (ConfigurableApplicationContext context = CatalogFixture.start(catalogSize)) {
+			context.getBean(CatalogIndexLoader.class).writeSnapshot();
+			ProductService productService = context.getBean(ProductService.class);
+			for (long id : hotIds(catalogSize)) {
+				productService.getProductById(id);
+			}
+		}
+		System.out.printf("Seeded %d products and wrote the snapshot in %d ms%n", catalogSize,
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+		System.out.printf("%-6s %10s %10s %14s %14s %16s%n",
+				"start", "ready ms", "jvm ms", "first round", "steady", "time to steady");
+		for (boolean snapshot : new boolean[]{false, true}) {
+			Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+					"-Xms2g", "-Xmx2g", "-cp", System.getProperty("java.class.path"), StartupReport.class.getName(),
+					"run", dir.toString(), String.valueOf(snapshot), String.valueOf(catalogSize), String.valueOf(seconds))
+					.redirectErrorStream(true)
+					.start();
+			List<String> loaderLines = new ArrayList<>();
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+				reader.lines().forEach(line -> {
+					if (line.startsWith("RESULT ")) {
+						String[] values = line.split(" ");
+						System.out.printf("%-6s %10s %10s %11s us %11s us %13s ms%n", snapshot ? "warm" : "cold",
+								values[1], values[2], values[3], values[4], values[5]);
+					} else if (line.contains("CatalogIndexLoader") && line.contains(" : ")) {
+						loaderLines.add(line.substring(line.indexOf(" : ") + 3));
+					}
+				});
+			}
+			loaderLines.forEach(line -> System.out.println("       " + line));
+			process.waitFor();
+		}
+	}
+
+	//One start in this JVM, prints a RESULT line for the parent
+	private static void run(Path dir, boolean snapshot, int catalogSize, int seconds) {
+		configure(dir, snapshot);
+		long start = System.nanoTime();
+		try (ConfigurableApplicationContext context = CatalogFixture.start(0)) {
+			long readyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			long jvmMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+			ProductService productService = context.getBean(ProductService.class);
+			long[] hot = hotIds(catalogSize);
+			SplittableRandom random = new SplittableRandom(3);
+
+			//Per window: total nanoseconds and operations
+			List<long[]> windows = new ArrayList<>();
+			long firstRound = 0;
+			long ready = System.nanoTime();
+			long deadline = ready + TimeUnit.SECONDS.toNanos(seconds);
+			while (System.nanoTime() < deadline) {
+				long roundStart = System.nanoTime();
+				for (int i = 0; i < OPERATIONS_PER_ROUND; i++) {
+					if (i % 10 == 0) {
+						productService.getAllCategories();
+					} else {
+						productService.getProductById(hot[random.nextInt(hot.length)]);
+					}
+				}
+				long end = System.nanoTime();
+				if (firstRound == 0) {
+					firstRound = (end - roundStart) / OPERATIONS_PER_ROUND;
+				}
+				int window = (int) ((end - ready) / WINDOW_NANOS);
+				while (windows.size() <= window) {
+					windows.add(new long[2]);
+				}
+				windows.get(window)[0] += end - roundStart;
+				windows.get(window)[1] += OPERATIONS_PER_ROUND;
+			}
+
+			long[] means = windows.stream().mapToLong(window -> window[1] == 0 ? 0 : window[0] / window[1]).toArray();
+			long[] secondHalf = Arrays.stream(means, means.length / 2, means.length).sorted().toArray();
+			long steady = secondHalf[secondHalf.length / 2];
+			long toSteady = 0;
+			for (int window = 0; window < means.length; window++) {
+				if (means[window] > steady * 3 / 2) {
+					toSteady = (window + 1) * WINDOW_NANOS;
+				}
+			}
+			System.out.printf("RESULT %d %d %d %.1f %d%n", readyMillis, jvmMillis, firstRound / 1000,
+					steady / 1000.0, TimeUnit.NANOSECONDS.toMillis(toSteady));
+		}
+	}
+
+	//System properties, the fixture's own properties are only defaults and application.properties wins over them
+	private static void configure(Path dir, boolean snapshot) {
+		System.setProperty("spring.datasource.url", "jdbc:h2:file:" + dir.resolve("catalog"));
+		System.setProperty("spring.jpa.hibernate.ddl-auto", "update");
+		System.setProperty("catalog.snapshot.enabled", String.valueOf(snapshot));
+		System.setProperty("catalog.snapshot.dir", dir.resolve("snapshot").toString());
+		System.setProperty("logging.level.com.example.productcatalogapi.index.CatalogIndexLoader", "INFO");
+	}
+
+	private static long[] hotIds(int catalogSize) {
+		return new SplittableRandom(7).longs(HOT_PRODUCTS, 1, catalogSize + 1L).toArray();
+	}
+}
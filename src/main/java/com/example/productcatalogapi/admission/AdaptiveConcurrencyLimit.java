@@ -0,0 +1,99 @@
+package com.example.productcatalogapi.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that follows database latency, measured as database time per statement of each
+ * finished request (pool wait included, so a saturated pool shows up as latency).
+ * A short-term average is compared with a slowly moving baseline: while it stays within tolerance times
+ * the baseline the limit grows by about its square root per sample, beyond that it shrinks in proportion
+ * to the ratio, down to half per sample. Growth only happens while at least half the limit is in use,
+ * an idle instance keeps its limit. Expensive requests may only fill the limit up to 1 - reserve,
+ * the rest is kept for cheap ones.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    //Samples weigh 1/10 in the short-term average and 1/600 in the baseline
+    private static final double RECENT_WEIGHT = 0.1;
+    private static final double BASELINE_WEIGHT = 1 / 600d;
+    //Fraction of a new limit applied per sample, keeps single slow requests from collapsing it
+    private static final double SMOOTHING = 0.2;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double reserve;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    //Nanoseconds per statement, guarded by this
+    private double recent = Double.NaN;
+    private double baseline = Double.NaN;
+
+    AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double reserve) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.reserve = reserve;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    boolean tryAcquire(boolean expensive) {
+        int allowed = Math.max(1, (int) (expensive ? limit * (1 - reserve) : limit));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    //Ends a request admitted by tryAcquire, requests that ran no statements say nothing about the database
+    void release(long statements, long databaseNanos) {
+        if (statements > 0) {
+            sample(databaseNanos / (double) statements);
+        }
+        inFlight.decrementAndGet();
+    }
+
+    int getLimit() {
+        return (int) limit;
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+
+    synchronized double getRecentNanos() {
+        return recent;
+    }
+
+    synchronized double getBaselineNanos() {
+        return baseline;
+    }
+
+    private synchronized void sample(double nanosPerStatement) {
+        if (Double.isNaN(recent)) {
+            recent = nanosPerStatement;
+            baseline = nanosPerStatement;
+            return;
+        }
+        recent += (nanosPerStatement - recent) * RECENT_WEIGHT;
+        baseline += (recent - baseline) * BASELINE_WEIGHT;
+        //Recovering from a long slow period, let the baseline come down faster than it went up
+        if (baseline > recent * 2) {
+            baseline *= 0.95;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1, tolerance * baseline / recent));
+        double current = limit;
+        double target = current * gradient;
+        if (gradient == 1 && inFlight.get() >= current / 2) {
+            target += Math.sqrt(current);
+        }
+        limit = Math.max(minLimit, Math.min(maxLimit, current + (target - current) * SMOOTHING));
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.productcatalogapi.admission;
+
+import com.example.productcatalogapi.dto.AdmissionStatsDTO;
+import com.example.productcatalogapi.exception.RateLimitExceededException;
+import com.example.productcatalogapi.exception.ServiceOverloadedException;
+import com.example.productcatalogapi.metrics.QueryCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for the product endpoints, before any other interceptor or the controller runs.
+ * Every client has a token bucket per endpoint pattern. Clients are told apart by remote address, or by the
+ * client header when trust-client-header says a proxy in front sets it; anyone else could send a new value
+ * per request and always find a full bucket. At most max-buckets buckets are kept, clients arriving while
+ * the map is full share one bucket per endpoint until idle buckets are swept. A request costs the endpoint weight (expensive-weight for the configured expensive endpoints, 1
+ * otherwise) for every cost-page-size rows its size parameter asks for, capped at max-page-size like the
+ * controller does, so one search for 200 rows costs as much as eight product lookups. A client out of tokens
+ * gets 429 with the seconds until it has enough. Admitted requests then need a slot of the
+ * AdaptiveConcurrencyLimit, which shrinks when database time per statement rises; without one they get 503
+ * and requests to expensive endpoints are shed first, whatever their page size. A request that goes async
+ * gives its slot back when the handler returns, streams are limited by their own timeouts.
+ */
+@Component
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ADMITTED = AdmissionControlInterceptor.class.getName() + ".ADMITTED";
+    private static final int MAX_CLIENT_LENGTH = 64;
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long FULL_SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final String OVERFLOW_CLIENT = "";
+
+    private final boolean enabled;
+    private final String clientHeader;
+    private final boolean trustClientHeader;
+    private final int maxBuckets;
+    private final double rate;
+    private final double burst;
+    private final int maxPageSize;
+    private final int costPageSize;
+    private final Set<String> expensiveEndpoints;
+    private final int expensiveWeight;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+
+    public AdmissionControlInterceptor(MeterRegistry meterRegistry,
+                                       @Value("${catalog.admission.enabled:true}") boolean enabled,
+                                       @Value("${catalog.admission.client-header:X-Client-Id}") String clientHeader,
+                                       @Value("${catalog.admission.trust-client-header:false}") boolean trustClientHeader,
+                                       @Value("${catalog.admission.max-buckets:10000}") int maxBuckets,
+                                       @Value("${catalog.admission.rate:100}") double rate,
+                                       @Value("${catalog.admission.burst:200}") double burst,
+                                       @Value("${catalog.admission.max-page-size:200}") int maxPageSize,
+                                       @Value("${catalog.admission.cost-page-size:100}") int costPageSize,
+                                       @Value("${catalog.admission.expensive-endpoints:}") Set<String> expensiveEndpoints,
+                                       @Value("${catalog.admission.expensive-weight:4}") int expensiveWeight,
+                                       @Value("${catalog.admission.initial-limit:20}") int initialLimit,
+                                       @Value("${catalog.admission.min-limit:4}") int minLimit,
+                                       @Value("${catalog.admission.max-limit:200}") int maxLimit,
+                                       @Value("${catalog.admission.tolerance:2.0}") double tolerance,
+                                       @Value("${catalog.admission.reserve:0.25}") double reserve) {
+        this.enabled = enabled;
+        this.clientHeader = clientHeader;
+        this.trustClientHeader = trustClientHeader;
+        this.maxBuckets = maxBuckets;
+        this.rate = rate;
+        this.burst = burst;
+        this.maxPageSize = maxPageSize;
+        this.costPageSize = costPageSize;
+        this.expensiveEndpoints = expensiveEndpoints;
+        this.expensiveWeight = expensiveWeight;
+        this.concurrencyLimit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, tolerance, reserve);
+        if (enabled) {
+            Gauge.builder("catalog.admission.limit", concurrencyLimit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Concurrent product requests admitted")
+                    .register(meterRegistry);
+            Gauge.builder("catalog.admission.in-flight", concurrencyLimit, AdaptiveConcurrencyLimit::getInFlight)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        //An async dispatch continues a request that was admitted on its first dispatch
+        if (!enabled || request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String endpoint = pattern != null ? pattern.toString() : request.getRequestURI();
+        int cost = cost(endpoint, request.getParameter("size"));
+
+        long now = System.nanoTime();
+        long waitNanos = bucket(client(request), endpoint, now).tryAcquire(cost, now);
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            throw new RateLimitExceededException("Request rate limit exceeded for " + endpoint,
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999)));
+        }
+        if (!concurrencyLimit.tryAcquire(expensiveEndpoints.contains(endpoint))) {
+            shed.increment();
+            throw new ServiceOverloadedException("Too many concurrent requests, try again shortly", 1);
+        }
+        admitted.increment();
+        request.setAttribute(ADMITTED, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        release(request);
+    }
+
+    public AdmissionStatsDTO getStats() {
+        return new AdmissionStatsDTO(enabled, concurrencyLimit.getLimit(), concurrencyLimit.getInFlight(),
+                micros(concurrencyLimit.getRecentNanos()), micros(concurrencyLimit.getBaselineNanos()),
+                admitted.sum(), rateLimited.sum(), shed.sum(), buckets.size());
+    }
+
+    int cost(String endpoint, String size) {
+        int rows = costPageSize;
+        if (size != null) {
+            try {
+                rows = Math.min(Integer.parseInt(size), maxPageSize);
+            } catch (NumberFormatException ex) {
+                //The controller rejects it
+            }
+        }
+        int pages = Math.max(1, (rows + costPageSize - 1) / costPageSize);
+        return (expensiveEndpoints.contains(endpoint) ? expensiveWeight : 1) * pages;
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(ADMITTED) != null) {
+            request.removeAttribute(ADMITTED);
+            concurrencyLimit.release(QueryCounter.getStatements(), QueryCounter.getDatabaseNanos());
+        }
+    }
+
+    //No sample yet reads as 0
+    private static double micros(double nanos) {
+        return Double.isNaN(nanos) ? 0 : nanos / 1000;
+    }
+
+    private String client(HttpServletRequest request) {
+        String client = trustClientHeader ? request.getHeader(clientHeader) : null;
+        if (client == null || client.isBlank()) {
+            return request.getRemoteAddr();
+        }
+        return client.length() > MAX_CLIENT_LENGTH ? client.substring(0, MAX_CLIENT_LENGTH) : client;
+    }
+
+    private TokenBucket bucket(String client, String endpoint, long now) {
+        String key = client + ' ' + endpoint;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        long sweptAt = lastSweep.get();
+        boolean full = buckets.size() >= maxBuckets;
+        if (now - sweptAt > (full ? FULL_SWEEP_INTERVAL_NANOS : SWEEP_INTERVAL_NANOS) && lastSweep.compareAndSet(sweptAt, now)) {
+            buckets.values().removeIf(idle -> idle.isFull(now));
+            full = buckets.size() >= maxBuckets;
+        }
+        if (full) {
+            key = OVERFLOW_CLIENT + ' ' + endpoint;
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(burst, rate, now));
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.productcatalogapi.admission;
+
+/**
+ * Request budget of one client on one endpoint: holds up to capacity tokens and refills at a fixed rate,
+ * a request takes as many tokens as it costs. Refill is computed lazily from the time of the last call,
+ * so idle buckets cost nothing until they are used again.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double capacity, double tokensPerSecond, long now) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.refilledAt = now;
+    }
+
+    //Takes cost tokens and returns 0, or takes nothing and returns the nanoseconds until they are available
+    synchronized long tryAcquire(double cost, long now) {
+        refill(now);
+        double needed = Math.min(cost, capacity);
+        if (tokens >= needed) {
+            tokens -= needed;
+            return 0;
+        }
+        return (long) Math.ceil((needed - tokens) / tokensPerNano);
+    }
+
+    //A full bucket behaves like a new one and can be dropped
+    synchronized boolean isFull(long now) {
+        refill(now);
+        return tokens >= capacity;
+    }
+
+    private void refill(long now) {
+        if (now > refilledAt) {
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+            refilledAt = now;
+        }
+    }
+}
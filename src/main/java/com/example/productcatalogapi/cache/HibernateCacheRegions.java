@@ -0,0 +1,70 @@
+package com.example.productcatalogapi.cache;
+
+import com.example.productcatalogapi.dto.RegionCacheStatsDTO;
+import com.example.productcatalogapi.entity.Product;
+import com.example.productcatalogapi.event.ProductChangedEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Invalidation and statistics for the Hibernate second-level and query cache.
+ * Stock adjustments and bulk writes go through JDBC, which Hibernate does not see, so every product
+ * change event evicts the product and the cached query results after commit. Does nothing while the
+ * cache is switched off.
+ */
+@Component
+public class HibernateCacheRegions {
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    public HibernateCacheRegions(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+    }
+
+    public boolean isEnabled() {
+        return sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(Product.class, event.getProductId());
+        cache.evictQueryRegions();
+    }
+
+    public void clear() {
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    public List<RegionCacheStatsDTO> getStats() {
+        if (!isEnabled()) {
+            return List.of();
+        }
+        Statistics statistics = sessionFactory.getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(statistics::getCacheRegionStatistics)
+                .filter(Objects::nonNull)
+                .map(HibernateCacheRegions::toStats)
+                .collect(Collectors.toList());
+    }
+
+    private static RegionCacheStatsDTO toStats(CacheRegionStatistics region) {
+        long requests = region.getHitCount() + region.getMissCount();
+        return new RegionCacheStatsDTO(region.getRegionName(), region.getHitCount(), region.getMissCount(),
+                region.getPutCount(), requests == 0 ? 0.0 : (double) region.getHitCount() / requests);
+    }
+}
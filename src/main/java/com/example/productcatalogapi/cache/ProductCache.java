@@ -0,0 +1,209 @@
+package com.example.productcatalogapi.cache;
+
+import com.example.productcatalogapi.dto.CacheStatsDTO;
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded read-through cache of product responses, addressable by id and by code.
+ * Entries are evicted least-recently-used once the cache is full and expire after the
+ * configured time to live. Product change events invalidate the affected keys after commit.
+ */
+@Component
+public class ProductCache {
+
+    private final int maxSize;
+    private final long ttlNanos;
+
+    //Access-ordered so the eldest entry is the least recently used
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Long> idsByCode = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    //Bumped on every invalidation so loads that raced with a write are not cached
+    private final AtomicLong invalidationStamp = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ProductCache(@Value("${catalog.cache.max-size:10000}") int maxSize,
+                        @Value("${catalog.cache.ttl:10m}") Duration ttl) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    public ProductResponseDTO get(Long id) {
+        lock.lock();
+        try {
+            return lookup(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public ProductResponseDTO getByCode(String code) {
+        lock.lock();
+        try {
+            Long id = idsByCode.get(code);
+            if (id == null) {
+                misses.increment();
+                return null;
+            }
+            return lookup(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Take before loading from the database and pass to put()
+    public long stamp() {
+        return invalidationStamp.get();
+    }
+
+    //Caches the product unless one was invalidated since the load started
+    public void put(ProductResponseDTO product, long stamp) {
+        if (!isEnabled()) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (invalidationStamp.get() != stamp) {
+                return;
+            }
+            Entry previous = entries.put(product.getId(), new Entry(product, System.nanoTime() + ttlNanos));
+            if (previous != null && !previous.product.getCode().equals(product.getCode())) {
+                idsByCode.remove(previous.product.getCode());
+            }
+            idsByCode.put(product.getCode(), product.getId());
+            evictOverflow();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Ids of the cached products, most recently used first
+    public List<Long> getIds() {
+        lock.lock();
+        try {
+            List<Long> ids = new ArrayList<>(entries.keySet());
+            Collections.reverse(ids);
+            return ids;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(Long id, String code) {
+        lock.lock();
+        try {
+            invalidationStamp.incrementAndGet();
+            Entry removed = entries.remove(id);
+            if (removed != null) {
+                idsByCode.remove(removed.product.getCode());
+                invalidations.increment();
+            }
+            if (code != null) {
+                idsByCode.remove(code);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            invalidationStamp.incrementAndGet();
+            entries.clear();
+            idsByCode.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getPrevious() != null) {
+            invalidate(event.getPrevious().getId(), event.getPrevious().getCode());
+        }
+        if (event.getCurrent() != null) {
+            invalidate(event.getCurrent().getId(), event.getCurrent().getCode());
+        }
+    }
+
+    public CacheStatsDTO getStats() {
+        int size;
+        lock.lock();
+        try {
+            size = entries.size();
+        } finally {
+            lock.unlock();
+        }
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long requests = hitCount + missCount;
+        return new CacheStatsDTO(size, maxSize, hitCount, missCount, evictions.sum(), invalidations.sum(),
+                requests == 0 ? 0.0 : (double) hitCount / requests);
+    }
+
+    //Callers must hold the lock
+    private ProductResponseDTO lookup(Long id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt - System.nanoTime() < 0) {
+            entries.remove(id);
+            idsByCode.remove(entry.product.getCode());
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.product;
+    }
+
+    //Callers must hold the lock
+    private void evictOverflow() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            Entry entry = eldest.next();
+            eldest.remove();
+            idsByCode.remove(entry.product.getCode());
+            evictions.increment();
+        }
+    }
+
+    private static final class Entry {
+
+        private final ProductResponseDTO product;
+        private final long expiresAt;
+
+        private Entry(ProductResponseDTO product, long expiresAt) {
+            this.product = product;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
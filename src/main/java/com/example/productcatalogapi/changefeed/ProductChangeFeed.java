@@ -0,0 +1,263 @@
+package com.example.productcatalogapi.changefeed;
+
+import com.example.productcatalogapi.datasource.ReplicaRoutingDataSource;
+import com.example.productcatalogapi.dto.ChangeFeedPageDTO;
+import com.example.productcatalogapi.dto.ProductChangeDTO;
+import com.example.productcatalogapi.entity.ProductChange;
+import com.example.productcatalogapi.exception.ChangeFeedExpiredException;
+import com.example.productcatalogapi.metrics.QueryCounter;
+import com.example.productcatalogapi.repository.ProductChangeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Reads the product change outbox for polling and Server-Sent-Events consumers.
+ * Identity values are assigned at insert but become visible at commit, so a sequence number can show up
+ * after a higher one. Reads therefore stop at the first gap until it is filled or older than gap-timeout
+ * (rolled back transactions leave permanent gaps). gap-timeout must exceed the longest write transaction.
+ * Purging keeps the newest purged change, so the oldest row in the table marks how far back the feed
+ * reaches on every instance and after restarts. A position before it may have missed purged changes and
+ * is answered with ChangeFeedExpiredException; ids rolled back right before it make that err towards a
+ * needless resynchronization, never towards skipped changes.
+ */
+@Component
+public class ProductChangeFeed implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductChangeFeed.class);
+
+    private static final String SEQUENCE_BEFORE_SQL = "SELECT MAX(id) FROM product_changes WHERE created_at < ?";
+    private static final String PURGE_SQL = "DELETE FROM product_changes WHERE id < ?";
+
+    private final ProductChangeRepository changeRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration pollInterval;
+    private final Duration gapTimeout;
+    private final Duration retention;
+    private final Duration streamTimeout;
+    private final int batchSize;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean broadcastRequested = new AtomicBoolean();
+    private volatile ScheduledExecutorService executor;
+
+    public ProductChangeFeed(ProductChangeRepository changeRepository,
+                             JdbcTemplate jdbcTemplate,
+                             @Value("${catalog.changes.poll-interval:1s}") Duration pollInterval,
+                             @Value("${catalog.changes.gap-timeout:5s}") Duration gapTimeout,
+                             @Value("${catalog.changes.retention:7d}") Duration retention,
+                             @Value("${catalog.changes.stream-timeout:30m}") Duration streamTimeout,
+                             @Value("${catalog.changes.batch-size:500}") int batchSize) {
+        this.changeRepository = changeRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.pollInterval = pollInterval;
+        this.gapTimeout = gapTimeout;
+        this.retention = retention;
+        this.streamTimeout = streamTimeout;
+        this.batchSize = batchSize;
+    }
+
+    //Sequence of the newest change, where a consumer without a position starts
+    public long getLastSequence() {
+        return ReplicaRoutingDataSource.onPrimary(changeRepository::findLastSequence);
+    }
+
+    //Sequence through which every change has committed: anything inserted more than gap-timeout ago.
+    //A scan of the products table started now contains all of them
+    public long getSettledSequence() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(gapTimeout));
+        Long sequence = jdbcTemplate.queryForObject(SEQUENCE_BEFORE_SQL, Long.class, cutoff);
+        return sequence != null ? sequence : 0L;
+    }
+
+    //Every change after the given sequence committed so far, gaps included. For a one-off catch-up,
+    //a consumer that moves a cursor forward must use read() so it does not skip changes still in flight
+    public List<ProductChangeDTO> readCommitted(long after, int limit) {
+        List<ProductChange> rows = ReplicaRoutingDataSource.onPrimary(() ->
+                changeRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit)));
+        List<ProductChangeDTO> changes = new ArrayList<>(rows.size());
+        for (ProductChange row : rows) {
+            changes.add(toDTO(row));
+        }
+        return changes;
+    }
+
+    //Changes after the given sequence, oldest first
+    public ChangeFeedPageDTO read(long after, int limit) {
+        checkRetained(after);
+        List<ProductChangeDTO> changes = readVisible(after, Math.min(limit, batchSize));
+        long lastSequence = changes.isEmpty() ? after : changes.get(changes.size() - 1).getSequence();
+        return new ChangeFeedPageDTO(changes, lastSequence);
+    }
+
+    //Streams every change after the given sequence, then new ones as they commit
+    public SseEmitter subscribe(long after) {
+        checkRetained(after);
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, after);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        wake();
+        return emitter;
+    }
+
+    //Called after a local commit so subscribers see it without waiting for the next poll
+    public void wake() {
+        ScheduledExecutorService current = executor;
+        if (current != null && !subscribers.isEmpty() && broadcastRequested.compareAndSet(false, true)) {
+            current.execute(QueryCounter.counted(this::broadcast));
+        }
+    }
+
+    private void checkRetained(long after) {
+        Long first = ReplicaRoutingDataSource.onPrimary(changeRepository::findFirstSequence);
+        if (first != null && after < first - 1) {
+            throw new ChangeFeedExpiredException("Changes after sequence " + after + " are no longer retained, " +
+                    "resynchronize and continue from sequence " + (first - 1));
+        }
+    }
+
+    //Always from the primary, on a lagging replica a not yet replicated change would look like a gap
+    private List<ProductChangeDTO> readVisible(long after, int limit) {
+        List<ProductChange> rows = ReplicaRoutingDataSource.onPrimary(() ->
+                changeRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit)));
+        LocalDateTime settled = LocalDateTime.now().minus(gapTimeout);
+        List<ProductChangeDTO> changes = new ArrayList<>(rows.size());
+        long expected = after + 1;
+        for (ProductChange row : rows) {
+            if (row.getId() != expected && row.getCreatedAt().isAfter(settled)) {
+                break;
+            }
+            changes.add(toDTO(row));
+            expected = row.getId() + 1;
+        }
+        return changes;
+    }
+
+    private static ProductChangeDTO toDTO(ProductChange row) {
+        return new ProductChangeDTO(row.getId(), row.getChangeType(), row.getProductId(),
+                row.getProductCode(), row.getCreatedAt(), row.getPayload());
+    }
+
+    //Runs on the feed thread only. Each subscriber reads from its own position, so a new or slow
+    //consumer catches up in batches without holding back the others
+    private void broadcast() {
+        broadcastRequested.set(false);
+        for (Subscriber subscriber : subscribers) {
+            try {
+                List<ProductChangeDTO> changes;
+                do {
+                    changes = readVisible(subscriber.cursor, batchSize);
+                    for (ProductChangeDTO change : changes) {
+                        subscriber.emitter.send(SseEmitter.event()
+                                .id(String.valueOf(change.getSequence()))
+                                .name("product-change")
+                                .data(change, MediaType.APPLICATION_JSON));
+                        subscriber.cursor = change.getSequence();
+                    }
+                } while (changes.size() == batchSize);
+            } catch (IOException | IllegalStateException ex) {
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(ex);
+            } catch (DataAccessException ex) {
+                log.warn("Change feed read failed, retrying on the next poll: {}", ex.getMostSpecificCause().getMessage());
+                return;
+            }
+        }
+    }
+
+    //Proxies drop idle connections, an SSE comment keeps them open
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException ex) {
+                subscribers.remove(subscriber);
+                subscriber.emitter.completeWithError(ex);
+            }
+        }
+    }
+
+    private void purge() {
+        try {
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minus(retention));
+            Long boundary = jdbcTemplate.queryForObject(SEQUENCE_BEFORE_SQL, Long.class, cutoff);
+            if (boundary != null) {
+                int deleted = jdbcTemplate.update(PURGE_SQL, boundary);
+                log.info("Purged {} product changes before sequence {}", deleted, boundary);
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Change feed purge failed: {}", ex.getMostSpecificCause().getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        //Polling picks up changes committed by other instances
+        scheduler.scheduleWithFixedDelay(QueryCounter.counted(() -> {
+            if (!subscribers.isEmpty()) {
+                broadcast();
+            }
+        }), pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::heartbeat, 15, 15, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(QueryCounter.counted(this::purge), 1, 60, TimeUnit.MINUTES);
+        executor = scheduler;
+    }
+
+    //Stops before the web server so open streams do not hold up a graceful shutdown
+    @Override
+    public void stop() {
+        ScheduledExecutorService scheduler = executor;
+        if (scheduler == null) {
+            return;
+        }
+        executor = null;
+        scheduler.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return executor != null;
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private volatile long cursor;
+
+        private Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+    }
+}
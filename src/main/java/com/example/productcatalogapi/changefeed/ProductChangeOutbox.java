@@ -0,0 +1,102 @@
+package com.example.productcatalogapi.changefeed;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.event.ProductChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes every product change to the product_changes outbox table inside the transaction that made it,
+ * so the feed has exactly the committed changes. Changes are collected per transaction and inserted as
+ * one JDBC batch just before commit, which keeps bulk chunks at one extra statement round trip.
+ */
+@Component
+public class ProductChangeOutbox {
+
+    private static final String INSERT_SQL = "INSERT INTO product_changes " +
+            "(product_id, product_code, change_type, payload, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ProductChangeFeed changeFeed;
+
+    public ProductChangeOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, ProductChangeFeed changeFeed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.changeFeed = changeFeed;
+    }
+
+    //A plain listener, so it runs in the publisher's transaction rather than after it
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(List.of(event));
+            changeFeed.wake();
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<ProductChangedEvent> pending = (List<ProductChangedEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            List<ProductChangedEvent> batch = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, batch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(batch);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ProductChangeOutbox.this);
+                    if (status == STATUS_COMMITTED) {
+                        changeFeed.wake();
+                    }
+                }
+            });
+            pending = batch;
+        }
+        pending.add(event);
+    }
+
+    private void insert(List<ProductChangedEvent> events) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ProductChangedEvent event = events.get(i);
+                ProductResponseDTO product = event.getCurrent() != null ? event.getCurrent() : event.getPrevious();
+                ps.setLong(1, event.getProductId());
+                ps.setString(2, product.getCode());
+                ps.setString(3, event.getChangeType().name());
+                ps.setString(4, event.getCurrent() != null ? toJson(event.getCurrent()) : null);
+                ps.setTimestamp(5, now);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return events.size();
+            }
+        });
+    }
+
+    private String toJson(ProductResponseDTO product) {
+        try {
+            return objectMapper.writeValueAsString(product);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize product " + product.getId(), ex);
+        }
+    }
+}
@@ -0,0 +1,566 @@
+package com.example.productcatalogapi.columnar;
+
+import com.example.productcatalogapi.datasource.ReplicaRoutingDataSource;
+import com.example.productcatalogapi.dto.ProductFilterDTO;
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.dto.ProductSummaryDTO;
+import com.example.productcatalogapi.event.ProductChangeType;
+import com.example.productcatalogapi.event.ProductChangedEvent;
+import com.example.productcatalogapi.index.CatalogIndex;
+import com.example.productcatalogapi.metrics.QueryCounter;
+import com.example.productcatalogapi.repository.ProductProjection;
+import com.example.productcatalogapi.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read-serving copy of the whole catalog in ProductColumns, for instances that answer reads from memory.
+ * Loaded with the other catalog indexes, kept current by local change events and by polling the products
+ * table for rows whose updated_at moved past the last one seen, which brings in writes made through other
+ * instances. The poll reaches back refresh-overlap so writes whose timestamps were taken before a later
+ * row committed are not skipped. Deletions elsewhere show up as fewer rows in the table than in memory and
+ * are found by comparing ids.
+ * Lookups and filtered pages ordered by numeric columns are answered here; anything else returns null and
+ * the caller goes to the database.
+ */
+@Component
+public class ColumnarCatalog implements CatalogIndex, SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ColumnarCatalog.class);
+
+    //Text orders depend on the database collation, so only these are sorted in memory
+    private static final List<String> SORTABLE = List.of("id", "price", "stockQuantity", "createdAt", "updatedAt");
+
+    private final ProductRepository productRepository;
+    private final boolean enabled;
+    private final Duration refreshInterval;
+    private final long overlapNanos;
+    private final int batchSize;
+
+    private final ProductColumns columns;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    //Newest updated_at applied from the table, epoch nanoseconds
+    private long watermark;
+    private volatile boolean ready;
+    private volatile ScheduledExecutorService refresher;
+
+    public ColumnarCatalog(ProductRepository productRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${catalog.columnar.enabled:false}") boolean enabled,
+                           @Value("${catalog.columnar.refresh-interval:1s}") Duration refreshInterval,
+                           @Value("${catalog.columnar.refresh-overlap:5s}") Duration refreshOverlap,
+                           @Value("${catalog.columnar.batch-size:1000}") int batchSize) {
+        this.productRepository = productRepository;
+        this.enabled = enabled;
+        this.refreshInterval = refreshInterval;
+        this.overlapNanos = refreshOverlap.toNanos();
+        this.batchSize = batchSize;
+        this.columns = enabled ? new ProductColumns(1 << 14) : null;
+        //Gauges read without the lock, a scrape must not wait for the initial load
+        if (enabled) {
+            Gauge.builder("catalog.columnar.products", columns, ProductColumns::size)
+                    .register(meterRegistry);
+            Gauge.builder("catalog.columnar.text", columns, ProductColumns::textCapacity)
+                    .baseUnit("bytes")
+                    .description("Off-heap buffer holding codes, names and descriptions")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public void beginLoad() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        columns.clear();
+        watermark = 0;
+    }
+
+    @Override
+    public void load(ProductResponseDTO product) {
+        if (!enabled) {
+            return;
+        }
+        columns.put(product);
+        watermark = Math.max(watermark, ProductColumns.toNanos(product.getUpdatedAt()));
+    }
+
+    @Override
+    public void finishLoad() {
+        if (!enabled) {
+            return;
+        }
+        ready = true;
+        lock.writeLock().unlock();
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (event.getChangeType() == ProductChangeType.DELETED) {
+                columns.remove(event.getProductId());
+            } else {
+                columns.put(event.getCurrent());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //The product, or null when it is unknown or the catalog is not loaded
+    public ProductResponseDTO get(Long id) {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int row = columns.rowOf(id);
+            return row < 0 ? null : columns.read(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public ProductResponseDTO getByCode(String code) {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            int row = columns.rowOfCode(code);
+            return row < 0 ? null : columns.read(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Products in the order of the ids, unknown ids are left out. Null when the catalog is not loaded
+    public <T> List<T> getAll(List<Long> ids, ProductProjection<T> projection) {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            List<T> products = new ArrayList<>(ids.size());
+            for (Long id : ids) {
+                int row = columns.rowOf(id);
+                if (row >= 0) {
+                    products.add(project(row, projection));
+                }
+            }
+            return products;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * A page of the products matching the filter, with the semantics of ProductSpecifications.matching.
+     * Returns null when the catalog is not loaded or the page is unpaged or sorted by other than numeric
+     * columns. Ties are broken by id.
+     */
+    public <T> Page<T> find(ProductFilterDTO filter, Collection<String> categories, Collection<Long> ids,
+                            Pageable pageable, ProductProjection<T> projection) {
+        if (!ready || pageable.isUnpaged()
+                || !pageable.getSort().stream().allMatch(order -> SORTABLE.contains(order.getProperty()))) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            RowFilter rowFilter = new RowFilter(filter, categories, ids);
+            long offset = pageable.getOffset();
+            boolean byId = pageable.getSort().isUnsorted()
+                    || (pageable.getSort().stream().count() == 1 && pageable.getSort().getOrderFor("id") != null);
+            if (byId && columns.isIdOrdered() && (filter.getQ() == null || ids == null)) {
+                return scanInIdOrder(rowFilter, pageable, projection);
+            }
+            int limit = (int) Math.min(offset + pageable.getPageSize(), Integer.MAX_VALUE);
+            TopRows top = new TopRows(limit, pageable.getSort());
+            if (filter.getQ() != null && ids != null) {
+                for (Long id : ids) {
+                    int row = columns.rowOf(id);
+                    if (row >= 0 && rowFilter.matches(row)) {
+                        top.offer(row);
+                    }
+                }
+            } else {
+                for (int row = 0, rows = columns.rowCount(); row < rows; row++) {
+                    if (columns.isLive(row) && rowFilter.matches(row)) {
+                        top.offer(row);
+                    }
+                }
+            }
+            int[] ordered = top.ordered();
+            List<T> content = new ArrayList<>(pageable.getPageSize());
+            for (long i = offset; i < ordered.length; i++) {
+                content.add(project(ordered[(int) i], projection));
+            }
+            return new PageImpl<>(content, pageable, top.total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Rows already ascend by id, so an id-ordered page is one pass that skips offset matches
+    private <T> Page<T> scanInIdOrder(RowFilter rowFilter, Pageable pageable, ProductProjection<T> projection) {
+        boolean descending = pageable.getSort().isSorted() && pageable.getSort().getOrderFor("id").isDescending();
+        long offset = pageable.getOffset();
+        List<T> content = new ArrayList<>(pageable.getPageSize());
+        long total = 0;
+        int rows = columns.rowCount();
+        for (int i = 0; i < rows; i++) {
+            int row = descending ? rows - 1 - i : i;
+            if (columns.isLive(row) && rowFilter.matches(row)) {
+                if (total >= offset && content.size() < pageable.getPageSize()) {
+                    content.add(project(row, projection));
+                }
+                total++;
+            }
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    //Applies rows changed in the table since the last poll, then looks for deletions
+    public void refresh() {
+        if (!ready) {
+            return;
+        }
+        long started = ProductColumns.toNanos(LocalDateTime.now());
+        long after;
+        lock.readLock().lock();
+        try {
+            after = watermark - overlapNanos;
+        } finally {
+            lock.readLock().unlock();
+        }
+        long afterId = 0;
+        int applied = 0;
+        while (true) {
+            long from = after;
+            long fromId = afterId;
+            //From the primary: a row a lagging replica applies later keeps its older updated_at and would be missed
+            List<ProductResponseDTO> changed = ReplicaRoutingDataSource.onPrimary(() -> productRepository
+                    .findChangedAfter(ProductColumns.toTime(from), fromId, Limit.of(batchSize)));
+            lock.writeLock().lock();
+            try {
+                for (ProductResponseDTO product : changed) {
+                    long updatedAt = ProductColumns.toNanos(product.getUpdatedAt());
+                    watermark = Math.max(watermark, updatedAt);
+                    int row = columns.rowOf(product.getId());
+                    if (row >= 0 && (columns.updatedAt(row) > updatedAt || columns.read(row).equals(product))) {
+                        continue;
+                    }
+                    columns.put(product);
+                    applied++;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (changed.size() < batchSize) {
+                break;
+            }
+            ProductResponseDTO last = changed.get(changed.size() - 1);
+            after = ProductColumns.toNanos(last.getUpdatedAt());
+            afterId = last.getId();
+        }
+        if (applied > 0) {
+            log.debug("Applied {} changed products to the columnar catalog", applied);
+        }
+        removeDeleted(started);
+    }
+
+    //Rows updated after the scan started are kept, they may have been inserted behind it
+    private void removeDeleted(long started) {
+        long count = ReplicaRoutingDataSource.onPrimary(productRepository::count);
+        lock.readLock().lock();
+        try {
+            if (count >= columns.size()) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        long[] existing = new long[(int) count + batchSize];
+        int found = 0;
+        long afterId = 0;
+        while (true) {
+            long fromId = afterId;
+            List<Long> batch = ReplicaRoutingDataSource.onPrimary(() ->
+                    productRepository.findIdsAfter(fromId, Limit.of(batchSize)));
+            for (Long id : batch) {
+                if (found == existing.length) {
+                    existing = Arrays.copyOf(existing, existing.length * 2);
+                }
+                existing[found++] = id;
+            }
+            if (batch.size() < batchSize) {
+                break;
+            }
+            afterId = batch.get(batch.size() - 1);
+        }
+        lock.writeLock().lock();
+        try {
+            List<Long> deleted = new ArrayList<>();
+            for (int row = 0, rows = columns.rowCount(); row < rows; row++) {
+                if (columns.isLive(row) && columns.updatedAt(row) < started - overlapNanos
+                        && Arrays.binarySearch(existing, 0, found, columns.id(row)) < 0) {
+                    deleted.add(columns.id(row));
+                }
+            }
+            deleted.forEach(columns::remove);
+            if (!deleted.isEmpty()) {
+                log.debug("Removed {} deleted products from the columnar catalog", deleted.size());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T project(int row, ProductProjection<T> projection) {
+        return projection.getType() == ProductSummaryDTO.class
+                ? projection.getType().cast(columns.readSummary(row))
+                : projection.getType().cast(columns.read(row));
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "columnar-catalog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher = executor;
+        executor.scheduleWithFixedDelay(QueryCounter.counted(() -> {
+            try {
+                refresh();
+            } catch (DataAccessException ex) {
+                log.warn("Columnar catalog refresh failed: {}", ex.getMostSpecificCause().getMessage());
+            } catch (RuntimeException ex) {
+                log.warn("Columnar catalog refresh failed", ex);
+            }
+        }), refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = refresher;
+        refresher = null;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return refresher != null;
+    }
+
+    //The filter criteria translated to column values once per query
+    private final class RowFilter {
+
+        private final boolean[] categories;
+        private final int activeState;
+        private final long minPrice;
+        private final long maxPrice;
+        private final long minStock;
+        private final long maxStock;
+        private final String term;
+
+        private RowFilter(ProductFilterDTO filter, Collection<String> categorySpellings, Collection<Long> ids) {
+            if (filter.getCategory() != null) {
+                String upper = filter.getCategory().toUpperCase();
+                categories = new boolean[columns.categoryCount()];
+                for (int i = 0; i < categories.length; i++) {
+                    String category = columns.categoryName(i);
+                    categories[i] = categorySpellings != null
+                            ? categorySpellings.contains(category)
+                            : category.toUpperCase().equals(upper);
+                }
+            } else {
+                categories = null;
+            }
+            activeState = filter.getIsActive() == null ? -1 : filter.getIsActive() ? 1 : 0;
+            minPrice = filter.getMinPrice() == null ? Long.MIN_VALUE : unscaled(filter.getMinPrice(), RoundingMode.CEILING);
+            maxPrice = filter.getMaxPrice() == null ? Long.MAX_VALUE : unscaled(filter.getMaxPrice(), RoundingMode.FLOOR);
+            minStock = filter.getMinStock() == null ? Long.MIN_VALUE : filter.getMinStock();
+            maxStock = filter.getMaxStock() == null ? Long.MAX_VALUE : filter.getMaxStock();
+            //With ids the term was already resolved by the search index, otherwise it is a substring of the
+            //name or the description
+            term = filter.getQ() != null && ids == null ? filter.getQ().toLowerCase() : null;
+        }
+
+        private boolean matches(int row) {
+            if (categories != null && (columns.category(row) < 0 || !categories[columns.category(row)])) {
+                return false;
+            }
+            if (activeState >= 0 && (!columns.hasActive(row) || columns.isActive(row) != (activeState == 1))) {
+                return false;
+            }
+            if (minPrice != Long.MIN_VALUE || maxPrice != Long.MAX_VALUE) {
+                if (!columns.hasPrice(row) || columns.price(row) < minPrice || columns.price(row) > maxPrice) {
+                    return false;
+                }
+            }
+            if (minStock != Long.MIN_VALUE || maxStock != Long.MAX_VALUE) {
+                if (!columns.hasStock(row) || columns.stock(row) < minStock || columns.stock(row) > maxStock) {
+                    return false;
+                }
+            }
+            if (term == null || columns.name(row).toLowerCase().contains(term)) {
+                return true;
+            }
+            String description = columns.description(row);
+            return description != null && description.toLowerCase().contains(term);
+        }
+
+        private static long unscaled(BigDecimal bound, RoundingMode roundingMode) {
+            BigInteger value = bound.setScale(ProductColumns.PRICE_SCALE, roundingMode).unscaledValue();
+            return value.max(BigInteger.valueOf(Long.MIN_VALUE + 1)).min(BigInteger.valueOf(Long.MAX_VALUE - 1))
+                    .longValue();
+        }
+    }
+
+    /**
+     * The first limit rows in sort order, kept in a bounded max-heap so a page costs one pass over the
+     * matches and no per-row allocation. Unsorted pages keep row order.
+     */
+    private final class TopRows {
+
+        private final int limit;
+        //Positions in SORTABLE
+        private final int[] properties;
+        private final boolean[] descending;
+        private int[] heap = new int[16];
+        private int size;
+        private long total;
+
+        private TopRows(int limit, Sort sort) {
+            this.limit = limit;
+            List<Sort.Order> orders = sort.toList();
+            properties = new int[orders.size()];
+            descending = new boolean[orders.size()];
+            for (int i = 0; i < properties.length; i++) {
+                properties[i] = SORTABLE.indexOf(orders.get(i).getProperty());
+                descending[i] = orders.get(i).isDescending();
+            }
+        }
+
+        private void offer(int row) {
+            total++;
+            if (size < limit) {
+                if (size == heap.length) {
+                    heap = Arrays.copyOf(heap, (int) Math.min((long) heap.length * 2, limit));
+                }
+                heap[size] = row;
+                siftUp(size++);
+            } else if (limit > 0 && compare(row, heap[0]) < 0) {
+                heap[0] = row;
+                siftDown(0, size);
+            }
+        }
+
+        //The kept rows, best first
+        private int[] ordered() {
+            for (int end = size - 1; end > 0; end--) {
+                int worst = heap[0];
+                heap[0] = heap[end];
+                heap[end] = worst;
+                siftDown(0, end);
+            }
+            return Arrays.copyOf(heap, size);
+        }
+
+        private void siftUp(int index) {
+            int row = heap[index];
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (compare(heap[parent], row) >= 0) {
+                    break;
+                }
+                heap[index] = heap[parent];
+                index = parent;
+            }
+            heap[index] = row;
+        }
+
+        private void siftDown(int index, int end) {
+            int row = heap[index];
+            while (true) {
+                int child = 2 * index + 1;
+                if (child >= end) {
+                    break;
+                }
+                if (child + 1 < end && compare(heap[child + 1], heap[child]) > 0) {
+                    child++;
+                }
+                if (compare(heap[child], row) <= 0) {
+                    break;
+                }
+                heap[index] = heap[child];
+                index = child;
+            }
+            heap[index] = row;
+        }
+
+        //Sort order, then id; unsorted pages keep row order. Nulls sort low, as in H2 and MySQL
+        private int compare(int a, int b) {
+            for (int i = 0; i < properties.length; i++) {
+                int result = Long.compare(key(a, properties[i]), key(b, properties[i]));
+                if (result != 0) {
+                    return descending[i] ? -result : result;
+                }
+            }
+            return properties.length == 0 ? Integer.compare(a, b) : Long.compare(columns.id(a), columns.id(b));
+        }
+
+        private long key(int row, int property) {
+            return switch (property) {
+                case 0 -> columns.id(row);
+                case 1 -> columns.hasPrice(row) ? columns.price(row) : Long.MIN_VALUE;
+                case 2 -> columns.hasStock(row) ? columns.stock(row) : Long.MIN_VALUE;
+                case 3 -> columns.createdAt(row);
+                default -> columns.updatedAt(row);
+            };
+        }
+    }
+}
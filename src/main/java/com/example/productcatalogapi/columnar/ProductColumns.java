@@ -0,0 +1,580 @@
+package com.example.productcatalogapi.columnar;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.dto.ProductSummaryDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The catalog stored column by column: one primitive array per attribute indexed by row, categories as
+ * numbers into an interned list, and the code, name and description of every row as UTF-8 in a single
+ * direct (off-heap) buffer. A million products are a handful of arrays instead of millions of DTOs,
+ * Strings and BigDecimals, so the collector has next to nothing to trace. Ids and codes are found
+ * through open-addressing tables of row numbers.
+ * An update rewrites the row in place and appends its text; deleted rows and replaced text are reclaimed
+ * by compaction, which renumbers the rows in id order. Not thread-safe.
+ */
+final class ProductColumns {
+
+    //Prices have scale 2 in the database, the column holds the unscaled value
+    static final int PRICE_SCALE = 2;
+
+    private static final long NULL = Long.MIN_VALUE;
+    private static final int NO_CATEGORY = -1;
+
+    private static final byte LIVE = 1;
+    private static final byte HAS_STOCK = 2;
+    private static final byte HAS_ACTIVE = 4;
+    private static final byte ACTIVE = 8;
+
+    //Table slots hold row + 1
+    private static final int EMPTY = 0;
+    private static final int REMOVED = -1;
+
+    private int rows;
+    private int liveRows;
+    private long[] ids;
+    private long[] prices;
+    private int[] stock;
+    private byte[] flags;
+    private int[] categories;
+    private long[] createdAt;
+    private long[] updatedAt;
+    private int[] textOffsets;
+
+    private ByteBuffer text;
+    private int textGarbage;
+    //Rows ascend by id: loads and new products arrive in id order, compaction restores it otherwise
+    private boolean idOrdered = true;
+
+    private final List<String> categoryNames = new ArrayList<>();
+    private final Map<String, Integer> categoryNumbers = new HashMap<>();
+
+    private int[] idTable;
+    private int[] codeTable;
+    private int idTableFill;
+    private int codeTableFill;
+
+    ProductColumns(int initialRows) {
+        allocate(Math.max(16, initialRows), Math.max(1 << 12, initialRows * 64));
+        rehash();
+    }
+
+    //Rows in use, including deleted ones that have not been compacted yet
+    int rowCount() {
+        return rows;
+    }
+
+    int size() {
+        return liveRows;
+    }
+
+    //Bytes of text held, and the off-heap capacity reserved for it
+    int textBytes() {
+        return text.position() - textGarbage;
+    }
+
+    int textCapacity() {
+        return text.capacity();
+    }
+
+    boolean isIdOrdered() {
+        return idOrdered;
+    }
+
+    //Row of the product, or -1
+    int rowOf(long id) {
+        int slot = idSlot(id);
+        return slot < 0 ? -1 : idTable[slot] - 1;
+    }
+
+    int rowOfCode(String code) {
+        byte[] bytes = code.getBytes(StandardCharsets.UTF_8);
+        int slot = codeSlot(bytes, hash(bytes, 0, bytes.length));
+        return slot < 0 ? -1 : codeTable[slot] - 1;
+    }
+
+    boolean isLive(int row) {
+        return (flags[row] & LIVE) != 0;
+    }
+
+    long id(int row) {
+        return ids[row];
+    }
+
+    //Unscaled price at PRICE_SCALE
+    long price(int row) {
+        return prices[row];
+    }
+
+    boolean hasPrice(int row) {
+        return prices[row] != NULL;
+    }
+
+    boolean hasStock(int row) {
+        return (flags[row] & HAS_STOCK) != 0;
+    }
+
+    int stock(int row) {
+        return stock[row];
+    }
+
+    //True only for a stored true, like is_active = true in SQL
+    boolean isActive(int row) {
+        return (flags[row] & (HAS_ACTIVE | ACTIVE)) == (HAS_ACTIVE | ACTIVE);
+    }
+
+    boolean hasActive(int row) {
+        return (flags[row] & HAS_ACTIVE) != 0;
+    }
+
+    //Number of the row's category in categoryName(), or -1 without a category
+    int category(int row) {
+        return categories[row];
+    }
+
+    int categoryCount() {
+        return categoryNames.size();
+    }
+
+    String categoryName(int category) {
+        return categoryNames.get(category);
+    }
+
+    //Epoch nanoseconds (UTC), Long.MIN_VALUE when null
+    long createdAt(int row) {
+        return createdAt[row];
+    }
+
+    long updatedAt(int row) {
+        return updatedAt[row];
+    }
+
+    String name(int row) {
+        int offset = textOffsets[row];
+        offset = skip(offset);
+        return readString(offset);
+    }
+
+    String description(int row) {
+        int offset = textOffsets[row];
+        offset = skip(skip(offset));
+        return readString(offset);
+    }
+
+    ProductResponseDTO read(int row) {
+        int offset = textOffsets[row];
+        String code = readString(offset);
+        offset = skip(offset);
+        String name = readString(offset);
+        offset = skip(offset);
+        return new ProductResponseDTO(ids[row], code, name, readString(offset), readPrice(row),
+                readCategory(row), readStock(row), readActive(row), toTime(createdAt[row]), toTime(updatedAt[row]));
+    }
+
+    ProductSummaryDTO readSummary(int row) {
+        int offset = textOffsets[row];
+        String code = readString(offset);
+        String name = readString(skip(offset));
+        return new ProductSummaryDTO(ids[row], code, name, readPrice(row), readCategory(row), readStock(row),
+                readActive(row), toTime(updatedAt[row]));
+    }
+
+    //Inserts the product or replaces the stored version of it
+    void put(ProductResponseDTO product) {
+        int row = rowOf(product.getId());
+        boolean added = row < 0;
+        if (added) {
+            row = appendRow(product.getId());
+        } else {
+            removeCode(row);
+            textGarbage += textLength(row);
+        }
+        prices[row] = product.getPrice() == null ? NULL
+                : product.getPrice().setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+        byte rowFlags = LIVE;
+        if (product.getStockQuantity() != null) {
+            rowFlags |= HAS_STOCK;
+            stock[row] = product.getStockQuantity();
+        } else {
+            stock[row] = 0;
+        }
+        if (product.getIsActive() != null) {
+            rowFlags |= HAS_ACTIVE;
+            if (product.getIsActive()) {
+                rowFlags |= ACTIVE;
+            }
+        }
+        flags[row] = rowFlags;
+        categories[row] = intern(product.getCategory());
+        createdAt[row] = toNanos(product.getCreatedAt());
+        updatedAt[row] = toNanos(product.getUpdatedAt());
+        textOffsets[row] = appendText(product);
+        if (added) {
+            insertId(row);
+        }
+        insertCode(row);
+        if (idTableFill * 2 > idTable.length || codeTableFill * 2 > codeTable.length) {
+            rehash();
+        }
+        compactIfWasteful();
+    }
+
+    boolean remove(long id) {
+        int slot = idSlot(id);
+        if (slot < 0) {
+            return false;
+        }
+        int row = idTable[slot] - 1;
+        idTable[slot] = REMOVED;
+        removeCode(row);
+        flags[row] = 0;
+        liveRows--;
+        textGarbage += textLength(row);
+        compactIfWasteful();
+        return true;
+    }
+
+    void clear() {
+        rows = 0;
+        liveRows = 0;
+        idOrdered = true;
+        text.clear();
+        textGarbage = 0;
+        categoryNames.clear();
+        categoryNumbers.clear();
+        rehash();
+    }
+
+    //Copies the live rows into new columns in id order, with their text packed into a new buffer
+    void compact() {
+        int[] sources = new int[liveRows];
+        int live = 0;
+        for (int row = 0; row < rows; row++) {
+            if (isLive(row)) {
+                sources[live++] = row;
+            }
+        }
+        if (!idOrdered) {
+            long[] order = new long[live];
+            for (int i = 0; i < live; i++) {
+                order[i] = ids[sources[i]];
+            }
+            Arrays.sort(order);
+            for (int i = 0; i < live; i++) {
+                sources[i] = rowOf(order[i]);
+            }
+        }
+        int[] lengths = new int[live];
+        for (int i = 0; i < live; i++) {
+            lengths[i] = textLength(sources[i]);
+        }
+        long[] oldIds = ids;
+        long[] oldPrices = prices;
+        int[] oldStock = stock;
+        byte[] oldFlags = flags;
+        int[] oldCategories = categories;
+        long[] oldCreatedAt = createdAt;
+        long[] oldUpdatedAt = updatedAt;
+        int[] oldTextOffsets = textOffsets;
+        ByteBuffer oldText = text;
+        allocate(ids.length, Math.max(1 << 12, textBytes() + textBytes() / 2));
+        for (int row = 0; row < live; row++) {
+            int source = sources[row];
+            ids[row] = oldIds[source];
+            prices[row] = oldPrices[source];
+            stock[row] = oldStock[source];
+            flags[row] = oldFlags[source];
+            categories[row] = oldCategories[source];
+            createdAt[row] = oldCreatedAt[source];
+            updatedAt[row] = oldUpdatedAt[source];
+            textOffsets[row] = text.position();
+            text.put(oldText.slice(oldTextOffsets[source], lengths[row]));
+        }
+        textGarbage = 0;
+        rows = live;
+        idOrdered = true;
+        rehash();
+    }
+
+    private void compactIfWasteful() {
+        if (rows - liveRows > Math.max(1024, rows / 4) || textGarbage > Math.max(1 << 20, text.position() / 4)) {
+            compact();
+        }
+    }
+
+    private int appendRow(long id) {
+        if (rows == ids.length) {
+            grow(ids.length + (ids.length >> 1));
+        }
+        int row = rows++;
+        idOrdered &= row == 0 || id > ids[row - 1];
+        ids[row] = id;
+        liveRows++;
+        return row;
+    }
+
+    private void insertId(int row) {
+        int mask = idTable.length - 1;
+        int slot = mix(Long.hashCode(ids[row])) & mask;
+        while (idTable[slot] != EMPTY && idTable[slot] != REMOVED) {
+            slot = (slot + 1) & mask;
+        }
+        if (idTable[slot] == EMPTY) {
+            idTableFill++;
+        }
+        idTable[slot] = row + 1;
+    }
+
+    private void insertCode(int row) {
+        int offset = textOffsets[row];
+        int mask = codeTable.length - 1;
+        int slot = codeHash(offset) & mask;
+        while (codeTable[slot] != EMPTY && codeTable[slot] != REMOVED) {
+            slot = (slot + 1) & mask;
+        }
+        if (codeTable[slot] == EMPTY) {
+            codeTableFill++;
+        }
+        codeTable[slot] = row + 1;
+    }
+
+    private void removeCode(int row) {
+        int offset = textOffsets[row];
+        int mask = codeTable.length - 1;
+        for (int slot = codeHash(offset) & mask; codeTable[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (codeTable[slot] == row + 1) {
+                codeTable[slot] = REMOVED;
+                return;
+            }
+        }
+    }
+
+    private int idSlot(long id) {
+        int mask = idTable.length - 1;
+        for (int slot = mix(Long.hashCode(id)) & mask; ; slot = (slot + 1) & mask) {
+            int entry = idTable[slot];
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (entry != REMOVED && ids[entry - 1] == id) {
+                return slot;
+            }
+        }
+    }
+
+    private int codeSlot(byte[] code, int hash) {
+        int mask = codeTable.length - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = codeTable[slot];
+            if (entry == EMPTY) {
+                return -1;
+            }
+            if (entry != REMOVED && codeEquals(textOffsets[entry - 1], code)) {
+                return slot;
+            }
+        }
+    }
+
+    //Both tables sized for the live rows at a load factor of at most 1/4, without removed markers
+    private void rehash() {
+        int length = 16;
+        while (length < liveRows * 4) {
+            length <<= 1;
+        }
+        idTable = new int[length];
+        codeTable = new int[length];
+        idTableFill = 0;
+        codeTableFill = 0;
+        int mask = length - 1;
+        for (int row = 0; row < rows; row++) {
+            if (!isLive(row)) {
+                continue;
+            }
+            int slot = mix(Long.hashCode(ids[row])) & mask;
+            while (idTable[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            idTable[slot] = row + 1;
+            idTableFill++;
+            slot = codeHash(textOffsets[row]) & mask;
+            while (codeTable[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            codeTable[slot] = row + 1;
+            codeTableFill++;
+        }
+    }
+
+    private void allocate(int rowCapacity, int textCapacity) {
+        ids = new long[rowCapacity];
+        prices = new long[rowCapacity];
+        stock = new int[rowCapacity];
+        flags = new byte[rowCapacity];
+        categories = new int[rowCapacity];
+        createdAt = new long[rowCapacity];
+        updatedAt = new long[rowCapacity];
+        textOffsets = new int[rowCapacity];
+        text = ByteBuffer.allocateDirect(textCapacity);
+    }
+
+    private void grow(int rowCapacity) {
+        ids = Arrays.copyOf(ids, rowCapacity);
+        prices = Arrays.copyOf(prices, rowCapacity);
+        stock = Arrays.copyOf(stock, rowCapacity);
+        flags = Arrays.copyOf(flags, rowCapacity);
+        categories = Arrays.copyOf(categories, rowCapacity);
+        createdAt = Arrays.copyOf(createdAt, rowCapacity);
+        updatedAt = Arrays.copyOf(updatedAt, rowCapacity);
+        textOffsets = Arrays.copyOf(textOffsets, rowCapacity);
+    }
+
+    private int intern(String category) {
+        if (category == null) {
+            return NO_CATEGORY;
+        }
+        Integer number = categoryNumbers.get(category);
+        if (number == null) {
+            number = categoryNames.size();
+            categoryNames.add(category);
+            categoryNumbers.put(category, number);
+        }
+        return number;
+    }
+
+    //Code, name and description, each as a short length (-1 for null) and the UTF-8 bytes
+    private int appendText(ProductResponseDTO product) {
+        byte[] code = utf8(product.getCode());
+        byte[] name = utf8(product.getName());
+        byte[] description = utf8(product.getDescription());
+        int length = 6 + lengthOf(code) + lengthOf(name) + lengthOf(description);
+        if (text.remaining() < length) {
+            long capacity = Math.max((long) text.capacity() * 2, (long) text.position() + length);
+            if (capacity > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Columnar text buffer cannot grow beyond 2 GB");
+            }
+            ByteBuffer grown = ByteBuffer.allocateDirect((int) capacity);
+            grown.put(text.flip());
+            text = grown;
+        }
+        int offset = text.position();
+        putString(code);
+        putString(name);
+        putString(description);
+        return offset;
+    }
+
+    private void putString(byte[] bytes) {
+        if (bytes == null) {
+            text.putShort((short) -1);
+            return;
+        }
+        text.putShort((short) bytes.length);
+        text.put(bytes);
+    }
+
+    private static byte[] utf8(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Text of " + bytes.length + " bytes does not fit a column");
+        }
+        return bytes;
+    }
+
+    private static int lengthOf(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private int textLength(int row) {
+        int start = textOffsets[row];
+        return skip(skip(skip(start))) - start;
+    }
+
+    private int skip(int offset) {
+        return offset + 2 + Math.max(0, text.getShort(offset));
+    }
+
+    private String readString(int offset) {
+        int length = text.getShort(offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        text.get(offset + 2, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean codeEquals(int offset, byte[] code) {
+        if (text.getShort(offset) != code.length) {
+            return false;
+        }
+        for (int i = 0; i < code.length; i++) {
+            if (text.get(offset + 2 + i) != code[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int codeHash(int offset) {
+        return hash(null, offset + 2, Math.max(0, text.getShort(offset)));
+    }
+
+    //Hash of bytes from the array, or from the text buffer when bytes is null
+    private int hash(byte[] bytes, int from, int length) {
+        int hash = 1;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + (bytes != null ? bytes[from + i] : text.get(from + i));
+        }
+        return mix(hash);
+    }
+
+    private static int mix(int hash) {
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private BigDecimal readPrice(int row) {
+        return prices[row] == NULL ? null : BigDecimal.valueOf(prices[row], PRICE_SCALE);
+    }
+
+    private String readCategory(int row) {
+        return categories[row] == NO_CATEGORY ? null : categoryNames.get(categories[row]);
+    }
+
+    private Integer readStock(int row) {
+        return hasStock(row) ? stock[row] : null;
+    }
+
+    private Boolean readActive(int row) {
+        return hasActive(row) ? isActive(row) : null;
+    }
+
+    static long toNanos(LocalDateTime time) {
+        if (time == null) {
+            return NULL;
+        }
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    static LocalDateTime toTime(long nanos) {
+        if (nanos == NULL) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L),
+                (int) Math.floorMod(nanos, 1_000_000_000L), ZoneOffset.UTC);
+    }
+}
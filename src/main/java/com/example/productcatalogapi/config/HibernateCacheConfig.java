@@ -0,0 +1,83 @@
+package com.example.productcatalogapi.config;
+
+import com.example.productcatalogapi.entity.Product;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level and query cache on a local Caffeine JCache provider, switched on with
+ * catalog.hibernate-cache.enabled. Product entities and the projected list queries are cached per
+ * replica; writes through Hibernate invalidate them by the update timestamps, JDBC writes through
+ * the product change events (see HibernateCacheRegions). Regions are bounded and expire, so an
+ * entry made stale by another replica's write lives at most one TTL.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final String ENABLED = "catalog.hibernate-cache.enabled";
+
+    //hibernate-jcache on the classpath would otherwise switch the entity cache on by itself
+    @Bean
+    @ConditionalOnProperty(name = ENABLED, havingValue = "false", matchIfMissing = true)
+    public HibernatePropertiesCustomizer hibernateCacheDisabled() {
+        return properties -> properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, false);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = ENABLED, havingValue = "true")
+    static class Enabled {
+
+        //A private manager per application context, regions are created up front with their limits
+        @Bean(destroyMethod = "close")
+        public CacheManager hibernateCacheManager(
+                @Value("${catalog.hibernate-cache.entity.max-size:10000}") long entityMaxSize,
+                @Value("${catalog.hibernate-cache.entity.ttl:10m}") Duration entityTtl,
+                @Value("${catalog.hibernate-cache.query.max-size:1000}") long queryMaxSize,
+                @Value("${catalog.hibernate-cache.query.ttl:1m}") Duration queryTtl) {
+            CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                    .getCacheManager(URI.create("catalog-hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+            cacheManager.createCache(Product.CACHE_REGION, region(entityMaxSize, entityTtl));
+            cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, region(queryMaxSize, queryTtl));
+            //Update timestamps decide whether a cached query is still valid, they must never be evicted
+            cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                    new CaffeineConfiguration<>().setStatisticsEnabled(true));
+            return cacheManager;
+        }
+
+        @Bean
+        public HibernatePropertiesCustomizer hibernateCacheEnabled(CacheManager hibernateCacheManager) {
+            return properties -> {
+                properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+                properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, ConfigSettings.SIMPLE_FACTORY_NAME);
+                properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+                properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+                //Region hit/miss/put counters, published as hibernate.* meters and on /api/v1/admin/hibernate-cache
+                properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+                properties.put(AvailableSettings.LOG_SESSION_METRICS, false);
+            };
+        }
+
+        private static CaffeineConfiguration<Object, Object> region(long maxSize, Duration ttl) {
+            return new CaffeineConfiguration<>()
+                    .setMaximumSize(OptionalLong.of(maxSize))
+                    .setExpireAfterWrite(OptionalLong.of(ttl.toNanos()))
+                    .setStatisticsEnabled(true);
+        }
+    }
+}
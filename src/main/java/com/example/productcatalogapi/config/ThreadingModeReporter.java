@@ -0,0 +1,60 @@
+package com.example.productcatalogapi.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Reports at startup whether requests are served on virtual threads.
+ * spring.threads.virtual.enabled only takes effect on Java 21+, on older runtimes Spring Boot
+ * silently keeps the platform thread pool, so the fallback is logged explicitly here.
+ */
+@Component
+public class ThreadingModeReporter {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingModeReporter.class);
+
+    private final boolean virtualThreadsRequested;
+    private final ObjectProvider<DataSource> dataSource;
+
+    public ThreadingModeReporter(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsRequested,
+                                 ObjectProvider<DataSource> dataSource) {
+        this.virtualThreadsRequested = virtualThreadsRequested;
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void report() {
+        int javaVersion = Runtime.version().feature();
+        String poolSize = poolSize(dataSource.getIfAvailable());
+
+        if (!virtualThreadsRequested) {
+            log.info("Serving requests on the platform thread pool (Java {}), JDBC pool size {}", javaVersion, poolSize);
+        } else if (javaVersion >= 21) {
+            log.info("Serving requests on virtual threads (Java {}), JDBC pool size {}", javaVersion, poolSize);
+        } else {
+            log.warn("Virtual threads were requested but need Java 21+, falling back to the platform thread pool " +
+                    "(Java {}), JDBC pool size {}", javaVersion, poolSize);
+        }
+    }
+
+    //The DataSource bean may be wrapped, so look through to the pool
+    private static String poolSize(DataSource dataSource) {
+        try {
+            if (dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)) {
+                return String.valueOf(dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize());
+            }
+        } catch (SQLException ex) {
+            //fall through
+        }
+        return "unknown";
+    }
+}
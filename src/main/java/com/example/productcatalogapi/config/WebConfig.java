@@ -0,0 +1,83 @@
+package com.example.productcatalogapi.config;
+
+import com.example.productcatalogapi.admission.AdmissionControlInterceptor;
+import com.example.productcatalogapi.dto.ExportFormat;
+import com.example.productcatalogapi.metrics.AsyncQueryMetricsInterceptor;
+import com.example.productcatalogapi.web.CatalogETagInterceptor;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Locale;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+    private final CatalogETagInterceptor catalogETagInterceptor;
+    private final AsyncQueryMetricsInterceptor asyncQueryMetricsInterceptor;
+
+    public WebConfig(AdmissionControlInterceptor admissionControlInterceptor,
+                     CatalogETagInterceptor catalogETagInterceptor,
+                     AsyncQueryMetricsInterceptor asyncQueryMetricsInterceptor) {
+        this.admissionControlInterceptor = admissionControlInterceptor;
+        this.catalogETagInterceptor = catalogETagInterceptor;
+        this.asyncQueryMetricsInterceptor = asyncQueryMetricsInterceptor;
+    }
+
+    //Binary alternatives to JSON, chosen by the Accept header (application/x-jackson-smile, application/cbor).
+    //Built from Boot's builder so they share modules and settings with the JSON mapper, JSON stays the default
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    //Streaming exports run their queries on the async executor, they belong to the request's statement count
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(asyncQueryMetricsInterceptor);
+    }
+
+    //Export formats are documented lower case (ndjson/csv), any other value is rejected with 400
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, ExportFormat.class,
+                value -> ExportFormat.valueOf(value.trim().toUpperCase(Locale.ROOT)));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        //First, so rejected requests cost nothing. Exports, bulk writes and the change stream run for minutes
+        //on purpose and would hold concurrency slots for their whole length
+        registry.addInterceptor(admissionControlInterceptor)
+                .addPathPatterns("/api/v1/products", "/api/v1/products/**")
+                .excludePathPatterns("/api/v1/products/export", "/api/v1/products/bulk", "/api/v1/products/changes/**");
+        //List, batch and category responses, single products carry their own ETag from updatedAt
+        registry.addInterceptor(catalogETagInterceptor)
+                .addPathPatterns(
+                        "/api/v1/products",
+                        "/api/v1/products/scroll",
+                        "/api/v1/products/batch",
+                        "/api/v1/products/filter",
+                        "/api/v1/products/search/**",
+                        "/api/v1/products/category/**",
+                        "/api/v1/products/price-range/**",
+                        "/api/v1/products/active/**",
+                        "/api/v1/products/categories",
+                        "/api/v1/products/facets",
+                        "/api/v1/products/low-stock");
+    }
+}
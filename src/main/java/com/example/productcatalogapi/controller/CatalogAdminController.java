@@ -0,0 +1,106 @@
+package com.example.productcatalogapi.controller;
+
+import com.example.productcatalogapi.admission.AdmissionControlInterceptor;
+import com.example.productcatalogapi.cache.HibernateCacheRegions;
+import com.example.productcatalogapi.cache.ProductCache;
+import com.example.productcatalogapi.dto.AdmissionStatsDTO;
+import com.example.productcatalogapi.dto.CacheStatsDTO;
+import com.example.productcatalogapi.dto.CoalescingStatsDTO;
+import com.example.productcatalogapi.dto.RegionCacheStatsDTO;
+import com.example.productcatalogapi.service.ProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+
+@Tag(name = "Catalog Admin API", description = "Operational statistics and controls for the catalog service")
+@RestController
+@RequestMapping("/api/v1/admin")
+public class CatalogAdminController {
+
+    private final ProductCache productCache;
+    private final HibernateCacheRegions hibernateCacheRegions;
+    private final ProductService productService;
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+
+    public CatalogAdminController(ProductCache productCache, HibernateCacheRegions hibernateCacheRegions,
+                                  ProductService productService, AdmissionControlInterceptor admissionControlInterceptor) {
+        this.productCache = productCache;
+        this.hibernateCacheRegions = hibernateCacheRegions;
+        this.productService = productService;
+        this.admissionControlInterceptor = admissionControlInterceptor;
+    }
+
+
+    @Operation(summary = "Get product cache statistics", description = "Returns size, hit, miss and eviction counters of the product cache")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cache statistics retrieved successfully")
+    })
+    @GetMapping("/cache")
+    public ResponseEntity<CacheStatsDTO> getCacheStats() {
+        return ResponseEntity.ok(productCache.getStats());
+    }
+
+
+    @Operation(summary = "Clear product cache", description = "Removes every entry from the product cache")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Cache cleared successfully")
+    })
+    @DeleteMapping("/cache")
+    public ResponseEntity<Void> clearCache() {
+        productCache.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+
+    @Operation(summary = "Get Hibernate cache statistics",
+            description = "Returns hit, miss and put counters per second-level and query cache region, empty while the cache is disabled")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cache statistics retrieved successfully")
+    })
+    @GetMapping("/hibernate-cache")
+    public ResponseEntity<List<RegionCacheStatsDTO>> getHibernateCacheStats() {
+        return ResponseEntity.ok(hibernateCacheRegions.getStats());
+    }
+
+
+    @Operation(summary = "Clear Hibernate cache", description = "Evicts every second-level and query cache region")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Cache cleared successfully")
+    })
+    @DeleteMapping("/hibernate-cache")
+    public ResponseEntity<Void> clearHibernateCache() {
+        hibernateCacheRegions.clear();
+        return ResponseEntity.noContent().build();
+    }
+
+
+    @Operation(summary = "Get request coalescing statistics",
+            description = "Returns per lookup the calls, the queries they ran and the queries saved by sharing them")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Coalescing statistics retrieved successfully")
+    })
+    @GetMapping("/coalescing")
+    public ResponseEntity<List<CoalescingStatsDTO>> getCoalescingStats() {
+        return ResponseEntity.ok(productService.getCoalescingStats());
+    }
+
+
+    @Operation(summary = "Get admission control statistics",
+            description = "Returns the adaptive concurrency limit, database time per statement it follows and the requests admitted, rate limited (429) and shed (503)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Admission statistics retrieved successfully")
+    })
+    @GetMapping("/admission")
+    public ResponseEntity<AdmissionStatsDTO> getAdmissionStats() {
+        return ResponseEntity.ok(admissionControlInterceptor.getStats());
+    }
+}
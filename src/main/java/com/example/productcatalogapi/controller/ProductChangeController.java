@@ -0,0 +1,64 @@
+package com.example.productcatalogapi.controller;
+
+import com.example.productcatalogapi.changefeed.ProductChangeFeed;
+import com.example.productcatalogapi.dto.ChangeFeedPageDTO;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@Tag(name = "Product Change Feed", description = "Incremental product changes for downstream consumers")
+@RestController
+@RequestMapping("/api/v1/products/changes")
+public class ProductChangeController {
+
+    private final ProductChangeFeed changeFeed;
+
+    public ProductChangeController(ProductChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+
+    @Operation(
+            summary = "Read product changes",
+            description = "Returns committed product changes after the given sequence number, oldest first",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Changes retrieved successfully"),
+                    @ApiResponse(responseCode = "410", description = "Changes after the sequence are no longer retained")
+            }
+    )
+    @GetMapping
+    public ResponseEntity<ChangeFeedPageDTO> getChanges(
+            @Parameter(description = "Last sequence number already processed") @RequestParam(defaultValue = "0") long after,
+            @Parameter(description = "Maximum number of changes") @RequestParam(defaultValue = "500") int limit) {
+        ChangeFeedPageDTO page = changeFeed.read(after, limit);
+        return ResponseEntity.ok(page);
+    }
+
+
+
+    @Operation(
+            summary = "Stream product changes",
+            description = "Server-Sent-Events stream of product changes after the given sequence number, or from now " +
+                    "when none is given. Reconnecting clients resume from their Last-Event-ID",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Event stream opened"),
+                    @ApiResponse(responseCode = "410", description = "Changes after the sequence are no longer retained")
+            }
+    )
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @Parameter(description = "Last sequence number already processed") @RequestParam(required = false) Long after,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long from = lastEventId != null ? lastEventId : after != null ? after : changeFeed.getLastSequence();
+        return changeFeed.subscribe(from);
+    }
+}
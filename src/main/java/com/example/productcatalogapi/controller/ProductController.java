@@ -1,24 +1,61 @@
 package com.example.productcatalogapi.controller;
 
+import com.example.productcatalogapi.dto.BulkMode;
+import com.example.productcatalogapi.dto.BulkResultDTO;
+import com.example.productcatalogapi.dto.CategoryFacetDTO;
+import com.example.productcatalogapi.dto.CursorPageDTO;
+import com.example.productcatalogapi.dto.ExportFormat;
+import com.example.productcatalogapi.dto.PageDTO;
+import com.example.productcatalogapi.dto.ProductFilterDTO;
+import com.example.productcatalogapi.dto.ProductLookupDTO;
 import com.example.productcatalogapi.dto.ProductRequestDTO;
 import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.dto.StockAdjustmentRequestDTO;
+import com.example.productcatalogapi.dto.StockAdjustmentResultDTO;
+import com.example.productcatalogapi.repository.ProductProjection;
+import com.example.productcatalogapi.service.ProductBulkService;
+import com.example.productcatalogapi.service.ProductExportService;
 import com.example.productcatalogapi.service.ProductService;
+import com.example.productcatalogapi.service.ProductStockService;
+import com.example.productcatalogapi.service.StockWriteBehindQueue;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.CRC32;
 
 
 @Tag(name = "Product Catalog API", description = "CRUD operations for product catalog management")
@@ -27,9 +64,27 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
-
-    public ProductController(ProductService productService) {
+    private final ProductBulkService productBulkService;
+    private final ProductExportService productExportService;
+    private final ProductStockService productStockService;
+    private final StockWriteBehindQueue stockWriteBehindQueue;
+    private final ObjectMapper objectMapper;
+    private final int maxPageSize;
+
+    public ProductController(ProductService productService,
+                             ProductBulkService productBulkService,
+                             ProductExportService productExportService,
+                             ProductStockService productStockService,
+                             StockWriteBehindQueue stockWriteBehindQueue,
+                             ObjectMapper objectMapper,
+                             @Value("${catalog.admission.max-page-size:200}") int maxPageSize) {
         this.productService = productService;
+        this.productBulkService = productBulkService;
+        this.productExportService = productExportService;
+        this.productStockService = productStockService;
+        this.stockWriteBehindQueue = stockWriteBehindQueue;
+        this.objectMapper = objectMapper;
+        this.maxPageSize = maxPageSize;
     }
 
 
@@ -50,6 +105,30 @@ public class ProductController {
 
 
 
+    @Operation(
+            summary = "Bulk create, update or upsert products",
+            description = "Accepts a JSON array or newline-delimited JSON stream of products and writes them in batched, " +
+                    "chunked transactions. Each item is validated and reported individually",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+                    array = @ArraySchema(schema = @Schema(implementation = ProductRequestDTO.class)))),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Bulk write completed, see per-item results")
+            }
+    )
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkResultDTO> bulkWriteProducts(
+            @Parameter(description = "CREATE, UPDATE or UPSERT by product code") @RequestParam(defaultValue = "CREATE") BulkMode mode,
+            @Parameter(description = "Only report failed items") @RequestParam(defaultValue = "false") boolean failuresOnly,
+            HttpServletRequest request) throws IOException {
+        try (MappingIterator<ProductRequestDTO> products =
+                     objectMapper.readerFor(ProductRequestDTO.class).readValues(request.getInputStream())) {
+            BulkResultDTO result = productBulkService.writeProducts(products, mode, failuresOnly);
+            return ResponseEntity.ok(result);
+        }
+    }
+
+
+
     @Operation(
             summary = "Get all products",
             description = "Retrieves all products with pagination and sorting",
@@ -58,18 +137,53 @@ public class ProductController {
             }
     )
     @GetMapping
-    public ResponseEntity<Page<ProductResponseDTO>> getAllProducts(
+    public ResponseEntity<PageDTO<?>> getAllProducts(
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Sort by field") @RequestParam(defaultValue = "id") String sortBy,
-            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir) {
+            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "Representation (full/summary), summary leaves out the description") @RequestParam(defaultValue = "full") String view) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
 
-        Pageable pageable = PageRequest.of(page, size, sort);
-        Page<ProductResponseDTO> products = productService.getAllProducts(pageable);
-        return ResponseEntity.ok(products);
+        Pageable pageable = PageRequest.of(page, pageSize(size), sort);
+        Page<?> products = productService.getAllProducts(pageable, ProductProjection.of(view));
+        return ResponseEntity.ok(PageDTO.of(products));
+    }
+
+
+
+    @Operation(
+            summary = "Filter products",
+            description = "Combines any of category, active status, price range, stock range and search term " +
+                    "into a single query, with pagination and sorting",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+            }
+    )
+    @GetMapping("/filter")
+    public ResponseEntity<PageDTO<?>> filterProducts(
+            @Parameter(description = "Category (case-insensitive)") @RequestParam(required = false) String category,
+            @Parameter(description = "Active status") @RequestParam(required = false) Boolean active,
+            @Parameter(description = "Minimum price") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Maximum price") @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Minimum stock quantity") @RequestParam(required = false) Integer minStock,
+            @Parameter(description = "Maximum stock quantity") @RequestParam(required = false) Integer maxStock,
+            @Parameter(description = "Search term") @RequestParam(required = false) String q,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Sort by field") @RequestParam(defaultValue = "id") String sortBy,
+            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "Representation (full/summary), summary leaves out the description") @RequestParam(defaultValue = "full") String view) {
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") ?
+                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+
+        ProductFilterDTO filter = new ProductFilterDTO(StringUtils.hasText(category) ? category : null, active,
+                minPrice, maxPrice, minStock, maxStock, StringUtils.hasText(q) ? q : null);
+        Page<?> products = productService.filterProducts(filter, PageRequest.of(page, pageSize(size), sort), ProductProjection.of(view));
+        return ResponseEntity.ok(PageDTO.of(products));
     }
 
 
@@ -77,23 +191,63 @@ public class ProductController {
     @Operation(summary = "Get product by ID", description = "Retrieves a product by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Product not modified since the given ETag or date"),
             @ApiResponse(responseCode = "404", description = "Product not found")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductResponseDTO> getProductById(@PathVariable Long id, WebRequest webRequest,
+                                                             HttpServletResponse response) {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        //Without the code the pending stock of this product is unknown, so any pending delta means a full read
+        if (isConditional(webRequest) && !stockWriteBehindQueue.hasPendingStock()) {
+            LocalDateTime lastModified = productService.getProductLastModified(id);
+            if (webRequest.checkNotModified(productETag(id, lastModified, representation(webRequest)), epochMillis(lastModified))) {
+                return null;
+            }
+        }
         ProductResponseDTO product = productService.getProductById(id);
-        return ResponseEntity.ok(product);
+        return conditionalResponse(product.getId(), product, webRequest);
+    }
+
+    @Operation(summary = "Get many products by id or code",
+            description = "Resolves up to 200 ids and 200 codes with one query each. Results follow the request order, " +
+                    "id lookups first, and unknown keys are reported as not found")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lookups resolved"),
+            @ApiResponse(responseCode = "400", description = "Too many keys")
+    })
+    @GetMapping("/batch")
+    public ResponseEntity<List<ProductLookupDTO>> getProductsBatch(
+            @Parameter(description = "Product ids, comma separated") @RequestParam(required = false) @Size(max = 200) List<Long> ids,
+            @Parameter(description = "Product codes, comma separated") @RequestParam(required = false) @Size(max = 200) List<String> codes) {
+        List<ProductLookupDTO> products = new ArrayList<>();
+        if (ids != null) {
+            products.addAll(productService.getProductsByIds(ids));
+        }
+        if (codes != null) {
+            products.addAll(productService.getProductsByCodes(codes));
+        }
+        return ResponseEntity.ok(products);
     }
 
     @Operation(summary = "Get product by code", description = "Retrieves a product by its unique code")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Product not modified since the given ETag or date"),
             @ApiResponse(responseCode = "404", description = "Product not found")
     })
     @GetMapping("/code/{code}")
-    public ResponseEntity<ProductResponseDTO> getProducByCode(@PathVariable String code){
+    public ResponseEntity<ProductResponseDTO> getProducByCode(@PathVariable String code, WebRequest webRequest,
+                                                              HttpServletResponse response){
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (isConditional(webRequest) && !stockWriteBehindQueue.hasPendingStock(code)) {
+            LocalDateTime lastModified = productService.getProductLastModifiedByCode(code);
+            if (webRequest.checkNotModified(productETag(code, lastModified, representation(webRequest)), epochMillis(lastModified))) {
+                return null;
+            }
+        }
         ProductResponseDTO product = productService.getProductByCode(code);
-        return ResponseEntity.ok(product);
+        return conditionalResponse(product.getCode(), product, webRequest);
     }
 
 
@@ -111,6 +265,53 @@ public class ProductController {
     }
 
 
+    @Operation(summary = "Adjust product stock", description = "Atomically adds a signed delta to the stock of a product. " +
+            "Negative deltas reserve stock and never take it below zero")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock adjusted"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "Insufficient stock")
+    })
+    @PatchMapping("/{id}/stock")
+    public ResponseEntity<ProductResponseDTO> adjustStock(
+            @PathVariable Long id,
+            @Parameter(description = "Signed stock change, e.g. -2 to reserve two units") @RequestParam int delta) {
+        ProductResponseDTO product = productStockService.adjustStock(id, delta);
+        return ResponseEntity.ok(product);
+    }
+
+
+    @Operation(summary = "Adjust stock of many products",
+            description = "Applies signed stock deltas by product code in one transaction and one batched statement")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Adjustments applied, see per-item results"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data"),
+            @ApiResponse(responseCode = "409", description = "Atomic request rolled back, see per-item results")
+    })
+    @PostMapping("/stock-adjustments")
+    public ResponseEntity<StockAdjustmentResultDTO> adjustStock(
+            @Valid @RequestBody StockAdjustmentRequestDTO request,
+            @Parameter(description = "Roll back every adjustment if any one fails") @RequestParam(defaultValue = "true") boolean atomic) {
+        StockAdjustmentResultDTO result = productStockService.adjustStock(request.getAdjustments(), atomic);
+        return new ResponseEntity<>(result, result.isApplied() ? HttpStatus.OK : HttpStatus.CONFLICT);
+    }
+
+
+    @Operation(summary = "Queue stock deltas",
+            description = "Accepts fire-and-forget stock deltas by product code. With write-behind enabled they are merged " +
+                    "per product and flushed in batches, otherwise they are applied immediately. Stock never goes below " +
+                    "zero, deltas for unknown codes are dropped")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Deltas accepted"),
+            @ApiResponse(responseCode = "400", description = "Invalid input data")
+    })
+    @PostMapping("/stock-deltas")
+    public ResponseEntity<Void> queueStockDeltas(@Valid @RequestBody StockAdjustmentRequestDTO request) {
+        stockWriteBehindQueue.submit(request.getAdjustments());
+        return ResponseEntity.accepted().build();
+    }
+
+
     @Operation(summary = "Delete product", description = "Delete a product by its id")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Product delete successfully"),
@@ -124,26 +325,28 @@ public class ProductController {
 
 
 
-    @Operation(summary = "Search products", description = "Search products by name or description")
+    @Operation(summary = "Search products", description = "Search products by name or description, ranked by relevance unless a sort field is given")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Search completed successfully")
     })
     @GetMapping("/search")
-    public ResponseEntity<Page<ProductResponseDTO>> searchProducts(@Parameter(description = "search term")
+    public ResponseEntity<PageDTO<?>> searchProducts(@Parameter(description = "search term")
                                                              @RequestParam String q,
                                                              @Parameter(description = "Page number (0 - based")
                                                              @RequestParam(defaultValue = "0") int page,
                                                              @Parameter(description = "Page size")
                                                              @RequestParam(defaultValue = "10") int size,
-                                                             @Parameter(description = "Sort by field")
-                                                             @RequestParam(defaultValue = "name") String soryBy,
+                                                             @Parameter(description = "Sort by field, or 'relevance'")
+                                                             @RequestParam(defaultValue = "relevance") String soryBy,
                                                              @Parameter(description = "Sort direction (asc/desc)")
-                                                             @RequestParam(defaultValue = "asc") String sortDir){
-       Sort sort = sortDir.equalsIgnoreCase("desc") ?
-               Sort.by(soryBy).descending() : Sort.by(soryBy).ascending();
-       Pageable pageable = PageRequest.of(page, size, sort);
-       Page<ProductResponseDTO> products = productService.searchProducts(q, pageable);
-       return ResponseEntity.ok(products);
+                                                             @RequestParam(defaultValue = "asc") String sortDir,
+                                                             @Parameter(description = "Representation (full/summary), summary leaves out the description")
+                                                             @RequestParam(defaultValue = "full") String view){
+       Sort sort = soryBy.equalsIgnoreCase("relevance") ? Sort.unsorted() :
+               sortDir.equalsIgnoreCase("desc") ? Sort.by(soryBy).descending() : Sort.by(soryBy).ascending();
+       Pageable pageable = PageRequest.of(page, pageSize(size), sort);
+       Page<?> products = productService.searchProducts(q, pageable, ProductProjection.of(view));
+       return ResponseEntity.ok(PageDTO.of(products));
        }
 
 
@@ -153,40 +356,43 @@ public class ProductController {
             @ApiResponse(responseCode = "200", description = "Products retrieved successfully")
     })
     @GetMapping("/category/{category}")
-    public ResponseEntity<Page<ProductResponseDTO>> getProductsByCategory(
+    public ResponseEntity<PageDTO<?>> getProductsByCategory(
             @PathVariable String category,
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Sort by field") @RequestParam(defaultValue = "name") String sortBy,
-            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir) {
+            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "Representation (full/summary), summary leaves out the description") @RequestParam(defaultValue = "full") String view) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
 
-        Pageable pageable = PageRequest.of(page, size, sort);
-        Page<ProductResponseDTO> products = productService.getProductsByCategory(category, pageable);
-        return ResponseEntity.ok(products);
+        Pageable pageable = PageRequest.of(page, pageSize(size), sort);
+        Page<?> products = productService.getProductsByCategory(category, pageable, ProductProjection.of(view));
+        return ResponseEntity.ok(PageDTO.of(products));
     }
 
-    @Operation(summary = "Get products by price range", description = "Retrieves products within a specified price range")
+    @Operation(summary = "Get products by price range", description = "Retrieves products within a specified price range. " +
+            "Pages sorted by price are served from memory, their totalElements stops counting at 10000 matches")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Products retrieved successfully")
     })
     @GetMapping("/price-range")
-    public ResponseEntity<Page<ProductResponseDTO>> getProductsByPriceRange(
+    public ResponseEntity<PageDTO<?>> getProductsByPriceRange(
             @Parameter(description = "Minimum price") @RequestParam BigDecimal minPrice,
             @Parameter(description = "Maximum price") @RequestParam BigDecimal maxPrice,
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Sort by field") @RequestParam(defaultValue = "price") String sortBy,
-            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir) {
+            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "Representation (full/summary), summary leaves out the description") @RequestParam(defaultValue = "full") String view) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
 
-        Pageable pageable = PageRequest.of(page, size, sort);
-        Page<ProductResponseDTO> products = productService.getProductsByPriceRange(minPrice, maxPrice, pageable);
-        return ResponseEntity.ok(products);
+        Pageable pageable = PageRequest.of(page, pageSize(size), sort);
+        Page<?> products = productService.getProductsByPriceRange(minPrice, maxPrice, pageable, ProductProjection.of(view));
+        return ResponseEntity.ok(PageDTO.of(products));
     }
 
     @Operation(summary = "Get active products", description = "Retrieves only active products")
@@ -194,18 +400,19 @@ public class ProductController {
             @ApiResponse(responseCode = "200", description = "Active products retrieved successfully")
     })
     @GetMapping("/active")
-    public ResponseEntity<Page<ProductResponseDTO>> getActiveProducts(
+    public ResponseEntity<PageDTO<?>> getActiveProducts(
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Sort by field") @RequestParam(defaultValue = "name") String sortBy,
-            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir) {
+            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir,
+            @Parameter(description = "Representation (full/summary), summary leaves out the description") @RequestParam(defaultValue = "full") String view) {
 
         Sort sort = sortDir.equalsIgnoreCase("desc") ?
                 Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
 
-        Pageable pageable = PageRequest.of(page, size, sort);
-        Page<ProductResponseDTO> products = productService.getActiveProducts(pageable);
-        return ResponseEntity.ok(products);
+        Pageable pageable = PageRequest.of(page, pageSize(size), sort);
+        Page<?> products = productService.getActiveProducts(pageable, ProductProjection.of(view));
+        return ResponseEntity.ok(PageDTO.of(products));
     }
 
     @Operation(summary = "Get all categories", description = "Retrieves all unique product categories")
@@ -218,14 +425,207 @@ public class ProductController {
         return ResponseEntity.ok(categories);
     }
 
-    @Operation(summary = "Get low stock products", description = "Retrieves products with stock quantity below threshold")
+    @Operation(summary = "Get category facets", description = "Retrieves every category with its total and active product counts")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Category facets retrieved successfully")
+    })
+    @GetMapping("/facets")
+    public ResponseEntity<List<CategoryFacetDTO>> getCategoryFacets() {
+        List<CategoryFacetDTO> facets = productService.getCategoryFacets();
+        return ResponseEntity.ok(facets);
+    }
+
+    @Operation(summary = "Export products", description = "Streams all products, or those matching the optional filters, as NDJSON or CSV")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Export streamed successfully")
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @Parameter(description = "Export format (ndjson/csv)") @RequestParam(defaultValue = "ndjson") ExportFormat format,
+            @Parameter(description = "Category filter") @RequestParam(required = false) String category,
+            @Parameter(description = "Active status filter") @RequestParam(required = false) Boolean active,
+            @Parameter(description = "Minimum price") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Maximum price") @RequestParam(required = false) BigDecimal maxPrice) {
+
+        MediaType mediaType = format == ExportFormat.CSV ?
+                new MediaType("text", "csv") : MediaType.APPLICATION_NDJSON;
+        String fileName = format == ExportFormat.CSV ? "products.csv" : "products.ndjson";
+
+        StreamingResponseBody body = out ->
+                productExportService.export(format, category, active, minPrice, maxPrice, out);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+
+    @Operation(summary = "Get low stock products", description = "Retrieves a page of active products with stock quantity at or below threshold, " +
+            "lowest stock first. totalElements stops counting at 10000 matches")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Low stock products retrieved successfully")
     })
     @GetMapping("/low-stock")
-    public ResponseEntity<List<ProductResponseDTO>> getLowStockProducts(
-            @Parameter(description = "Stock threshold") @RequestParam(defaultValue = "10") Integer threshold) {
-        List<ProductResponseDTO> products = productService.getLowStockProducts(threshold);
+    public ResponseEntity<PageDTO<?>> getLowStockProducts(
+            @Parameter(description = "Stock threshold") @RequestParam(defaultValue = "10") Integer threshold,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size") @RequestParam(defaultValue = "100") int size,
+            @Parameter(description = "Representation (full/summary), summary leaves out the description") @RequestParam(defaultValue = "full") String view) {
+
+        Pageable pageable = PageRequest.of(page, pageSize(size));
+        Page<?> products = productService.getLowStockProducts(threshold, pageable, ProductProjection.of(view));
+        return ResponseEntity.ok(PageDTO.of(products));
+    }
+
+
+    @Operation(summary = "Scroll all products", description = "Keyset-paginated listing of all products, pass nextCursor to get the next window")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or unsupported sort field")
+    })
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> scrollAllProducts(
+            @Parameter(description = "Continuation token from the previous window") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Window size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Sort by field (id, code, name, price, createdAt)") @RequestParam(defaultValue = "id") String sortBy,
+            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir) {
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") ?
+                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+
+        CursorPageDTO<ProductResponseDTO> products = productService.scrollAllProducts(sort, pageSize(size), cursor);
+        return ResponseEntity.ok(products);
+    }
+
+    @Operation(summary = "Scroll products by category", description = "Keyset-paginated listing of products in a category")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or unsupported sort field")
+    })
+    @GetMapping("/category/{category}/scroll")
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> scrollProductsByCategory(
+            @PathVariable String category,
+            @Parameter(description = "Continuation token from the previous window") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Window size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Sort by field (id, code, name, price, createdAt)") @RequestParam(defaultValue = "name") String sortBy,
+            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir) {
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") ?
+                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+
+        CursorPageDTO<ProductResponseDTO> products = productService.scrollProductsByCategory(category, sort, pageSize(size), cursor);
+        return ResponseEntity.ok(products);
+    }
+
+    @Operation(summary = "Scroll products by price range", description = "Keyset-paginated listing of products within a price range")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Products retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or unsupported sort field")
+    })
+    @GetMapping("/price-range/scroll")
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> scrollProductsByPriceRange(
+            @Parameter(description = "Minimum price") @RequestParam BigDecimal minPrice,
+            @Parameter(description = "Maximum price") @RequestParam BigDecimal maxPrice,
+            @Parameter(description = "Continuation token from the previous window") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Window size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Sort by field (id, code, name, price, createdAt)") @RequestParam(defaultValue = "price") String sortBy,
+            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir) {
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") ?
+                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+
+        CursorPageDTO<ProductResponseDTO> products =
+                productService.scrollProductsByPriceRange(minPrice, maxPrice, sort, pageSize(size), cursor);
         return ResponseEntity.ok(products);
     }
+
+    @Operation(summary = "Scroll active products", description = "Keyset-paginated listing of active products")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Active products retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or unsupported sort field")
+    })
+    @GetMapping("/active/scroll")
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> scrollActiveProducts(
+            @Parameter(description = "Continuation token from the previous window") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Window size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Sort by field (id, code, name, price, createdAt)") @RequestParam(defaultValue = "name") String sortBy,
+            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir) {
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") ?
+                Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+
+        CursorPageDTO<ProductResponseDTO> products = productService.scrollActiveProducts(sort, pageSize(size), cursor);
+        return ResponseEntity.ok(products);
+    }
+
+    @Operation(summary = "Scroll search results", description = "Keyset-paginated search by name or description, in relevance order unless a sort field is given")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search completed successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor or unsupported sort field")
+    })
+    @GetMapping("/search/scroll")
+    public ResponseEntity<CursorPageDTO<ProductResponseDTO>> scrollSearchProducts(
+            @Parameter(description = "search term") @RequestParam String q,
+            @Parameter(description = "Continuation token from the previous window") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Window size") @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Sort by field (id, code, name, price, createdAt), or 'relevance'") @RequestParam(defaultValue = "relevance") String sortBy,
+            @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir) {
+
+        Sort sort = sortBy.equalsIgnoreCase("relevance") ? Sort.unsorted() :
+                sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+
+        CursorPageDTO<ProductResponseDTO> products = productService.scrollSearchProducts(q, sort, pageSize(size), cursor);
+        return ResponseEntity.ok(products);
+    }
+
+
+    //Helper methods for conditional requests on single products
+    private static boolean isConditional(WebRequest webRequest) {
+        return webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    //Stock with write-behind deltas that are not written yet is not covered by updatedAt. Such a body is
+    //validated by an ETag that includes its stock, and has no Last-Modified
+    private ResponseEntity<ProductResponseDTO> conditionalResponse(Object key, ProductResponseDTO product, WebRequest webRequest) {
+        boolean pendingStock = stockWriteBehindQueue.hasPendingStock(product.getCode());
+        String eTag = productETag(key, product.getUpdatedAt(),
+                representation(webRequest) + (pendingStock ? "-s" + product.getStockQuantity() : ""));
+        long lastModified = pendingStock ? -1 : epochMillis(product.getUpdatedAt());
+        if (isConditional(webRequest) && webRequest.checkNotModified(eTag, lastModified)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag);
+        if (lastModified >= 0) {
+            response.lastModified(lastModified);
+        }
+        return response.body(product);
+    }
+
+    //Strong ETag, a product's representation changes exactly when its updatedAt does (stock deltas aside).
+    //The variant tells apart bodies of the same state, such as JSON, Smile and CBOR
+    private static String productETag(Object key, LocalDateTime updatedAt, String variant) {
+        long micros = updatedAt == null ? 0
+                : ChronoUnit.MICROS.between(Instant.EPOCH, updatedAt.atZone(ZoneId.systemDefault()).toInstant());
+        return "\"" + key + "-" + Long.toHexString(micros) + variant + "\"";
+    }
+
+    //JSON, Smile and CBOR bytes of the same product must not share an ETag, requests without Accept get JSON
+    private static String representation(WebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return "";
+        }
+        CRC32 crc = new CRC32();
+        crc.update(accept.getBytes(StandardCharsets.UTF_8));
+        return "-" + Long.toHexString(crc.getValue());
+    }
+
+    private static long epochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? -1 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    //Larger pages are served at the maximum size, the page metadata shows the size actually used
+    private int pageSize(int size) {
+        return Math.min(size, maxPageSize);
+    }
 }
@@ -0,0 +1,122 @@
+package com.example.productcatalogapi.controller;
+
+import com.example.productcatalogapi.dto.BulkMode;
+import com.example.productcatalogapi.dto.ImportFormat;
+import com.example.productcatalogapi.dto.ProductImportDTO;
+import com.example.productcatalogapi.service.ProductImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+
+@Tag(name = "Product Import API", description = "Resumable background imports of CSV and NDJSON catalog files")
+@RestController
+@RequestMapping("/api/v1/imports")
+public class ProductImportController {
+
+    private final ProductImportService productImportService;
+
+    public ProductImportController(ProductImportService productImportService) {
+        this.productImportService = productImportService;
+    }
+
+
+    @Operation(
+            summary = "Start a catalog import",
+            description = "Stores the request body, a CSV file with a header row or NDJSON with one product per line, " +
+                    "and imports it in the background. Poll the returned import for progress",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "File stored and import queued")
+            }
+    )
+    @PostMapping(consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ProductImportDTO> startImport(
+            @Parameter(description = "CREATE, UPDATE or UPSERT by product code") @RequestParam(defaultValue = "CREATE") BulkMode mode,
+            HttpServletRequest request) throws IOException {
+        ImportFormat format = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                ? ImportFormat.NDJSON : ImportFormat.CSV;
+        ProductImportDTO productImport = productImportService.startImport(format, mode, request.getInputStream());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/imports/" + productImport.getId()))
+                .body(productImport);
+    }
+
+
+    @Operation(summary = "List imports", description = "Returns the most recent imports, newest first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Imports retrieved successfully")
+    })
+    @GetMapping
+    public ResponseEntity<List<ProductImportDTO>> getImports(
+            @Parameter(description = "Maximum number of imports") @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(productImportService.getImports(Math.max(1, Math.min(limit, 100))));
+    }
+
+
+    @Operation(summary = "Get import progress",
+            description = "Returns status, committed bytes and records, created/updated/failed counters and throughput")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Import not found")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<ProductImportDTO> getImport(@PathVariable Long id) {
+        return ResponseEntity.ok(productImportService.getImport(id));
+    }
+
+
+    @Operation(summary = "Get import errors",
+            description = "Streams the failed records of the committed chunks as NDJSON, with their 0-based record index")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Errors streamed successfully"),
+            @ApiResponse(responseCode = "404", description = "Import not found")
+    })
+    @GetMapping("/{id}/errors")
+    public ResponseEntity<StreamingResponseBody> getImportErrors(@PathVariable Long id) {
+        productImportService.getImport(id);
+        StreamingResponseBody body = out -> productImportService.writeErrors(id, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+
+    @Operation(summary = "Pause an import", description = "Stops a running import after its current chunk, or a queued one right away")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Pause requested"),
+            @ApiResponse(responseCode = "404", description = "Import not found"),
+            @ApiResponse(responseCode = "409", description = "Import is not queued or running")
+    })
+    @PostMapping("/{id}/pause")
+    public ResponseEntity<ProductImportDTO> pauseImport(@PathVariable Long id) {
+        return ResponseEntity.accepted().body(productImportService.pauseImport(id));
+    }
+
+
+    @Operation(summary = "Resume an import", description = "Queues a paused or failed import, it continues after its last committed chunk")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Import queued"),
+            @ApiResponse(responseCode = "404", description = "Import not found"),
+            @ApiResponse(responseCode = "409", description = "Import is running, completed or its file is gone")
+    })
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<ProductImportDTO> resumeImport(@PathVariable Long id) {
+        return ResponseEntity.accepted().body(productImportService.resumeImport(id));
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.productcatalogapi.datasource;
+
+import com.example.productcatalogapi.event.ProductChangedEvent;
+import com.example.productcatalogapi.metrics.QueryCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checks every replica on a fixed interval and takes it out of rotation while it does not answer or,
+ * when a lag query is configured, while it lags the primary by more than max-lag. The lag query runs on
+ * the replica and returns its replication delay in seconds, e.g. from a pt-heartbeat table on MySQL.
+ * Also opens the read-your-writes window when a product write commits.
+ */
+public class ReplicaHealthMonitor implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaHealthMonitor.class);
+
+    private final ReplicaRoutingDataSource routingDataSource;
+    private final Duration checkInterval;
+    private final Duration maxLag;
+    private final String lagQuery;
+
+    //Last measured lag in seconds per replica, NaN while unknown or unreachable
+    private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+
+    private volatile ScheduledExecutorService checker;
+
+    public ReplicaHealthMonitor(ReplicaRoutingDataSource routingDataSource, MeterRegistry meterRegistry,
+                                Duration checkInterval, Duration maxLag, String lagQuery) {
+        this.routingDataSource = routingDataSource;
+        this.checkInterval = checkInterval;
+        this.maxLag = maxLag;
+        this.lagQuery = StringUtils.hasText(lagQuery) ? lagQuery : null;
+        for (String replica : routingDataSource.getReplicas().keySet()) {
+            lagSeconds.put(replica, Double.NaN);
+            Gauge.builder("catalog.datasource.replica.available", routingDataSource,
+                            routing -> routing.getAvailableReplicas().contains(replica) ? 1 : 0)
+                    .tag("replica", replica)
+                    .register(meterRegistry);
+            Gauge.builder("catalog.datasource.replica.lag", lagSeconds, lags -> lags.get(replica))
+                    .tag("replica", replica)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    //Before commit, so the window is already open when caches are invalidated after commit
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        routingDataSource.markWrite();
+    }
+
+    public void checkReplicas() {
+        routingDataSource.getReplicas().forEach((replica, dataSource) -> {
+            boolean healthy = check(replica, dataSource);
+            routingDataSource.setAvailable(replica, healthy);
+        });
+    }
+
+    private boolean check(String replica, DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!connection.isValid((int) Math.max(1, checkInterval.toSeconds()))) {
+                lagSeconds.put(replica, Double.NaN);
+                return false;
+            }
+            if (lagQuery == null) {
+                lagSeconds.put(replica, 0.0);
+                return true;
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                double lag = resultSet.next() ? resultSet.getDouble(1) : Double.NaN;
+                if (resultSet.wasNull()) {
+                    lag = Double.NaN;
+                }
+                lagSeconds.put(replica, lag);
+                //Unknown lag (replication stopped) counts as too far behind
+                return lag <= maxLag.toMillis() / 1000.0;
+            }
+        } catch (SQLException ex) {
+            log.debug("Health check of replica {} failed: {}", replica, ex.getMessage());
+            lagSeconds.put(replica, Double.NaN);
+            return false;
+        }
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker = executor;
+        executor.scheduleWithFixedDelay(QueryCounter.counted(() -> {
+            try {
+                checkReplicas();
+            } catch (RuntimeException ex) {
+                log.warn("Replica health check failed", ex);
+            }
+        }), 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = checker;
+        checker = null;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return checker != null;
+    }
+}
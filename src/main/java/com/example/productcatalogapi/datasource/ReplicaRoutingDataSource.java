@@ -0,0 +1,160 @@
+package com.example.productcatalogapi.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends connections for read-only transactions to a healthy read replica, round robin, and everything
+ * else to the primary. The routing decision is made when a connection is requested, so this data source
+ * must sit behind a LazyConnectionDataSourceProxy: the physical connection is then only fetched at the
+ * first statement, after the transaction's read-only flag is known.
+ * After a local write every read goes to the primary for the read-your-writes window, so caches refilled
+ * after an invalidation never read from a replica that has not caught up yet.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    //Set while a caller must see the primary, e.g. to load indexes or follow the change feed
+    private static final ThreadLocal<Boolean> primaryRequired = new ThreadLocal<>();
+
+    private final DataSource primary;
+    private final Map<String, DataSource> replicas;
+    private final long readYourWritesNanos;
+
+    private final Set<String> excluded = ConcurrentHashMap.newKeySet();
+    private volatile List<String> available;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile long primaryUntil = System.nanoTime();
+
+    private final Counter primaryReads;
+    private final Counter replicaReads;
+    private final Counter replicaFailovers;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration readYourWrites,
+                                    MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = new LinkedHashMap<>(replicas);
+        this.readYourWritesNanos = readYourWrites.toNanos();
+        this.available = List.copyOf(this.replicas.keySet());
+        this.primaryReads = meterRegistry.counter("catalog.datasource.reads", "target", "primary");
+        this.replicaReads = meterRegistry.counter("catalog.datasource.reads", "target", "replica");
+        this.replicaFailovers = meterRegistry.counter("catalog.datasource.replica.failovers");
+    }
+
+    //Runs the action against the primary even inside read-only transactions it starts
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean outer = primaryRequired.get();
+        primaryRequired.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (outer == null) {
+                primaryRequired.remove();
+            }
+        }
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    public List<String> getAvailableReplicas() {
+        return available;
+    }
+
+    public void setAvailable(String replica, boolean isAvailable) {
+        boolean changed = isAvailable ? excluded.remove(replica) : excluded.add(replica);
+        if (changed) {
+            List<String> names = new ArrayList<>(replicas.keySet());
+            names.removeAll(excluded);
+            available = List.copyOf(names);
+            log.info("Replica {} is {}, {} of {} replicas in rotation", replica,
+                    isAvailable ? "back in rotation" : "excluded", names.size(), replicas.size());
+        }
+    }
+
+    //Reads on this instance go to the primary until the window has passed
+    public void markWrite() {
+        if (readYourWritesNanos > 0) {
+            primaryUntil = System.nanoTime() + readYourWritesNanos;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection();
+        }
+        String replica = selectReplica();
+        if (replica == null) {
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replicas.get(replica).getConnection();
+            replicaReads.increment();
+            return connection;
+        } catch (SQLException ex) {
+            //The next health check puts it back once it answers again
+            log.warn("Replica {} refused a connection, reading from the primary: {}", replica, ex.getMessage());
+            setAvailable(replica, false);
+            replicaFailovers.increment();
+            primaryReads.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> type) throws SQLException {
+        return type.isInstance(this) ? (T) this : primary.unwrap(type);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) throws SQLException {
+        return type.isInstance(this) || primary.isWrapperFor(type);
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private String selectReplica() {
+        if (primaryRequired.get() != null || System.nanoTime() - primaryUntil < 0) {
+            return null;
+        }
+        List<String> candidates = available;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+}
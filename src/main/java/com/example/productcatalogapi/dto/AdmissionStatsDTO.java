@@ -0,0 +1,22 @@
+package com.example.productcatalogapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Current concurrency limit, the database latency it follows and the requests admitted, rate limited and shed
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionStatsDTO {
+
+    private boolean enabled;
+    private int limit;
+    private int inFlight;
+    private double recentMicrosPerStatement;
+    private double baselineMicrosPerStatement;
+    private long admitted;
+    private long rateLimited;
+    private long shed;
+    private int buckets;
+}
@@ -0,0 +1,18 @@
+package com.example.productcatalogapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkItemResultDTO {
+
+    //Position of the item in the request, 0-based
+    private int index;
+    private String code;
+    private BulkItemStatus status;
+    private Long id;
+    private String error;
+}
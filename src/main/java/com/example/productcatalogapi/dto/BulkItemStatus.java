@@ -0,0 +1,7 @@
+package com.example.productcatalogapi.dto;
+
+public enum BulkItemStatus {
+    CREATED,
+    UPDATED,
+    FAILED
+}
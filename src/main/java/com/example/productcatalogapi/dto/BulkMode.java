@@ -0,0 +1,11 @@
+package com.example.productcatalogapi.dto;
+
+//How a bulk request treats product codes that already exist
+public enum BulkMode {
+    //Insert only, existing codes are reported as failures
+    CREATE,
+    //Update only, unknown codes are reported as failures
+    UPDATE,
+    //Insert unknown codes and update existing ones
+    UPSERT
+}
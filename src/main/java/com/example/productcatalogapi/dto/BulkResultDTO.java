@@ -0,0 +1,19 @@
+package com.example.productcatalogapi.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class BulkResultDTO {
+
+    private int total;
+    private int created;
+    private int updated;
+    private int failed;
+    private long elapsedMillis;
+    private List<BulkItemResultDTO> items = new ArrayList<>();
+}
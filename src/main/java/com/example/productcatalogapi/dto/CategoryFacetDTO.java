@@ -0,0 +1,15 @@
+package com.example.productcatalogapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryFacetDTO {
+
+    private String category;
+    private long totalCount;
+    private long activeCount;
+}
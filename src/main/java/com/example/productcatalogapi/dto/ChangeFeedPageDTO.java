@@ -0,0 +1,18 @@
+package com.example.productcatalogapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedPageDTO {
+
+    private List<ProductChangeDTO> changes;
+
+    //Pass as "after" on the next call, unchanged when there was nothing new
+    private long lastSequence;
+}
@@ -0,0 +1,17 @@
+package com.example.productcatalogapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+//Calls of one coalesced lookup, the queries they took and the queries saved by sharing them
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoalescingStatsDTO {
+
+    private String lookup;
+    private long calls;
+    private long queries;
+    private long saved;
+}
@@ -0,0 +1,6 @@
+package com.example.productcatalogapi.dto;
+
+public enum ExportFormat {
+    NDJSON,
+    CSV
+}
@@ -0,0 +1,9 @@
+package com.example.productcatalogapi.dto;
+
+//File formats accepted by the import pipeline
+public enum ImportFormat {
+    //Header row with column names, RFC 4180 quoting
+    CSV,
+    //One product JSON object per line
+    NDJSON
+}
@@ -0,0 +1,12 @@
+package com.example.productcatalogapi.dto;
+
+public enum ImportStatus {
+    //Waiting for the running import to finish
+    QUEUED,
+    RUNNING,
+    //Stopped on request or by a restart, resumable
+    PAUSED,
+    //Stopped by an error, resumable
+    FAILED,
+    COMPLETED
+}
@@ -0,0 +1,25 @@
+package com.example.productcatalogapi.dto;
+
+import com.example.productcatalogapi.event.ProductChangeType;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeDTO {
+
+    private long sequence;
+    private ProductChangeType changeType;
+    private Long productId;
+    private String code;
+    private LocalDateTime changedAt;
+
+    //Product after the change as stored in the outbox, null for deletions
+    @JsonRawValue
+    private String product;
+}
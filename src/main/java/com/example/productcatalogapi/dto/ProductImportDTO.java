@@ -0,0 +1,32 @@
+package com.example.productcatalogapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+//Committed progress of an import, counters cover the records up to the last committed chunk
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportDTO {
+
+    private Long id;
+    private ImportFormat format;
+    private BulkMode mode;
+    private ImportStatus status;
+    private long fileSize;
+    private long bytesProcessed;
+    private double percentComplete;
+    private long rows;
+    private long created;
+    private long updated;
+    private long failed;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private double megabytesPerSecond;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
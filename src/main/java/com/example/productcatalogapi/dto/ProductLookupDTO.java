@@ -0,0 +1,16 @@
+package com.example.productcatalogapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductLookupDTO {
+
+    //The id or code as requested
+    private String key;
+    private boolean found;
+    private ProductResponseDTO product;
+}
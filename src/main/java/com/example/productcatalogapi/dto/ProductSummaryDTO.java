@@ -0,0 +1,23 @@
+package com.example.productcatalogapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummaryDTO {
+
+    private Long id;
+    private String code;
+    private String name;
+    private BigDecimal price;
+    private String category;
+    private Integer stockQuantity;
+    private Boolean isActive;
+    private LocalDateTime updatedAt;
+}
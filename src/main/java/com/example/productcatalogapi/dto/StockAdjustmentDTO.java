@@ -0,0 +1,20 @@
+package com.example.productcatalogapi.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockAdjustmentDTO {
+
+    @NotBlank(message = "Product code is required")
+    private String code;
+
+    //Positive to restock or release, negative to reserve
+    @NotNull(message = "Delta is required")
+    private Integer delta;
+}
@@ -0,0 +1,20 @@
+package com.example.productcatalogapi.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StockAdjustmentRequestDTO {
+
+    @NotEmpty(message = "At least one adjustment is required")
+    @Size(max = 1000, message = "At most 1000 adjustments per request")
+    private List<@Valid StockAdjustmentDTO> adjustments;
+}
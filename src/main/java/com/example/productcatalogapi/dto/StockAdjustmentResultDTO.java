@@ -0,0 +1,19 @@
+package com.example.productcatalogapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAdjustmentResultDTO {
+
+    //False when an atomic request was rolled back because at least one item failed
+    private boolean applied;
+    private int adjusted;
+    private int failed;
+    private List<StockItemResultDTO> items;
+}
@@ -0,0 +1,8 @@
+package com.example.productcatalogapi.dto;
+
+public enum StockAdjustmentStatus {
+    ADJUSTED,
+    INSUFFICIENT_STOCK,
+    NOT_FOUND,
+    ROLLED_BACK
+}
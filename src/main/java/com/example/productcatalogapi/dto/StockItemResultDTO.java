@@ -0,0 +1,18 @@
+package com.example.productcatalogapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockItemResultDTO {
+
+    private String code;
+    //Net delta, adjustments of the same code in one request are merged
+    private int delta;
+    private StockAdjustmentStatus status;
+    //Stock after the adjustment, or the unchanged stock when it was not applied
+    private Integer stockQuantity;
+}
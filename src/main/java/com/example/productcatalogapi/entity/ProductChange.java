@@ -0,0 +1,43 @@
+package com.example.productcatalogapi.entity;
+
+import com.example.productcatalogapi.event.ProductChangeType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+//Transactional outbox row, written in the same transaction as the product change it records
+@Entity
+@Table(name = "product_changes", indexes = {
+        @Index(name = "idx_product_changes_created_at", columnList = "created_at")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductChange {
+
+    //Sequence number consumers resume from
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "product_code", nullable = false, length = 50)
+    private String productCode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 10)
+    private ProductChangeType changeType;
+
+    //JSON of the product after the change, null for deletions. Escaping can make it several times longer
+    //than the fields it holds, so it has no length limit
+    @Lob
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
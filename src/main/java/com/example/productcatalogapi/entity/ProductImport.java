@@ -0,0 +1,73 @@
+package com.example.productcatalogapi.entity;
+
+import com.example.productcatalogapi.dto.BulkMode;
+import com.example.productcatalogapi.dto.ImportFormat;
+import com.example.productcatalogapi.dto.ImportStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+//Progress of a file import, updated in the same transaction as each chunk it writes
+@Entity
+@Table(name = "product_imports")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImport {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private ImportFormat format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private BulkMode mode;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private ImportStatus status;
+
+    @Column(name = "file_size", nullable = false)
+    private long fileSize;
+
+    //Byte offset in the file after the last committed chunk, where a resumed import continues
+    @Column(name = "committed_offset", nullable = false)
+    private long committedOffset;
+
+    //Records up to the committed offset, the index of the next record
+    @Column(name = "committed_rows", nullable = false)
+    private long committedRows;
+
+    @Column(nullable = false)
+    private long created;
+
+    @Column(nullable = false)
+    private long updated;
+
+    @Column(nullable = false)
+    private long failed;
+
+    //Length of the error file at the last commit, anything after it belongs to an uncommitted chunk
+    @Column(name = "errors_length", nullable = false)
+    private long errorsLength;
+
+    //Time spent running, summed over all runs
+    @Column(name = "elapsed_millis", nullable = false)
+    private long elapsedMillis;
+
+    @Column(length = 500)
+    private String error;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,7 @@
+package com.example.productcatalogapi.event;
+
+public enum ProductChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,35 @@
+package com.example.productcatalogapi.event;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//Published for every product mutation inside its transaction, most listeners receive it after commit
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    private final ProductChangeType changeType;
+
+    //State before the change (null for CREATED)
+    private final ProductResponseDTO previous;
+
+    //State after the change (null for DELETED)
+    private final ProductResponseDTO current;
+
+    public Long getProductId() {
+        return current != null ? current.getId() : previous.getId();
+    }
+
+    public static ProductChangedEvent created(ProductResponseDTO current) {
+        return new ProductChangedEvent(ProductChangeType.CREATED, null, current);
+    }
+
+    public static ProductChangedEvent updated(ProductResponseDTO previous, ProductResponseDTO current) {
+        return new ProductChangedEvent(ProductChangeType.UPDATED, previous, current);
+    }
+
+    public static ProductChangedEvent deleted(ProductResponseDTO previous) {
+        return new ProductChangedEvent(ProductChangeType.DELETED, previous, null);
+    }
+}
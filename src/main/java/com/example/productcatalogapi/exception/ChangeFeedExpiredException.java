@@ -0,0 +1,8 @@
+package com.example.productcatalogapi.exception;
+
+public class ChangeFeedExpiredException extends RuntimeException{
+
+    public ChangeFeedExpiredException(String message){
+        super (message);
+    }
+}
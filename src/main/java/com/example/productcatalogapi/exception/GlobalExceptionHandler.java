@@ -1,9 +1,96 @@
 package com.example.productcatalogapi.exception;
 
+import com.example.productcatalogapi.dto.ErrorResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.LocalDateTime;
 
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ExceptionHandler(ProductNotFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleProductNotFound(ProductNotFoundException ex, HttpServletRequest request) {
+        return buildResponse(HttpStatus.NOT_FOUND, ex, request);
+    }
+
+    @ExceptionHandler(DuplicateProductException.class)
+    public ResponseEntity<ErrorResponseDTO> handleDuplicateProduct(DuplicateProductException ex, HttpServletRequest request) {
+        return buildResponse(HttpStatus.CONFLICT, ex, request);
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInsufficientStock(InsufficientStockException ex, HttpServletRequest request) {
+        return buildResponse(HttpStatus.CONFLICT, ex, request);
+    }
+
+    @ExceptionHandler(ChangeFeedExpiredException.class)
+    public ResponseEntity<ErrorResponseDTO> handleChangeFeedExpired(ChangeFeedExpiredException ex, HttpServletRequest request) {
+        return buildResponse(HttpStatus.GONE, ex, request);
+    }
+
+    @ExceptionHandler(ImportNotFoundException.class)
+    public ResponseEntity<ErrorResponseDTO> handleImportNotFound(ImportNotFoundException ex, HttpServletRequest request) {
+        return buildResponse(HttpStatus.NOT_FOUND, ex, request);
+    }
+
+    @ExceptionHandler(ImportStateException.class)
+    public ResponseEntity<ErrorResponseDTO> handleImportState(ImportStateException ex, HttpServletRequest request) {
+        return buildResponse(HttpStatus.CONFLICT, ex, request);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponseDTO> handleRateLimitExceeded(RateLimitExceededException ex, HttpServletRequest request) {
+        return retryAfter(buildResponse(HttpStatus.TOO_MANY_REQUESTS, ex, request), ex.getRetryAfterSeconds());
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ErrorResponseDTO> handleServiceOverloaded(ServiceOverloadedException ex, HttpServletRequest request) {
+        return retryAfter(buildResponse(HttpStatus.SERVICE_UNAVAILABLE, ex, request), ex.getRetryAfterSeconds());
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidCursor(InvalidCursorException ex, HttpServletRequest request) {
+        return buildResponse(HttpStatus.BAD_REQUEST, ex, request);
+    }
+
+    @ExceptionHandler(InvalidViewException.class)
+    public ResponseEntity<ErrorResponseDTO> handleInvalidView(InvalidViewException ex, HttpServletRequest request) {
+        return buildResponse(HttpStatus.BAD_REQUEST, ex, request);
+    }
+
+
+    //Counts every handled error by exception type and endpoint before building the response
+    private ResponseEntity<ErrorResponseDTO> buildResponse(HttpStatus status, Exception ex, HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        meterRegistry.counter("catalog.errors",
+                "exception", ex.getClass().getSimpleName(),
+                "status", String.valueOf(status.value()),
+                "uri", pattern != null ? pattern.toString() : "UNKNOWN").increment();
+        return buildResponse(status, ex.getMessage(), request);
+    }
+
+    private ResponseEntity<ErrorResponseDTO> buildResponse(HttpStatus status, String message, HttpServletRequest request) {
+        ErrorResponseDTO body = new ErrorResponseDTO(LocalDateTime.now(), status.value(),
+                status.getReasonPhrase(), message, request.getRequestURI());
+        return new ResponseEntity<>(body, status);
+    }
 
+    private static ResponseEntity<ErrorResponseDTO> retryAfter(ResponseEntity<ErrorResponseDTO> response, long seconds) {
+        return ResponseEntity.status(response.getStatusCode())
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(seconds))
+                .body(response.getBody());
+    }
 }
@@ -0,0 +1,8 @@
+package com.example.productcatalogapi.exception;
+
+public class ImportNotFoundException extends RuntimeException{
+
+    public ImportNotFoundException(String message){
+        super (message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.productcatalogapi.exception;
+
+//The import is not in a state that allows the requested action
+public class ImportStateException extends RuntimeException{
+
+    public ImportStateException(String message){
+        super (message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.productcatalogapi.exception;
+
+public class InvalidViewException extends RuntimeException{
+
+    public InvalidViewException(String message){
+        super (message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.productcatalogapi.exception;
+
+//The client used up its request budget for an endpoint, it may retry after retryAfterSeconds
+public class RateLimitExceededException extends RuntimeException{
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(String message, long retryAfterSeconds){
+        super (message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
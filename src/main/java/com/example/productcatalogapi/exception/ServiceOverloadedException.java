@@ -0,0 +1,16 @@
+package com.example.productcatalogapi.exception;
+
+//The request was shed because the database is saturated, it may be retried after retryAfterSeconds
+public class ServiceOverloadedException extends RuntimeException{
+
+    private final long retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, long retryAfterSeconds){
+        super (message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
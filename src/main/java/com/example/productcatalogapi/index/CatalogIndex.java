@@ -0,0 +1,20 @@
+package com.example.productcatalogapi.index;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+
+/**
+ * An in-memory structure derived from the whole catalog.
+ * CatalogIndexLoader fills every index from one scan at startup: beginLoad, load for each
+ * product, then finishLoad, all on the loading thread. Indexes hold their write lock for the
+ * duration, so change events that commit meanwhile are applied after the load completes.
+ */
+public interface CatalogIndex {
+
+    void beginLoad();
+
+    void load(ProductResponseDTO product);
+
+    void finishLoad();
+
+    boolean isReady();
+}
@@ -0,0 +1,364 @@
+package com.example.productcatalogapi.index;
+
+import com.example.productcatalogapi.cache.ProductCache;
+import com.example.productcatalogapi.changefeed.ProductChangeFeed;
+import com.example.productcatalogapi.datasource.ReplicaRoutingDataSource;
+import com.example.productcatalogapi.dto.ProductChangeDTO;
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.entity.Product;
+import com.example.productcatalogapi.event.ProductChangeType;
+import com.example.productcatalogapi.metrics.QueryCounter;
+import com.example.productcatalogapi.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Loads every CatalogIndex at startup, from a single keyset scan of the products table or, with
+ * catalog.snapshot.enabled, from the local CatalogSnapshot brought up to date with the change feed.
+ * With the snapshot the product cache is also refilled with the products that were cached at the
+ * last shutdown. This runs in the ApplicationReadyEvent listener, and Spring Boot only moves readiness
+ * to ACCEPTING_TRAFFIC after those listeners return, so the instance is warm before it reports ready.
+ * The snapshot is rewritten by a background scan every refresh-interval, and the first time after a
+ * start that found none.
+ */
+@Component
+public class CatalogIndexLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogIndexLoader.class);
+
+    private static final String SNAPSHOT_FILE = "catalog.snapshot";
+    private static final String HOT_IDS_FILE = "hot-products";
+
+    private final ProductRepository productRepository;
+    private final List<CatalogIndex> indexes;
+    private final ProductChangeFeed changeFeed;
+    private final ProductCache productCache;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final boolean snapshotEnabled;
+    private final Path snapshotDir;
+    private final Duration snapshotMaxAge;
+    private final Duration snapshotRefreshInterval;
+
+    private volatile ScheduledExecutorService refresher;
+
+    public CatalogIndexLoader(ProductRepository productRepository,
+                              List<CatalogIndex> indexes,
+                              ProductChangeFeed changeFeed,
+                              ProductCache productCache,
+                              ObjectMapper objectMapper,
+                              @Value("${catalog.index.load-batch-size:1000}") int batchSize,
+                              @Value("${catalog.snapshot.enabled:false}") boolean snapshotEnabled,
+                              @Value("${catalog.snapshot.dir:data/snapshot}") Path snapshotDir,
+                              @Value("${catalog.snapshot.max-age:1d}") Duration snapshotMaxAge,
+                              @Value("${catalog.snapshot.refresh-interval:1h}") Duration snapshotRefreshInterval) {
+        this.productRepository = productRepository;
+        this.indexes = indexes;
+        this.changeFeed = changeFeed;
+        this.productCache = productCache;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.snapshotEnabled = snapshotEnabled;
+        this.snapshotDir = snapshotDir;
+        this.snapshotMaxAge = snapshotMaxAge;
+        this.snapshotRefreshInterval = snapshotRefreshInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        long start = System.currentTimeMillis();
+        long stamp = productCache.stamp();
+        Load load = new Load(snapshotEnabled ? readHotIds() : Set.of());
+        CatalogSnapshot snapshot = snapshotEnabled ? openSnapshot() : null;
+        if (snapshot != null) {
+            int replayed = loadFromSnapshot(snapshot, load);
+            log.info("Loaded {} products into {} catalog indexes from the snapshot ({} changes replayed) in {} ms",
+                    load.count, indexes.size(), replayed, System.currentTimeMillis() - start);
+        } else {
+            loadFromDatabase(load);
+            log.info("Loaded {} products into {} catalog indexes in {} ms",
+                    load.count, indexes.size(), System.currentTimeMillis() - start);
+        }
+        if (snapshotEnabled) {
+            int cached = load.prefill(stamp);
+            log.info("Warm-up finished {} ms after JVM start, {} products prefilled into the product cache",
+                    ManagementFactory.getRuntimeMXBean().getUptime(), cached);
+            long age = snapshot != null ? System.currentTimeMillis() - snapshot.getCreatedAt() : Long.MAX_VALUE;
+            startRefresher(Math.max(0, snapshotRefreshInterval.toMillis() - age));
+        }
+    }
+
+    private void loadFromDatabase(Load load) {
+        load.begin();
+        try {
+            scan(load);
+        } finally {
+            load.finish();
+        }
+    }
+
+    //The change feed is read after beginLoad: changes committed from then on wait for the index locks and
+    //are applied after the load, everything committed before is already in the outbox
+    private int loadFromSnapshot(CatalogSnapshot snapshot, Load load) {
+        load.begin();
+        try {
+            Map<Long, ProductResponseDTO> changed = readChangesAfter(snapshot.getSequence());
+            int replayed = changed.size();
+            snapshot.forEach(product -> {
+                if (!changed.containsKey(product.getId())) {
+                    load.accept(product);
+                    return;
+                }
+                ProductResponseDTO current = changed.remove(product.getId());
+                if (current != null) {
+                    load.accept(current);
+                }
+            });
+            //Created after the snapshot
+            for (ProductResponseDTO current : changed.values()) {
+                if (current != null) {
+                    load.accept(current);
+                }
+            }
+            return replayed;
+        } finally {
+            load.finish();
+        }
+    }
+
+    //Null when there is no usable snapshot and the catalog has to be scanned
+    private CatalogSnapshot openSnapshot() {
+        Path file = snapshotDir.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(file)) {
+            log.info("No catalog snapshot in {}, loading from the products table", snapshotDir);
+            return null;
+        }
+        try {
+            CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+            Duration age = Duration.ofMillis(System.currentTimeMillis() - snapshot.getCreatedAt());
+            if (age.compareTo(snapshotMaxAge) > 0) {
+                log.info("Catalog snapshot is {} old, more than max-age {}, loading from the products table",
+                        age, snapshotMaxAge);
+                return null;
+            }
+            //Ahead of the change feed, or products without any change: taken from another or a recreated database
+            long lastSequence = changeFeed.getLastSequence();
+            if (snapshot.getSequence() > lastSequence || (snapshot.getProductCount() > 0 && lastSequence == 0)) {
+                log.warn("Catalog snapshot at sequence {} does not match the change feed at {}, " +
+                        "loading from the products table", snapshot.getSequence(), lastSequence);
+                return null;
+            }
+            return snapshot;
+        } catch (IOException ex) {
+            log.warn("Ignoring catalog snapshot {}: {}", file, ex.getMessage());
+            return null;
+        }
+    }
+
+    //Latest state of every product changed after the sequence, null for deleted ones
+    private Map<Long, ProductResponseDTO> readChangesAfter(long sequence) {
+        Map<Long, ProductResponseDTO> changed = new HashMap<>();
+        long after = sequence;
+        List<ProductChangeDTO> changes;
+        do {
+            changes = changeFeed.readCommitted(after, batchSize);
+            for (ProductChangeDTO change : changes) {
+                changed.put(change.getProductId(),
+                        change.getChangeType() == ProductChangeType.DELETED ? null : parse(change.getProduct()));
+                after = change.getSequence();
+            }
+        } while (changes.size() == batchSize);
+        return changed;
+    }
+
+    private ProductResponseDTO parse(String payload) {
+        try {
+            return objectMapper.readValue(payload, ProductResponseDTO.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not read product change payload", ex);
+        }
+    }
+
+    private void scan(Consumer<ProductResponseDTO> consumer) {
+        long lastId = 0L;
+        List<Product> batch;
+        do {
+            //From the primary: changes a lagging replica has not applied yet would never reach the indexes
+            long after = lastId;
+            batch = ReplicaRoutingDataSource.onPrimary(() ->
+                    productRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(batchSize)));
+            for (Product product : batch) {
+                consumer.accept(convertToResponseDTO(product));
+                lastId = product.getId();
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    //Rewrites the snapshot from a fresh scan, normally on the refresher thread
+    public synchronized void writeSnapshot() {
+        long start = System.currentTimeMillis();
+        try (CatalogSnapshot.Writer writer = CatalogSnapshot.create(snapshotDir.resolve(SNAPSHOT_FILE),
+                changeFeed.getSettledSequence())) {
+            scan(writer::add);
+            writer.commit();
+            log.info("Wrote catalog snapshot of {} products in {} ms",
+                    writer.getProductCount(), System.currentTimeMillis() - start);
+        } catch (IOException | UncheckedIOException | DataAccessException ex) {
+            log.warn("Writing the catalog snapshot failed, keeping the previous one: {}", ex.getMessage());
+        }
+    }
+
+    private void startRefresher(long initialDelayMillis) {
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(QueryCounter.counted(this::writeSnapshot), initialDelayMillis,
+                snapshotRefreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+        refresher = scheduler;
+    }
+
+    //Remembers which products were hot, so the next start can cache them again
+    @PreDestroy
+    public void shutdown() {
+        ScheduledExecutorService scheduler = refresher;
+        if (scheduler == null) {
+            return;
+        }
+        refresher = null;
+        scheduler.shutdownNow();
+        List<Long> ids = productCache.getIds();
+        Path file = snapshotDir.resolve(HOT_IDS_FILE);
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(
+                Files.createDirectories(snapshotDir).resolve(HOT_IDS_FILE + ".tmp")))) {
+            out.writeInt(ids.size());
+            for (Long id : ids) {
+                out.writeLong(id);
+            }
+        } catch (IOException ex) {
+            log.warn("Could not save the hot product ids: {}", ex.getMessage());
+            return;
+        }
+        try {
+            Files.move(snapshotDir.resolve(HOT_IDS_FILE + ".tmp"), file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            log.warn("Could not save the hot product ids: {}", ex.getMessage());
+        }
+    }
+
+    //Most recently used first, as saved at the last shutdown
+    private Set<Long> readHotIds() {
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(snapshotDir.resolve(HOT_IDS_FILE)))) {
+            int count = in.readInt();
+            Set<Long> ids = new LinkedHashSet<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                ids.add(in.readLong());
+            }
+            return ids;
+        } catch (NoSuchFileException ex) {
+            return Set.of();
+        } catch (IOException ex) {
+            log.warn("Ignoring the saved hot product ids: {}", ex.getMessage());
+            return Set.of();
+        }
+    }
+
+    //Helper method to convert Product entity to ProductResponseDTO
+    private ProductResponseDTO convertToResponseDTO(Product product) {
+        return new ProductResponseDTO(
+                product.getId(),
+                product.getCode(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getCategory(),
+                product.getStockQuantity(),
+                product.getIsActive(),
+                product.getCreatedAt(),
+                product.getUpdatedAt()
+        );
+    }
+
+    //One pass over the catalog: feeds every index and picks out the hot products for the cache
+    private final class Load implements Consumer<ProductResponseDTO> {
+
+        private final List<CatalogIndex> loading = new ArrayList<>(indexes.size());
+        private final Set<Long> hotIds;
+        private final Map<Long, ProductResponseDTO> hotProducts = new HashMap<>();
+        private long count;
+
+        private Load(Set<Long> hotIds) {
+            this.hotIds = hotIds;
+        }
+
+        private void begin() {
+            for (CatalogIndex index : indexes) {
+                index.beginLoad();
+                loading.add(index);
+            }
+        }
+
+        @Override
+        public void accept(ProductResponseDTO product) {
+            for (CatalogIndex index : loading) {
+                index.load(product);
+            }
+            if (hotIds.contains(product.getId())) {
+                hotProducts.put(product.getId(), product);
+            }
+            count++;
+        }
+
+        private void finish() {
+            for (CatalogIndex index : loading) {
+                index.finishLoad();
+            }
+        }
+
+        //Coldest first so the hottest end up most recently used. The cache drops the puts if a product
+        //changed since the stamp, the next read loads it as usual
+        private int prefill(long stamp) {
+            List<Long> ids = new ArrayList<>(hotIds);
+            int cached = 0;
+            for (int i = ids.size() - 1; i >= 0; i--) {
+                ProductResponseDTO product = hotProducts.get(ids.get(i));
+                if (product != null) {
+                    productCache.put(product, stamp);
+                    cached++;
+                }
+            }
+            return cached;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.productcatalogapi.index;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of the whole catalog in a local file.
+ * The header holds the change feed sequence the snapshot is consistent with and its creation time,
+ * followed by one record per product and a trailer with the record count and a CRC32 of everything
+ * before it. Files are written to a temporary name and moved into place, and read through a memory
+ * mapping after the checksum has been verified, so a torn or foreign file is rejected before any
+ * product is handed out.
+ */
+final class CatalogSnapshot {
+
+    private static final int MAGIC = 0x43415453;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8;
+    private static final int TRAILER_BYTES = 8 + 8;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final Path file;
+    private final MappedByteBuffer buffer;
+    private final long sequence;
+    private final long createdAt;
+    private final long productCount;
+
+    private CatalogSnapshot(Path file, MappedByteBuffer buffer, long sequence, long createdAt, long productCount) {
+        this.file = file;
+        this.buffer = buffer;
+        this.sequence = sequence;
+        this.createdAt = createdAt;
+        this.productCount = productCount;
+    }
+
+    //Maps and verifies the file, throws IOException if it is missing, truncated or corrupt
+    static CatalogSnapshot open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + TRAILER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Unexpected snapshot size " + size);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        int trailer = buffer.capacity() - TRAILER_BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(0, trailer));
+        if (buffer.getLong(trailer + 8) != crc.getValue()) {
+            throw new IOException("Snapshot checksum mismatch");
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Not a catalog snapshot of format version " + FORMAT_VERSION);
+        }
+        return new CatalogSnapshot(file, buffer, buffer.getLong(8), buffer.getLong(16), buffer.getLong(trailer));
+    }
+
+    static Writer create(Path file, long sequence) throws IOException {
+        return new Writer(file, sequence);
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    //Change feed sequence through which every change is contained in the snapshot
+    long getSequence() {
+        return sequence;
+    }
+
+    //Epoch milliseconds when the scan behind the snapshot started
+    long getCreatedAt() {
+        return createdAt;
+    }
+
+    long getProductCount() {
+        return productCount;
+    }
+
+    //Decodes every product in id order
+    void forEach(Consumer<ProductResponseDTO> consumer) {
+        ByteBuffer records = buffer.slice(HEADER_BYTES, buffer.capacity() - HEADER_BYTES - TRAILER_BYTES);
+        for (long i = 0; i < productCount; i++) {
+            consumer.accept(new ProductResponseDTO(
+                    records.getLong(),
+                    readString(records),
+                    readString(records),
+                    readString(records),
+                    readDecimal(records),
+                    readString(records),
+                    readInteger(records),
+                    readBoolean(records),
+                    readTime(records),
+                    readTime(records)));
+        }
+    }
+
+    private static String readString(ByteBuffer records) {
+        int length = records.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        records.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer records) {
+        int length = records.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        records.get(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), records.getInt());
+    }
+
+    private static Integer readInteger(ByteBuffer records) {
+        return records.get() == 0 ? null : records.getInt();
+    }
+
+    private static Boolean readBoolean(ByteBuffer records) {
+        byte value = records.get();
+        return value == 2 ? null : value == 1;
+    }
+
+    private static LocalDateTime readTime(ByteBuffer records) {
+        long seconds = records.getLong();
+        if (seconds == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(seconds, records.getInt(), ZoneOffset.UTC);
+    }
+
+    /**
+     * Streams products into a new snapshot. Nothing replaces the existing file until commit(),
+     * closing an uncommitted writer discards what was written.
+     */
+    static final class Writer implements AutoCloseable {
+
+        private final Path file;
+        private final Path temporary;
+        private final CRC32 crc = new CRC32();
+        private final DataOutputStream out;
+        private long productCount;
+        private boolean committed;
+
+        private Writer(Path file, long sequence) throws IOException {
+            this.file = file;
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            this.temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            OutputStream stream = Files.newOutputStream(temporary);
+            this.out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(stream, 1 << 16), crc));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(sequence);
+            out.writeLong(System.currentTimeMillis());
+        }
+
+        //Unchecked so a scan can feed the writer as a Consumer
+        void add(ProductResponseDTO product) {
+            try {
+                write(product);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private void write(ProductResponseDTO product) throws IOException {
+            out.writeLong(product.getId());
+            writeString(product.getCode());
+            writeString(product.getName());
+            writeString(product.getDescription());
+            writeDecimal(product.getPrice());
+            writeString(product.getCategory());
+            writeInteger(product.getStockQuantity());
+            out.writeByte(product.getIsActive() == null ? 2 : product.getIsActive() ? 1 : 0);
+            writeTime(product.getCreatedAt());
+            writeTime(product.getUpdatedAt());
+            productCount++;
+        }
+
+        long getProductCount() {
+            return productCount;
+        }
+
+        void commit() throws IOException {
+            out.flush();
+            long checksum = crc.getValue();
+            out.writeLong(productCount);
+            out.writeLong(checksum);
+            out.close();
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                out.close();
+                Files.deleteIfExists(temporary);
+            }
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private void writeDecimal(BigDecimal value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            out.writeInt(unscaled.length);
+            out.write(unscaled);
+            out.writeInt(value.scale());
+        }
+
+        private void writeInteger(Integer value) throws IOException {
+            out.writeByte(value == null ? 0 : 1);
+            if (value != null) {
+                out.writeInt(value);
+            }
+        }
+
+        private void writeTime(LocalDateTime value) throws IOException {
+            if (value == null) {
+                out.writeLong(NO_TIME);
+                return;
+            }
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+}
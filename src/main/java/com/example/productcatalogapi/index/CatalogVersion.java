@@ -0,0 +1,96 @@
+package com.example.productcatalogapi.index;
+
+import com.example.productcatalogapi.datasource.ReplicaRoutingDataSource;
+import com.example.productcatalogapi.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Version of the whole catalog, shared by all instances: the sequence of the newest change in the
+ * product_changes outbox, which every write adds to in its own transaction and purging never removes.
+ * It is read again right after a local commit and at most every refresh-interval otherwise, so writes
+ * through other instances show up within refresh-interval. Last-Modified is the time of that change.
+ */
+@Component
+public class CatalogVersion {
+
+    private static final String LAST_CHANGE_SQL = "SELECT id, created_at FROM product_changes ORDER BY id DESC LIMIT 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long refreshNanos;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile long version;
+    private volatile long lastModified = -1;
+    private volatile long checkedAt;
+    private volatile boolean stale = true;
+
+    public CatalogVersion(JdbcTemplate jdbcTemplate,
+                          @Value("${catalog.etag.refresh-interval:1s}") Duration refreshInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.refreshNanos = refreshInterval.toNanos();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        //A bulk chunk publishes hundreds of events, the next read pays for one query
+        stale = true;
+    }
+
+    public long getVersion() {
+        refreshIfDue();
+        return version;
+    }
+
+    //Time of the newest change in epoch milliseconds, -1 while there is none
+    public long getLastModified() {
+        refreshIfDue();
+        return lastModified;
+    }
+
+    //After a local commit every caller waits for the new version, so a client never sees its own write
+    //with the old one. A periodic refresh is done by one caller while the others keep the current version
+    private void refreshIfDue() {
+        if (stale) {
+            synchronized (this) {
+                if (stale) {
+                    refresh();
+                }
+            }
+        } else if (System.nanoTime() - checkedAt >= refreshNanos && refreshing.compareAndSet(false, true)) {
+            try {
+                synchronized (this) {
+                    refresh();
+                }
+            } finally {
+                refreshing.set(false);
+            }
+        }
+    }
+
+    //Always from the primary, a lagging replica would report an older version
+    private void refresh() {
+        //Cleared first, a commit while the query runs marks the version stale again
+        stale = false;
+        long started = System.nanoTime();
+        List<long[]> last;
+        try {
+            last = ReplicaRoutingDataSource.onPrimary(() -> jdbcTemplate.query(LAST_CHANGE_SQL,
+                    (rs, rowNum) -> new long[]{rs.getLong(1), rs.getTimestamp(2).getTime()}));
+        } catch (RuntimeException ex) {
+            stale = true;
+            throw ex;
+        }
+        if (!last.isEmpty() && last.get(0)[0] > version) {
+            version = last.get(0)[0];
+            lastModified = last.get(0)[1];
+        }
+        checkedAt = started;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.productcatalogapi.index;
+
+import com.example.productcatalogapi.dto.CategoryFacetDTO;
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.event.ProductChangeType;
+import com.example.productcatalogapi.event.ProductChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Per-category product counts (total and active), kept current from product change events.
+ * Every write republishes immutable category and facet lists, so reads are a volatile field access.
+ */
+@Component
+public class CategoryFacetIndex implements CatalogIndex {
+
+    //product id -> what this index last counted for it
+    private final Map<Long, Membership> memberships = new HashMap<>();
+    private final TreeMap<String, long[]> counts = new TreeMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile List<String> categories = List.of();
+    private volatile List<CategoryFacetDTO> facets = List.of();
+    private volatile boolean ready;
+
+    @Override
+    public void beginLoad() {
+        lock.lock();
+        memberships.clear();
+        counts.clear();
+    }
+
+    @Override
+    public void load(ProductResponseDTO product) {
+        add(product.getId(), new Membership(product.getCategory(), Boolean.TRUE.equals(product.getIsActive())));
+    }
+
+    @Override
+    public void finishLoad() {
+        publish();
+        ready = true;
+        lock.unlock();
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.lock();
+        try {
+            remove(event.getProductId());
+            if (event.getChangeType() != ProductChangeType.DELETED) {
+                ProductResponseDTO product = event.getCurrent();
+                add(product.getId(), new Membership(product.getCategory(), Boolean.TRUE.equals(product.getIsActive())));
+            }
+            publish();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Distinct non-null categories in sorted order
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public List<CategoryFacetDTO> getFacets() {
+        return facets;
+    }
+
+    //Callers must hold the lock
+    private void add(Long productId, Membership membership) {
+        memberships.put(productId, membership);
+        if (membership.category == null) {
+            return;
+        }
+        long[] categoryCounts = counts.computeIfAbsent(membership.category, key -> new long[2]);
+        categoryCounts[0]++;
+        if (membership.active) {
+            categoryCounts[1]++;
+        }
+    }
+
+    //Callers must hold the lock
+    private void remove(Long productId) {
+        Membership membership = memberships.remove(productId);
+        if (membership == null || membership.category == null) {
+            return;
+        }
+        long[] categoryCounts = counts.get(membership.category);
+        categoryCounts[0]--;
+        if (membership.active) {
+            categoryCounts[1]--;
+        }
+        if (categoryCounts[0] == 0) {
+            counts.remove(membership.category);
+        }
+    }
+
+    //Callers must hold the lock
+    private void publish() {
+        List<String> categoryList = new ArrayList<>(counts.size());
+        List<CategoryFacetDTO> facetList = new ArrayList<>(counts.size());
+        counts.forEach((category, categoryCounts) -> {
+            categoryList.add(category);
+            facetList.add(new CategoryFacetDTO(category, categoryCounts[0], categoryCounts[1]));
+        });
+        categories = Collections.unmodifiableList(categoryList);
+        facets = Collections.unmodifiableList(facetList);
+    }
+
+    private static final class Membership {
+
+        private final String category;
+        private final boolean active;
+
+        private Membership(String category, boolean active) {
+            this.category = category;
+            this.active = active;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.productcatalogapi.index;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.event.ProductChangeType;
+import com.example.productcatalogapi.event.ProductChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sorted secondary indexes over price (all products) and stock (active products with a stock value).
+ * Keys are primitive (price in cents, stock, id) pairs in concurrent skip lists, so range and
+ * threshold queries are a seek plus a walk to the end of the requested page. Matches are counted
+ * only up to MAX_COUNTED, beyond that the total is a lower bound that still shows a next page.
+ * Readers never lock, writers are serialized and kept current from product change events.
+ */
+@Component
+public class ProductRangeIndex implements CatalogIndex {
+
+    //Counting every match would make each page cost O(matches)
+    static final int MAX_COUNTED = 10_000;
+    private static final BigDecimal MAX_PRICE = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+    private static final BigDecimal MIN_PRICE = BigDecimal.valueOf(Long.MIN_VALUE, 2);
+
+    private final ConcurrentSkipListSet<RangeKey> byPrice = new ConcurrentSkipListSet<>();
+    private final ConcurrentSkipListSet<RangeKey> activeByStock = new ConcurrentSkipListSet<>();
+
+    //product id -> keys currently indexed for it
+    private final Map<Long, RangeKey[]> keys = new HashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile boolean ready;
+
+    @Override
+    public void beginLoad() {
+        lock.lock();
+        byPrice.clear();
+        activeByStock.clear();
+        keys.clear();
+    }
+
+    @Override
+    public void load(ProductResponseDTO product) {
+        add(product);
+    }
+
+    @Override
+    public void finishLoad() {
+        ready = true;
+        lock.unlock();
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.lock();
+        try {
+            remove(event.getProductId());
+            if (event.getChangeType() != ProductChangeType.DELETED) {
+                add(event.getCurrent());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Ids of products priced within [minPrice, maxPrice], ordered by price then id
+    public RangePage findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice,
+                                        long offset, int limit, boolean descending) {
+        long from = boundCents(minPrice, RoundingMode.CEILING);
+        long to = boundCents(maxPrice, RoundingMode.FLOOR);
+        if (from > to) {
+            return new RangePage(List.of(), 0);
+        }
+        NavigableSet<RangeKey> range = byPrice.subSet(
+                new RangeKey(from, Long.MIN_VALUE), true, new RangeKey(to, Long.MAX_VALUE), true);
+        return page(descending ? range.descendingSet() : range, offset, limit);
+    }
+
+    //Ids of active products with stock at or below the threshold, lowest stock first
+    public RangePage findLowStock(int threshold, long offset, int limit) {
+        NavigableSet<RangeKey> range = activeByStock.headSet(new RangeKey(threshold, Long.MAX_VALUE), true);
+        return page(range, offset, limit);
+    }
+
+    private static RangePage page(NavigableSet<RangeKey> range, long offset, int limit) {
+        List<Long> ids = new ArrayList<>(limit);
+        long counted = Math.max(offset + limit + 1, MAX_COUNTED);
+        long total = 0;
+        Iterator<RangeKey> iterator = range.iterator();
+        while (iterator.hasNext() && total < counted) {
+            RangeKey key = iterator.next();
+            if (total >= offset && ids.size() < limit) {
+                ids.add(key.id);
+            }
+            total++;
+        }
+        return new RangePage(ids, total);
+    }
+
+    //Callers must hold the lock
+    private void add(ProductResponseDTO product) {
+        RangeKey priceKey = product.getPrice() == null ? null
+                : new RangeKey(toCents(product.getPrice(), RoundingMode.HALF_UP), product.getId());
+        RangeKey stockKey = Boolean.TRUE.equals(product.getIsActive()) && product.getStockQuantity() != null
+                ? new RangeKey(product.getStockQuantity(), product.getId()) : null;
+        if (priceKey != null) {
+            byPrice.add(priceKey);
+        }
+        if (stockKey != null) {
+            activeByStock.add(stockKey);
+        }
+        keys.put(product.getId(), new RangeKey[]{priceKey, stockKey});
+    }
+
+    //Callers must hold the lock
+    private void remove(Long productId) {
+        RangeKey[] indexed = keys.remove(productId);
+        if (indexed == null) {
+            return;
+        }
+        if (indexed[0] != null) {
+            byPrice.remove(indexed[0]);
+        }
+        if (indexed[1] != null) {
+            activeByStock.remove(indexed[1]);
+        }
+    }
+
+    //Query bounds beyond what a price can be match everything on that side
+    private static long boundCents(BigDecimal price, RoundingMode roundingMode) {
+        if (price.compareTo(MAX_PRICE) > 0) {
+            return Long.MAX_VALUE;
+        }
+        if (price.compareTo(MIN_PRICE) < 0) {
+            return Long.MIN_VALUE;
+        }
+        return toCents(price, roundingMode);
+    }
+
+    //Prices have scale 2 in the database, so cents are exact
+    private static long toCents(BigDecimal price, RoundingMode roundingMode) {
+        return price.setScale(2, roundingMode).unscaledValue().longValueExact();
+    }
+
+    //Result of a range query: one page of ids and the number of matches, counted up to MAX_COUNTED
+    @Getter
+    @AllArgsConstructor
+    public static final class RangePage {
+
+        private final List<Long> ids;
+        private final long total;
+    }
+
+    private static final class RangeKey implements Comparable<RangeKey> {
+
+        private final long value;
+        private final long id;
+
+        private RangeKey(long value, long id) {
+            this.value = value;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(RangeKey other) {
+            int byValue = Long.compare(value, other.value);
+            return byValue != 0 ? byValue : Long.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof RangeKey key && key.value == value && key.id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(value) * 31 + Long.hashCode(id);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.productcatalogapi.metrics;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Counts the statements an async request body (streaming exports) runs on the MVC task executor and adds
+ * them to the request, where RequestQueryMetricsFilter records them once the request completes.
+ */
+@Component
+public class AsyncQueryMetricsInterceptor implements CallableProcessingInterceptor {
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        QueryCounter.reset();
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        long[] counts = (long[]) request.getAttribute(RequestQueryMetricsFilter.COUNTS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (counts != null) {
+            counts[0] += QueryCounter.getStatements();
+            counts[1] += QueryCounter.getRows();
+        }
+        QueryCounter.reset();
+    }
+}
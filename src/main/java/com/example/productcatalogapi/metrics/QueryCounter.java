@@ -0,0 +1,59 @@
+package com.example.productcatalogapi.metrics;
+
+/**
+ * Per-thread count of JDBC statements executed and rows fetched, and the time spent waiting for the
+ * database (connection checkout, statement preparation and execution, commit).
+ * The counting DataSource increments it, RequestQueryMetricsFilter resets it at the start of
+ * a request and records it at the end. Background tasks run through {@link #counted(Runnable)}.
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[3]);
+
+    private QueryCounter() {
+    }
+
+    public static void reset() {
+        long[] counts = COUNTS.get();
+        counts[0] = 0;
+        counts[1] = 0;
+        counts[2] = 0;
+    }
+
+    //Scheduled and pooled work starts from zero and leaves nothing behind on its thread,
+    //so counts never pile up across runs or leak into the next task
+    public static Runnable counted(Runnable task) {
+        return () -> {
+            reset();
+            try {
+                task.run();
+            } finally {
+                reset();
+            }
+        };
+    }
+
+    public static void statementExecuted() {
+        COUNTS.get()[0]++;
+    }
+
+    public static void rowFetched() {
+        COUNTS.get()[1]++;
+    }
+
+    public static void databaseTime(long nanos) {
+        COUNTS.get()[2] += nanos;
+    }
+
+    public static long getStatements() {
+        return COUNTS.get()[0];
+    }
+
+    public static long getRows() {
+        return COUNTS.get()[1];
+    }
+
+    public static long getDatabaseNanos() {
+        return COUNTS.get()[2];
+    }
+}
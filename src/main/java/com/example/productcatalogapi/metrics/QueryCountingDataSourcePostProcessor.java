@@ -0,0 +1,128 @@
+package com.example.productcatalogapi.metrics;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Wraps the application DataSource so every executed statement and every fetched row is counted
+ * in QueryCounter, together with the time spent in calls that wait for the database or the pool. Unwrap calls reach the real pool, so pool metrics and drivers still see it.
+ * With several DataSource beans (read replica routing) only the primary one is wrapped, the pools
+ * behind it would otherwise count every statement again.
+ */
+@Component
+public class QueryCountingDataSourcePostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        this.beanFactory = (ConfigurableListableBeanFactory) beanFactory;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !Proxy.isProxyClass(bean.getClass())
+                && isApplicationDataSource(beanName)) {
+            return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                Object result = method.getName().equals("getConnection") ? timed(target, method, args) : invoke(target, method, args);
+                return result instanceof Connection connection ? proxyConnection(connection) : result;
+            });
+        }
+        return bean;
+    }
+
+    private boolean isApplicationDataSource(String beanName) {
+        if (beanFactory.getBeanNamesForType(DataSource.class, false, false).length <= 1) {
+            return true;
+        }
+        return beanFactory.containsBeanDefinition(beanName) && beanFactory.getBeanDefinition(beanName).isPrimary();
+    }
+
+    private static Connection proxyConnection(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            //A lazy connection proxy checks out the pooled connection on the first of these
+            String name = method.getName();
+            Object result = name.startsWith("prepare") || name.equals("createStatement") || name.equals("commit")
+                    || name.equals("rollback") ? timed(target, method, args) : invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return proxyStatement(CallableStatement.class, statement);
+            }
+            if (result instanceof PreparedStatement statement) {
+                return proxyStatement(PreparedStatement.class, statement);
+            }
+            if (result instanceof Statement statement) {
+                return proxyStatement(Statement.class, statement);
+            }
+            return result;
+        });
+    }
+
+    private static <S extends Statement> S proxyStatement(Class<S> type, S statement) {
+        return proxy(type, statement, (target, method, args) -> {
+            Object result;
+            if (method.getName().startsWith("execute")) {
+                QueryCounter.statementExecuted();
+                result = timed(target, method, args);
+            } else {
+                result = invoke(target, method, args);
+            }
+            if (result instanceof ResultSet resultSet && !method.getName().equals("getGeneratedKeys")) {
+                return proxyResultSet(resultSet);
+            }
+            return result;
+        });
+    }
+
+    private static ResultSet proxyResultSet(ResultSet resultSet) {
+        return proxy(ResultSet.class, resultSet, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                QueryCounter.rowFetched();
+            }
+            return result;
+        });
+    }
+
+    private static Object timed(Object target, Method method, Object[] args) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return invoke(target, method, args);
+        } finally {
+            QueryCounter.databaseTime(System.nanoTime() - start);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, TargetInvocationHandler handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.invoke(target, method, args);
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    @FunctionalInterface
+    private interface TargetInvocationHandler {
+
+        Object invoke(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.productcatalogapi.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many JDBC statements each request executed and how many rows it fetched,
+ * tagged by endpoint, so N+1 patterns and full scans show up as a shifted distribution.
+ * An async request is recorded once, by the dispatch that completes it, with the statements of all its
+ * dispatches and of its async task (see AsyncQueryMetricsInterceptor).
+ */
+@Component
+public class RequestQueryMetricsFilter extends OncePerRequestFilter {
+
+    static final String COUNTS_ATTRIBUTE = RequestQueryMetricsFilter.class.getName() + ".COUNTS";
+
+    private final MeterRegistry meterRegistry;
+
+    public RequestQueryMetricsFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long[] counts = (long[]) request.getAttribute(COUNTS_ATTRIBUTE);
+        if (counts == null) {
+            counts = new long[2];
+            request.setAttribute(COUNTS_ATTRIBUTE, counts);
+        }
+        QueryCounter.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            counts[0] += QueryCounter.getStatements();
+            counts[1] += QueryCounter.getRows();
+            if (!request.isAsyncStarted()) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+                summary("catalog.jdbc.statements", "JDBC statements executed per request", request.getMethod(), uri)
+                        .record(counts[0]);
+                summary("catalog.jdbc.rows", "Rows fetched from JDBC result sets per request", request.getMethod(), uri)
+                        .record(counts[1]);
+            }
+        }
+    }
+
+    private DistributionSummary summary(String name, String description, String method, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.productcatalogapi.pagination;
+
+import com.example.productcatalogapi.exception.InvalidCursorException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Encodes keyset positions as opaque continuation tokens and back.
+ * A token holds the sort it was issued for and the last row's sort key values plus id,
+ * so the next window is a seek on an index instead of an OFFSET scan.
+ */
+@Component
+public class CursorCodec {
+
+    //Sort properties keyset pagination accepts, they must be non-null for the seek to be exact
+    private static final Map<String, Function<String, Object>> KEY_PARSERS = Map.of(
+            "id", Long::valueOf,
+            "code", value -> value,
+            "name", value -> value,
+            "price", BigDecimal::new,
+            "createdAt", LocalDateTime::parse,
+            "score", Double::valueOf
+    );
+
+    private static final TypeReference<Map<String, Object>> TOKEN_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper objectMapper;
+
+    public CursorCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    //Rejects sorts the keyset seek cannot handle
+    public Sort validateSort(Sort sort) {
+        for (Sort.Order order : sort) {
+            if (!KEY_PARSERS.containsKey(order.getProperty()) || order.getProperty().equals("score")) {
+                throw new InvalidCursorException("Cursor pagination does not support sorting by '" + order.getProperty()
+                        + "', use one of id, code, name, price, createdAt");
+            }
+        }
+        return sort;
+    }
+
+    public String encode(Map<String, ?> keys, Sort sort) {
+        Map<String, Object> token = new LinkedHashMap<>();
+        token.put("s", sort.toString());
+        Map<String, String> values = new LinkedHashMap<>();
+        keys.forEach((property, value) -> values.put(property, String.valueOf(value)));
+        token.put("k", values);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(token));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not encode cursor", ex);
+        }
+    }
+
+    public String encode(ScrollPosition position, Sort sort) {
+        return encode(((KeysetScrollPosition) position).getKeys(), sort);
+    }
+
+    //Returns the sort key values stored in the cursor, or null for the first window
+    public Map<String, Object> decodeKeys(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        Map<String, Object> token;
+        try {
+            token = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), TOKEN_TYPE);
+        } catch (IllegalArgumentException | IOException ex) {
+            throw new InvalidCursorException("Malformed cursor", ex);
+        }
+        if (!sort.toString().equals(token.get("s")) || !(token.get("k") instanceof Map<?, ?> values)) {
+            throw new InvalidCursorException("Cursor was issued for a different sort order");
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> value : values.entrySet()) {
+            String property = String.valueOf(value.getKey());
+            Function<String, Object> parser = KEY_PARSERS.get(property);
+            if (parser == null || value.getValue() == null) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+            try {
+                keys.put(property, parser.apply(String.valueOf(value.getValue())));
+            } catch (RuntimeException ex) {
+                throw new InvalidCursorException("Malformed cursor", ex);
+            }
+        }
+        //Every position ends with the id tie-breaker after the sort keys
+        if (!keys.containsKey("id") || sort.stream().anyMatch(order -> !keys.containsKey(order.getProperty()))) {
+            throw new InvalidCursorException("Malformed cursor");
+        }
+        return keys;
+    }
+
+    public ScrollPosition decode(String cursor, Sort sort) {
+        Map<String, Object> keys = decodeKeys(cursor, sort);
+        return keys == null ? ScrollPosition.keyset() : ScrollPosition.forward(keys);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.productcatalogapi.repository;
+
+import com.example.productcatalogapi.entity.ProductChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+
+    List<ProductChange> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("SELECT COALESCE(MAX(c.id), 0) FROM ProductChange c")
+    long findLastSequence();
+
+    //Oldest retained change, null while the table is empty
+    @Query("SELECT MIN(c.id) FROM ProductChange c")
+    Long findFirstSequence();
+}
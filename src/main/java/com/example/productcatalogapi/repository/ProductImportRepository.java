@@ -0,0 +1,31 @@
+package com.example.productcatalogapi.repository;
+
+import com.example.productcatalogapi.dto.ImportStatus;
+import com.example.productcatalogapi.entity.ProductImport;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductImportRepository extends JpaRepository<ProductImport, Long> {
+
+    List<ProductImport> findAllByOrderByIdDesc(Limit limit);
+
+    List<ProductImport> findByStatusIn(Collection<ImportStatus> statuses);
+
+    //Status changes touch only their own columns, so they never write back stale progress of a chunk
+    //that committed in between
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductImport i SET i.status = :status, i.error = :error, i.updatedAt = :now WHERE i.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") ImportStatus status, @Param("error") String error,
+                     @Param("now") LocalDateTime now);
+}
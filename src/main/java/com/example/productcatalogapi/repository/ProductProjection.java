@@ -0,0 +1,60 @@
+package com.example.productcatalogapi.repository;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.dto.ProductSummaryDTO;
+import com.example.productcatalogapi.exception.InvalidViewException;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A DTO the read queries construct directly from selected columns, so no Product entity is
+ * materialized or tracked by the persistence context. The attributes are passed to the DTO
+ * constructor in order.
+ */
+public final class ProductProjection<T> {
+
+    //Every column, for single products and full list pages
+    public static final ProductProjection<ProductResponseDTO> DETAIL = new ProductProjection<>(
+            ProductResponseDTO.class, ProductResponseDTO::getId,
+            List.of("id", "code", "name", "description", "price", "category", "stockQuantity", "isActive",
+                    "createdAt", "updatedAt"));
+
+    //List pages, without the description
+    public static final ProductProjection<ProductSummaryDTO> SUMMARY = new ProductProjection<>(
+            ProductSummaryDTO.class, ProductSummaryDTO::getId,
+            List.of("id", "code", "name", "price", "category", "stockQuantity", "isActive", "updatedAt"));
+
+    private final Class<T> type;
+    private final Function<T, Long> idFunction;
+    private final List<String> attributes;
+
+    private ProductProjection(Class<T> type, Function<T, Long> idFunction, List<String> attributes) {
+        this.type = type;
+        this.idFunction = idFunction;
+        this.attributes = attributes;
+    }
+
+    //Resolves the view request parameter (full/summary)
+    public static ProductProjection<?> of(String view) {
+        if ("full".equalsIgnoreCase(view)) {
+            return DETAIL;
+        }
+        if ("summary".equalsIgnoreCase(view)) {
+            return SUMMARY;
+        }
+        throw new InvalidViewException("Unknown view '" + view + "', expected full or summary");
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public List<String> getAttributes() {
+        return attributes;
+    }
+
+    public Long idOf(T product) {
+        return idFunction.apply(product);
+    }
+}
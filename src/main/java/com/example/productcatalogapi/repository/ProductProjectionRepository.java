@@ -0,0 +1,19 @@
+package com.example.productcatalogapi.repository;
+
+import com.example.productcatalogapi.entity.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+
+//Read queries that select straight into a projection instead of loading entities
+public interface ProductProjectionRepository {
+
+    <T> Optional<T> findOne(Specification<Product> spec, ProductProjection<T> projection);
+
+    <T> List<T> findAll(Specification<Product> spec, ProductProjection<T> projection);
+
+    <T> Page<T> findAll(Specification<Product> spec, Pageable pageable, ProductProjection<T> projection);
+}
@@ -0,0 +1,83 @@
+package com.example.productcatalogapi.repository;
+
+import com.example.productcatalogapi.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Builds a constructor expression over the projection's attributes, so Hibernate reads the selected
+ * columns into the DTO directly. Nothing enters the persistence context and no description is read
+ * for projections that leave it out. Queries are marked cacheable, which only takes effect while the
+ * Hibernate query cache is enabled.
+ */
+class ProductProjectionRepositoryImpl implements ProductProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public <T> Optional<T> findOne(Specification<Product> spec, ProductProjection<T> projection) {
+        return createQuery(spec, Sort.unsorted(), projection).setMaxResults(1).getResultStream().findFirst();
+    }
+
+    @Override
+    public <T> List<T> findAll(Specification<Product> spec, ProductProjection<T> projection) {
+        return createQuery(spec, Sort.unsorted(), projection).getResultList();
+    }
+
+    @Override
+    public <T> Page<T> findAll(Specification<Product> spec, Pageable pageable, ProductProjection<T> projection) {
+        TypedQuery<T> query = createQuery(spec, pageable.getSort(), projection);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        //The count query only runs when the page alone cannot tell the total
+        return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+    }
+
+    private <T> TypedQuery<T> createQuery(Specification<Product> spec, Sort sort, ProductProjection<T> projection) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(projection.getType());
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.construct(projection.getType(), projection.getAttributes().stream()
+                .map(root::get)
+                .toArray(Selection[]::new)));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+        return entityManager.createQuery(query).setHint(HibernateHints.HINT_CACHEABLE, true);
+    }
+
+    private long count(Specification<Product> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(cb.count(root));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).setHint(HibernateHints.HINT_CACHEABLE, true).getSingleResult();
+    }
+}
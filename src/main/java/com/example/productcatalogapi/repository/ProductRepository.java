@@ -1,36 +1,56 @@
 package com.example.productcatalogapi.repository;
 
+import com.example.productcatalogapi.dto.ProductResponseDTO;
 import com.example.productcatalogapi.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product>,
+        ProductProjectionRepository {
 
     //Find by code (unique identifier)
     Optional<Product> findByCode(String code);
 
+    //Last modification time only, for conditional requests
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT p.updatedAt FROM Product p WHERE p.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT p.updatedAt FROM Product p WHERE p.code = :code")
+    Optional<LocalDateTime> findUpdatedAtByCode(@Param("code") String code);
+
+    //Conditional in-place stock change, returns 0 when it would take the stock below zero
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :delta, p.updatedAt = :now " +
+            "WHERE p.id = :id AND p.stockQuantity + :delta >= 0")
+    int adjustStock(@Param("id") Long id, @Param("delta") int delta, @Param("now") LocalDateTime now);
+
     //Check if product exits by code
     boolean existsByCode(String code);
 
     //Find product by name containing (case - insensitive)
     Page<Product> findByNameContainingIgnoreCase(String name, Pageable pageable);
 
-    //Find products by category
-    Page<Product> findByCategoryIgnoreCase(String category, Pageable pageable);
-
-    //Find products by price range
-    Page<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable);
-
-    //Find active products
-    Page<Product> findByIsActiveTrue(Pageable pageable);
-
     //Find products by active status
     Page<Product> findByIsActive(Boolean isActive, Pageable pageable);
 
@@ -40,21 +60,68 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
                               @Param("isActive") Boolean isActive,
                               Pageable pageable);
 
-    //Custom query: search products by name or description
-    @Query("SELECT p FROM Product p WHERE " + "LOWER(p.name) LIKE LOWER(CONCAT('%', :serachTerm, '%'))")
-    Page<Product> searchByNameOrDescription(@Param("searchTerm") String searchTerm, Pageable pageable);
-
     //Custom query: Find product with low stock
     @Query("SELECT p FROM Product p WHERE p.stockQuantity <= :threshold AND p.isActive = true")
     List<Product> findLowStockProducts(@Param("threshold") Integer threshold);
 
     //Custom query: Get all categories
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     @Query("SELECT DISTINCT p.category FROM Product p WHERE p.category IS NOT NULL ORDER BY p.category")
     List<String> findAllCategories();
 
     //Custom query: count products by category
     Long countByCategoryAndIsActiveTrue(@Param("category") String category);
 
+    //Count all products in a category
+    long countByCategory(String category);
+
+    //Keyset scan in id order, used to load in-memory indexes in batches
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    //Keyset scan in (updatedAt, id) order, for readers that follow changes by modification time
+    @Query("SELECT new com.example.productcatalogapi.dto.ProductResponseDTO(p.id, p.code, p.name, p.description, " +
+            "p.price, p.category, p.stockQuantity, p.isActive, p.createdAt, p.updatedAt) FROM Product p " +
+            "WHERE p.updatedAt > :after OR (p.updatedAt = :after AND p.id > :afterId) ORDER BY p.updatedAt, p.id")
+    List<ProductResponseDTO> findChangedAfter(@Param("after") LocalDateTime after, @Param("afterId") Long afterId,
+                                              Limit limit);
+
+    //Keyset scan of ids only
+    @Query("SELECT p.id FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    //Find all products with any of the given codes in one query
+    List<Product> findByCodeIn(Collection<String> codes);
+
+    //Keyset (seek) pagination: no OFFSET and no count query, the position carries the last sort key plus id
+    Window<Product> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Product> findByCategoryIgnoreCase(String category, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Product> findByIsActiveTrue(ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Product> findByIdIn(Collection<Long> ids, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Product> findByNameContainingIgnoreCase(String name, ScrollPosition position, Sort sort, Limit limit);
+
+    //Forward-only cursor over the (optionally filtered) catalog in id order, for exports and full scans.
+    //Callers must consume it inside a transaction and close it
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p WHERE " +
+            "(:category IS NULL OR UPPER(p.category) = UPPER(:category)) AND " +
+            "(:isActive IS NULL OR p.isActive = :isActive) AND " +
+            "(:minPrice IS NULL OR p.price >= :minPrice) AND " +
+            "(:maxPrice IS NULL OR p.price <= :maxPrice) " +
+            "ORDER BY p.id")
+    Stream<Product> streamProducts(@Param("category") String category,
+                                   @Param("isActive") Boolean isActive,
+                                   @Param("minPrice") BigDecimal minPrice,
+                                   @Param("maxPrice") BigDecimal maxPrice);
+
     //Custom native query: Find products with stock quantity greater than specified value
     @Query(value = "SELECT * FROM products WHERE stock_quantity >?1 AND is_active = true", nativeQuery = true)
     List<Product> findProductsWithStockGreaterThan(Integer quantity);
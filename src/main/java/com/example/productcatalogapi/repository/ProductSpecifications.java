@@ -0,0 +1,79 @@
+package com.example.productcatalogapi.repository;
+
+import com.example.productcatalogapi.dto.ProductFilterDTO;
+import com.example.productcatalogapi.entity.Product;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Dynamic predicates for product reads. Every criterion of a filter ends up in one WHERE clause,
+ * and the predicates are plain comparisons on indexed columns so the composite indexes on Product apply.
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    //No restriction, the query gets no WHERE clause
+    public static Specification<Product> all() {
+        return (root, query, cb) -> null;
+    }
+
+    public static Specification<Product> hasId(Long id) {
+        return (root, query, cb) -> cb.equal(root.get("id"), id);
+    }
+
+    public static Specification<Product> hasCode(String code) {
+        return (root, query, cb) -> cb.equal(root.get("code"), code);
+    }
+
+    public static Specification<Product> idIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Product> codeIn(Collection<String> codes) {
+        return (root, query, cb) -> root.get("code").in(codes);
+    }
+
+    /**
+     * @param categories exact stored spellings of the requested category, or null to compare case-insensitively
+     * @param ids        products matching the search term, or null to fall back to a LIKE on name and description
+     */
+    public static Specification<Product> matching(ProductFilterDTO filter, Collection<String> categories, Collection<Long> ids) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filter.getCategory() != null) {
+                predicates.add(categories != null
+                        ? root.get("category").in(categories)
+                        : cb.equal(cb.upper(root.get("category")), filter.getCategory().toUpperCase()));
+            }
+            if (filter.getIsActive() != null) {
+                predicates.add(cb.equal(root.get("isActive"), filter.getIsActive()));
+            }
+            if (filter.getMinPrice() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("price"), filter.getMinPrice()));
+            }
+            if (filter.getMaxPrice() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("price"), filter.getMaxPrice()));
+            }
+            if (filter.getMinStock() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("stockQuantity"), filter.getMinStock()));
+            }
+            if (filter.getMaxStock() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("stockQuantity"), filter.getMaxStock()));
+            }
+            if (filter.getQ() != null) {
+                String pattern = "%" + filter.getQ().toLowerCase() + "%";
+                predicates.add(ids != null
+                        ? root.get("id").in(ids)
+                        : cb.or(cb.like(cb.lower(root.get("name")), pattern),
+                                cb.like(cb.lower(root.get("description")), pattern)));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+}
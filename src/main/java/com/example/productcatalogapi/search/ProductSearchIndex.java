@@ -0,0 +1,206 @@
+package com.example.productcatalogapi.search;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.event.ProductChangeType;
+import com.example.productcatalogapi.event.ProductChangedEvent;
+import com.example.productcatalogapi.index.CatalogIndex;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name and description.
+ * Loaded once at startup and kept current from product change events, so a search
+ * only touches the postings of the query terms instead of scanning the table.
+ */
+@Component
+public class ProductSearchIndex implements CatalogIndex {
+
+    //Name matches count more than description matches
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    //Upper bound on index terms a single query token may expand to by prefix
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    //term -> (product id -> weighted term frequency)
+    private final NavigableMap<String, Map<Long, Float>> postings = new ConcurrentSkipListMap<>();
+
+    //product id -> its weighted terms, needed to remove or re-index a product
+    private final Map<Long, Map<String, Float>> documents = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile boolean ready;
+
+    @Override
+    public void beginLoad() {
+        lock.writeLock().lock();
+        postings.clear();
+        documents.clear();
+    }
+
+    @Override
+    public void load(ProductResponseDTO product) {
+        addDocument(product.getId(), product.getName(), product.getDescription());
+    }
+
+    @Override
+    public void finishLoad() {
+        ready = true;
+        lock.writeLock().unlock();
+    }
+
+    @Override
+    public boolean isReady() {
+        return ready;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.getChangeType() == ProductChangeType.DELETED) {
+            remove(event.getProductId());
+        } else {
+            index(event.getCurrent());
+        }
+    }
+
+    public void index(ProductResponseDTO product) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(product.getId());
+            addDocument(product.getId(), product.getName(), product.getDescription());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns every product matching all tokens of the query, best match first.
+     * Each query token matches index terms it is a prefix of, scored by a
+     * field-weighted tf-idf. Ties are broken by id so the order is stable.
+     */
+    public List<SearchHit> search(String query) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = Math.max(documents.size(), 1);
+            Map<Long, Double> scores = null;
+
+            for (String token : queryTokens) {
+                Map<Long, Double> matched = scores;
+                Map<Long, Double> tokenScores = new HashMap<>();
+                int expansions = 0;
+                for (Map.Entry<String, Map<Long, Float>> term :
+                        postings.subMap(token, true, token + Character.MAX_VALUE, false).entrySet()) {
+                    if (expansions++ == MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    Map<Long, Float> termPostings = term.getValue();
+                    double idf = Math.log(1.0 + (double) documentCount / termPostings.size());
+                    //Exact term matches rank above prefix matches
+                    double boost = term.getKey().length() == token.length() ? 1.0 : 0.5;
+                    for (Map.Entry<Long, Float> posting : termPostings.entrySet()) {
+                        if (matched == null || matched.containsKey(posting.getKey())) {
+                            tokenScores.merge(posting.getKey(), posting.getValue() * idf * boost, Math::max);
+                        }
+                    }
+                }
+
+                if (matched != null) {
+                    tokenScores.replaceAll((id, score) -> score + matched.get(id));
+                }
+                scores = tokenScores;
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            List<SearchHit> hits = new ArrayList<>(scores.size());
+            scores.forEach((id, score) -> hits.add(new SearchHit(id, score)));
+            hits.sort(Comparator.comparingDouble(SearchHit::getScore).reversed()
+                    .thenComparing(SearchHit::getProductId));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    //Lower-cases and splits on anything that is not a letter or digit
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    //Callers must hold the write lock
+    private void addDocument(Long productId, String name, String description) {
+        Map<String, Float> terms = new HashMap<>();
+        for (String token : tokenize(name)) {
+            terms.merge(token, NAME_WEIGHT, Float::sum);
+        }
+        for (String token : tokenize(description)) {
+            terms.merge(token, DESCRIPTION_WEIGHT, Float::sum);
+        }
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> new HashMap<>()).put(productId, term.getValue());
+        }
+        documents.put(productId, terms);
+    }
+
+    //Callers must hold the write lock
+    private void removeDocument(Long productId) {
+        Map<String, Float> terms = documents.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Long, Float> termPostings = postings.get(term);
+            if (termPostings != null) {
+                termPostings.remove(productId);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.productcatalogapi.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+//A single ranked match returned by the search index
+@Getter
+@AllArgsConstructor
+public class SearchHit {
+
+    private final Long productId;
+    private final double score;
+}
@@ -0,0 +1,26 @@
+package com.example.productcatalogapi.service;
+
+import com.example.productcatalogapi.dto.ProductRequestDTO;
+import com.example.productcatalogapi.entity.Product;
+import lombok.Getter;
+import lombok.Setter;
+
+//A validated bulk request item on its way through a chunk write
+@Getter
+@Setter
+public class BulkItem {
+
+    private final int index;
+    private final ProductRequestDTO product;
+
+    //Set when the code already exists
+    private Product existing;
+
+    //Generated id after insert
+    private Long id;
+
+    public BulkItem(int index, ProductRequestDTO product) {
+        this.index = index;
+        this.product = product;
+    }
+}
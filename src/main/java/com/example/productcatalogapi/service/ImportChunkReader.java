@@ -0,0 +1,131 @@
+package com.example.productcatalogapi.service;
+
+import com.example.productcatalogapi.dto.ImportFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Cuts an import file into chunks of whole records, reading it sequentially from a byte offset.
+ * A record ends at a line break outside double quotes (CSV fields may span lines), line breaks are
+ * not part of the record and blank lines are skipped without counting as records. Each chunk carries
+ * the raw bytes of its records and the offset right after the last one, where an import resumes once
+ * the chunk is committed. Decoding and parsing are left to the caller, so they can run on other threads.
+ */
+final class ImportChunkReader implements Closeable {
+
+    //Valid records are well below this, a larger one means an unbalanced quote swallowed the rest of the file
+    static final int MAX_RECORD_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+    private final boolean quoted;
+    private final ByteBuffer buffer = ByteBuffer.allocate(256 * 1024).flip();
+    private long offset;
+    private long nextIndex;
+
+    ImportChunkReader(Path file, long offset, long firstIndex, ImportFormat format) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.quoted = format == ImportFormat.CSV;
+        this.offset = offset;
+        this.nextIndex = firstIndex;
+        channel.position(offset);
+        if (offset == 0) {
+            skipByteOrderMark();
+        }
+    }
+
+    //The next chunk of up to maxRecords records, null at the end of the file
+    Chunk next(int maxRecords) throws IOException {
+        byte[] data = new byte[8 * 1024];
+        int length = 0;
+        int[] ends = new int[maxRecords];
+        int count = 0;
+        int recordStart = 0;
+        boolean inQuotes = false;
+        boolean blank = true;
+
+        while (count < maxRecords) {
+            if (!buffer.hasRemaining() && !fill()) {
+                if (!blank) {
+                    ends[count++] = length;
+                }
+                break;
+            }
+            byte b = buffer.get();
+            offset++;
+            if (b == '\n' && !inQuotes) {
+                if (blank) {
+                    length = recordStart;
+                } else {
+                    if (data[length - 1] == '\r') {
+                        length--;
+                    }
+                    ends[count++] = length;
+                    recordStart = length;
+                    blank = true;
+                }
+                continue;
+            }
+            if (quoted && b == '"') {
+                inQuotes = !inQuotes;
+            }
+            if (b != ' ' && b != '\t' && b != '\r') {
+                blank = false;
+            }
+            if (length == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+            data[length++] = b;
+            if (length - recordStart > MAX_RECORD_BYTES) {
+                throw new IOException("Record " + (nextIndex + count) + " is longer than " + MAX_RECORD_BYTES +
+                        " bytes" + (inQuotes ? ", check it for an unbalanced quote" : ""));
+            }
+        }
+        if (count == 0) {
+            return null;
+        }
+        Chunk chunk = new Chunk(nextIndex, data, Arrays.copyOf(ends, count), offset);
+        nextIndex += count;
+        return chunk;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read = channel.read(buffer);
+        buffer.flip();
+        return read > 0;
+    }
+
+    private void skipByteOrderMark() throws IOException {
+        fill();
+        if (buffer.remaining() >= 3 && (buffer.get(0) & 0xFF) == 0xEF && (buffer.get(1) & 0xFF) == 0xBB
+                && (buffer.get(2) & 0xFF) == 0xBF) {
+            buffer.position(3);
+            offset = 3;
+        }
+    }
+
+    //Records firstIndex to firstIndex + size() - 1, record i is data[ends[i - 1], ends[i])
+    record Chunk(long firstIndex, byte[] data, int[] ends, long endOffset) {
+
+        int size() {
+            return ends.length;
+        }
+
+        String record(int i) {
+            int start = i == 0 ? 0 : ends[i - 1];
+            return new String(data, start, ends[i] - start, StandardCharsets.UTF_8);
+        }
+    }
+}
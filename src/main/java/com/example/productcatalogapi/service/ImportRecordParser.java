@@ -0,0 +1,175 @@
+package com.example.productcatalogapi.service;
+
+import com.example.productcatalogapi.dto.ProductRequestDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Turns one import record into a ProductRequestDTO. NDJSON records are read like bulk request items.
+ * CSV columns are matched to product fields by their header name, ignoring case, '_' and '-', so files
+ * from GET /products/export?format=csv import as they are; unknown columns such as id are skipped and
+ * empty cells keep the request defaults. Malformed records throw IllegalArgumentException with a message
+ * for the error report. Instances are immutable and shared by all parser threads.
+ */
+final class ImportRecordParser {
+
+    private static final String[] FIELDS = {"code", "name", "description", "price", "category", "stockquantity", "isactive"};
+    private static final String[] REQUIRED = {"code", "name", "price"};
+
+    private final ObjectReader jsonReader;
+    //Index into FIELDS for every CSV column, -1 for columns that are not imported
+    private final int[] columns;
+
+    private ImportRecordParser(ObjectReader jsonReader, int[] columns) {
+        this.jsonReader = jsonReader;
+        this.columns = columns;
+    }
+
+    static ImportRecordParser ndjson(ObjectMapper objectMapper) {
+        return new ImportRecordParser(objectMapper.readerFor(ProductRequestDTO.class), null);
+    }
+
+    static ImportRecordParser csv(String header) {
+        List<String> names = splitCsv(header);
+        int[] columns = new int[names.size()];
+        List<String> found = new ArrayList<>();
+        for (int i = 0; i < columns.length; i++) {
+            String name = names.get(i) == null ? "" : names.get(i).trim().toLowerCase(Locale.ROOT).replaceAll("[_-]", "");
+            columns[i] = List.of(FIELDS).indexOf(name);
+            if (columns[i] >= 0 && found.contains(name)) {
+                throw new IllegalArgumentException("CSV header has column '" + names.get(i) + "' twice");
+            }
+            found.add(name);
+        }
+        for (String required : REQUIRED) {
+            if (!found.contains(required)) {
+                throw new IllegalArgumentException("CSV header has no " + required + " column");
+            }
+        }
+        return new ImportRecordParser(null, columns);
+    }
+
+    ProductRequestDTO parse(String record) {
+        if (jsonReader != null) {
+            try {
+                return jsonReader.readValue(record);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalArgumentException("Invalid JSON: " + ex.getOriginalMessage());
+            }
+        }
+
+        List<String> values = splitCsv(record);
+        if (values.size() != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " fields but found " + values.size());
+        }
+        ProductRequestDTO product = new ProductRequestDTO();
+        String error = null;
+        for (int i = 0; i < columns.length; i++) {
+            String value = values.get(i);
+            if (columns[i] < 0 || value == null) {
+                continue;
+            }
+            try {
+                switch (FIELDS[columns[i]]) {
+                    case "code" -> product.setCode(value);
+                    case "name" -> product.setName(value);
+                    case "description" -> product.setDescription(value);
+                    case "price" -> product.setPrice(parseDecimal(value));
+                    case "category" -> product.setCategory(value);
+                    case "stockquantity" -> product.setStockQuantity(parseInteger(value));
+                    case "isactive" -> product.setIsActive(parseBoolean(value));
+                    default -> throw new IllegalStateException(FIELDS[columns[i]]);
+                }
+            } catch (IllegalArgumentException ex) {
+                error = error == null ? ex.getMessage() : error;
+            }
+        }
+        if (error != null) {
+            throw new InvalidRecordException(error, product.getCode());
+        }
+        return product;
+    }
+
+    //RFC 4180 fields, an empty unquoted field is null and a quoted one ""
+    static List<String> splitCsv(String record) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            char c = record.charAt(i);
+            if (inQuotes) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    inQuotes = false;
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.isEmpty() && !wasQuoted ? null : field.toString());
+                field.setLength(0);
+                wasQuoted = false;
+            } else {
+                field.append(c);
+            }
+        }
+        if (inQuotes) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.isEmpty() && !wasQuoted ? null : field.toString());
+        return fields;
+    }
+
+    private static BigDecimal parseDecimal(String value) {
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("price: '" + value + "' is not a number");
+        }
+    }
+
+    private static Integer parseInteger(String value) {
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("stockQuantity: '" + value + "' is not a whole number");
+        }
+    }
+
+    private static Boolean parseBoolean(String value) {
+        String trimmed = value.trim();
+        if (trimmed.equalsIgnoreCase("true")) {
+            return Boolean.TRUE;
+        }
+        if (trimmed.equalsIgnoreCase("false")) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException("isActive: '" + value + "' is not true or false");
+    }
+
+    //A record that could be split into fields, with the code it names so the error report can show it
+    static final class InvalidRecordException extends IllegalArgumentException {
+
+        private final String code;
+
+        InvalidRecordException(String message, String code) {
+            super(message);
+            this.code = code;
+        }
+
+        String getCode() {
+            return code;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.example.productcatalogapi.service;
+
+import com.example.productcatalogapi.dto.BulkItemResultDTO;
+import com.example.productcatalogapi.dto.BulkItemStatus;
+import com.example.productcatalogapi.dto.BulkMode;
+import com.example.productcatalogapi.dto.BulkResultDTO;
+import com.example.productcatalogapi.dto.ProductRequestDTO;
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.entity.Product;
+import com.example.productcatalogapi.event.ProductChangedEvent;
+import com.example.productcatalogapi.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk create/update/upsert of products for feed imports.
+ * Items are validated one by one, then written in chunks: one code lookup query per chunk,
+ * JDBC batched inserts and updates, and one transaction per chunk so a large feed never
+ * holds a single long transaction.
+ */
+@Service
+@Timed(value = "catalog.service", histogram = true)
+public class ProductBulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductBulkService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO products " +
+            "(code, name, description, price, category, stock_quantity, is_active, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL = "UPDATE products SET name = ?, description = ?, price = ?, " +
+            "category = ?, stock_quantity = ?, is_active = ?, updated_at = ? WHERE id = ?";
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public ProductBulkService(ProductRepository productRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              Validator validator,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${catalog.bulk.batch-size:500}") int batchSize) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    //Consumes the products as they arrive and commits every batchSize valid items
+    public BulkResultDTO writeProducts(Iterator<ProductRequestDTO> products, BulkMode mode, boolean failuresOnly) {
+        long start = System.currentTimeMillis();
+        BulkResultDTO result = new BulkResultDTO();
+        Set<String> seenCodes = new HashSet<>();
+        List<BulkItem> chunk = new ArrayList<>(batchSize);
+
+        int index = 0;
+        while (hasNext(products, result, index, failuresOnly)) {
+            ProductRequestDTO product;
+            try {
+                product = products.next();
+            } catch (RuntimeJsonMappingException ex) {
+                //The reader skips past the item that did not map, so the rest of the stream is still usable
+                record(result, malformed(index, ex), failuresOnly);
+                index++;
+                continue;
+            } catch (RuntimeException ex) {
+                if (!(ex.getCause() instanceof IOException)) {
+                    throw ex;
+                }
+                record(result, malformed(index, ex), failuresOnly);
+                break;
+            }
+            String error = validate(product);
+            if (error == null && !seenCodes.add(product.getCode())) {
+                error = "Duplicate code '" + product.getCode() + "' in request";
+            }
+            if (error != null) {
+                record(result, new BulkItemResultDTO(index, product.getCode(), BulkItemStatus.FAILED, null, error), failuresOnly);
+            } else {
+                chunk.add(new BulkItem(index, product));
+                if (chunk.size() == batchSize) {
+                    writeChunk(chunk, mode).forEach(item -> record(result, item, failuresOnly));
+                    chunk.clear();
+                }
+            }
+            index++;
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, mode).forEach(item -> record(result, item, failuresOnly));
+        }
+
+        result.getItems().sort(Comparator.comparingInt(BulkItemResultDTO::getIndex));
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        log.info("Bulk {} of {} products: {} created, {} updated, {} failed in {} ms", mode, result.getTotal(),
+                result.getCreated(), result.getUpdated(), result.getFailed(), result.getElapsedMillis());
+        return result;
+    }
+
+    //A body that stops parsing ends the stream: the chunks written so far stay committed and the
+    //item at which the body broke is reported as failed
+    private boolean hasNext(Iterator<ProductRequestDTO> products, BulkResultDTO result, int index, boolean failuresOnly) {
+        try {
+            return products.hasNext();
+        } catch (RuntimeException ex) {
+            if (!(ex instanceof RuntimeJsonMappingException) && !(ex.getCause() instanceof IOException)) {
+                throw ex;
+            }
+            record(result, malformed(index, ex), failuresOnly);
+            return false;
+        }
+    }
+
+    private static BulkItemResultDTO malformed(int index, RuntimeException ex) {
+        String message = ex.getCause() instanceof JsonProcessingException cause ? cause.getOriginalMessage() : ex.getMessage();
+        return new BulkItemResultDTO(index, null, BulkItemStatus.FAILED, null, "Malformed item: " + message);
+    }
+
+    //Writes one chunk in its own transaction, a failed chunk marks all of its items as failed
+    public List<BulkItemResultDTO> writeChunk(List<BulkItem> chunk, BulkMode mode) {
+        try {
+            return transactionTemplate.execute(status -> writeChunkInTransaction(chunk, mode));
+        } catch (DataAccessException ex) {
+            return failChunk(chunk, ex);
+        }
+    }
+
+    //Like writeChunk, and hands the results to afterWrite inside the chunk's transaction, so what it records
+    //commits or rolls back with the chunk. For a failed chunk it runs in a transaction of its own
+    public <T> T writeChunk(List<BulkItem> chunk, BulkMode mode, Function<List<BulkItemResultDTO>, T> afterWrite) {
+        try {
+            return transactionTemplate.execute(status -> afterWrite.apply(writeChunkInTransaction(chunk, mode)));
+        } catch (DataAccessException ex) {
+            List<BulkItemResultDTO> failures = failChunk(chunk, ex);
+            return transactionTemplate.execute(status -> afterWrite.apply(failures));
+        }
+    }
+
+    private List<BulkItemResultDTO> failChunk(List<BulkItem> chunk, DataAccessException ex) {
+        log.warn("Bulk chunk of {} products failed: {}", chunk.size(), ex.getMostSpecificCause().getMessage());
+        return chunk.stream()
+                .map(item -> new BulkItemResultDTO(item.getIndex(), item.getProduct().getCode(), BulkItemStatus.FAILED,
+                        null, "Batch write failed: " + ex.getMostSpecificCause().getMessage()))
+                .collect(Collectors.toList());
+    }
+
+    private List<BulkItemResultDTO> writeChunkInTransaction(List<BulkItem> chunk, BulkMode mode) {
+        if (chunk.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<String> codes = chunk.stream().map(item -> item.getProduct().getCode()).collect(Collectors.toSet());
+        Map<String, Product> existing = productRepository.findByCodeIn(codes).stream()
+                .collect(Collectors.toMap(Product::getCode, Function.identity()));
+
+        List<BulkItemResultDTO> results = new ArrayList<>(chunk.size());
+        List<BulkItem> inserts = new ArrayList<>();
+        List<BulkItem> updates = new ArrayList<>();
+        for (BulkItem item : chunk) {
+            Product current = existing.get(item.getProduct().getCode());
+            if (current != null && mode == BulkMode.CREATE) {
+                results.add(failure(item, "Product with code '" + item.getProduct().getCode() + "' already exists"));
+            } else if (current == null && mode == BulkMode.UPDATE) {
+                results.add(failure(item, "Product not found with code: " + item.getProduct().getCode()));
+            } else if (current == null) {
+                inserts.add(item);
+            } else {
+                item.setExisting(current);
+                updates.add(item);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        if (!inserts.isEmpty()) {
+            insert(inserts, now);
+            for (BulkItem item : inserts) {
+                ProductResponseDTO created = toResponseDTO(item.getId(), item.getProduct(), now, now);
+                eventPublisher.publishEvent(ProductChangedEvent.created(created));
+                results.add(new BulkItemResultDTO(item.getIndex(), item.getProduct().getCode(), BulkItemStatus.CREATED, item.getId(), null));
+            }
+        }
+        if (!updates.isEmpty()) {
+            update(updates, now);
+            for (BulkItem item : updates) {
+                Product previous = item.getExisting();
+                ProductResponseDTO before = toResponseDTO(previous.getId(), previous, previous.getCreatedAt(), previous.getUpdatedAt());
+                ProductResponseDTO after = toResponseDTO(previous.getId(), item.getProduct(), previous.getCreatedAt(), now);
+                eventPublisher.publishEvent(ProductChangedEvent.updated(before, after));
+                results.add(new BulkItemResultDTO(item.getIndex(), item.getProduct().getCode(), BulkItemStatus.UPDATED, previous.getId(), null));
+            }
+        }
+        return results;
+    }
+
+    private void insert(List<BulkItem> items, LocalDateTime now) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ProductRequestDTO product = items.get(i).getProduct();
+                        ps.setString(1, product.getCode());
+                        ps.setString(2, product.getName());
+                        ps.setString(3, product.getDescription());
+                        ps.setBigDecimal(4, product.getPrice());
+                        ps.setString(5, product.getCategory());
+                        ps.setObject(6, product.getStockQuantity());
+                        ps.setObject(7, product.getIsActive());
+                        ps.setTimestamp(8, timestamp);
+                        ps.setTimestamp(9, timestamp);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return items.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setId(generatedId(keys.get(i)));
+        }
+    }
+
+    private void update(List<BulkItem> items, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                BulkItem item = items.get(i);
+                ProductRequestDTO product = item.getProduct();
+                ps.setString(1, product.getName());
+                ps.setString(2, product.getDescription());
+                ps.setBigDecimal(3, product.getPrice());
+                ps.setString(4, product.getCategory());
+                ps.setObject(5, product.getStockQuantity());
+                ps.setObject(6, product.getIsActive());
+                ps.setTimestamp(7, timestamp);
+                ps.setLong(8, item.getExisting().getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return items.size();
+            }
+        });
+    }
+
+    //Drivers name the generated key column differently (ID, GENERATED_KEY, ...)
+    private static Long generatedId(Map<String, Object> key) {
+        Object value = key.size() == 1 ? key.values().iterator().next() : key.getOrDefault("ID", key.get("id"));
+        return ((Number) value).longValue();
+    }
+
+    //Same rules as @Valid on the single-product endpoints, null when the product is valid
+    String validate(ProductRequestDTO product) {
+        if (product == null) {
+            return "Product must not be null";
+        }
+        Set<ConstraintViolation<ProductRequestDTO>> violations = validator.validate(product);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    private static BulkItemResultDTO failure(BulkItem item, String error) {
+        return new BulkItemResultDTO(item.getIndex(), item.getProduct().getCode(), BulkItemStatus.FAILED, null, error);
+    }
+
+    private static void record(BulkResultDTO result, BulkItemResultDTO item, boolean failuresOnly) {
+        result.setTotal(result.getTotal() + 1);
+        switch (item.getStatus()) {
+            case CREATED -> result.setCreated(result.getCreated() + 1);
+            case UPDATED -> result.setUpdated(result.getUpdated() + 1);
+            case FAILED -> result.setFailed(result.getFailed() + 1);
+        }
+        if (!failuresOnly || item.getStatus() == BulkItemStatus.FAILED) {
+            result.getItems().add(item);
+        }
+    }
+
+    private static ProductResponseDTO toResponseDTO(Long id, ProductRequestDTO product,
+                                                    LocalDateTime createdAt, LocalDateTime updatedAt) {
+        return new ProductResponseDTO(id, product.getCode(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getCategory(), product.getStockQuantity(), product.getIsActive(),
+                createdAt, updatedAt);
+    }
+
+    private static ProductResponseDTO toResponseDTO(Long id, Product product,
+                                                    LocalDateTime createdAt, LocalDateTime updatedAt) {
+        return new ProductResponseDTO(id, product.getCode(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getCategory(), product.getStockQuantity(), product.getIsActive(),
+                createdAt, updatedAt);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.productcatalogapi.service;
+
+import com.example.productcatalogapi.dto.ExportFormat;
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.entity.Product;
+import com.example.productcatalogapi.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams the catalog, or a filtered subset of it, as NDJSON or CSV.
+ * Rows come from a forward-only cursor and are detached as soon as they are written,
+ * so heap use does not grow with the size of the catalog.
+ */
+@Service
+@Timed(value = "catalog.service", histogram = true)
+public class ProductExportService {
+
+    private static final String CSV_HEADER =
+            "id,code,name,description,price,category,stockQuantity,isActive,createdAt,updatedAt";
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public ProductExportService(ProductRepository productRepository,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    //Writes every matching product to the stream and returns how many were written
+    public long export(ExportFormat format, String category, Boolean isActive,
+                       BigDecimal minPrice, BigDecimal maxPrice, OutputStream out) {
+        Long count = readOnlyTransaction.execute(status -> {
+            try (Stream<Product> products = productRepository.streamProducts(category, isActive, minPrice, maxPrice)) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+                long written = format == ExportFormat.CSV
+                        ? writeCsv(products.iterator(), writer)
+                        : writeNdjson(products.iterator(), writer);
+                writer.flush();
+                return written;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return count == null ? 0 : count;
+    }
+
+    private long writeNdjson(Iterator<Product> products, Writer writer) throws IOException {
+        long written = 0;
+        ObjectWriter productWriter = objectMapper.writerFor(ProductResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (products.hasNext()) {
+                Product product = products.next();
+                productWriter.writeValue(generator, convertToResponseDTO(product));
+                generator.writeRaw('\n');
+                entityManager.detach(product);
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private long writeCsv(Iterator<Product> products, Writer writer) throws IOException {
+        long written = 0;
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (products.hasNext()) {
+            Product product = products.next();
+            writer.write(String.valueOf(product.getId()));
+            writer.write(',');
+            writeCsvField(writer, product.getCode());
+            writer.write(',');
+            writeCsvField(writer, product.getName());
+            writer.write(',');
+            writeCsvField(writer, product.getDescription());
+            writer.write(',');
+            writeCsvField(writer, product.getPrice() == null ? null : product.getPrice().toPlainString());
+            writer.write(',');
+            writeCsvField(writer, product.getCategory());
+            writer.write(',');
+            writeCsvField(writer, product.getStockQuantity() == null ? null : product.getStockQuantity().toString());
+            writer.write(',');
+            writeCsvField(writer, product.getIsActive() == null ? null : product.getIsActive().toString());
+            writer.write(',');
+            writeCsvField(writer, product.getCreatedAt() == null ? null : product.getCreatedAt().toString());
+            writer.write(',');
+            writeCsvField(writer, product.getUpdatedAt() == null ? null : product.getUpdatedAt().toString());
+            writer.write('\n');
+            entityManager.detach(product);
+            written++;
+        }
+        return written;
+    }
+
+    //Quotes a field only when it contains a separator, quote or line break
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    //Helper method to convert Product entity to ProductResponseDTO
+    private ProductResponseDTO convertToResponseDTO(Product product) {
+        return new ProductResponseDTO(
+                product.getId(),
+                product.getCode(),
+                product.getName(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getCategory(),
+                product.getStockQuantity(),
+                product.getIsActive(),
+                product.getCreatedAt(),
+                product.getUpdatedAt()
+        );
+    }
+}
@@ -0,0 +1,536 @@
+package com.example.productcatalogapi.service;
+
+import com.example.productcatalogapi.dto.BulkItemResultDTO;
+import com.example.productcatalogapi.dto.BulkItemStatus;
+import com.example.productcatalogapi.dto.BulkMode;
+import com.example.productcatalogapi.dto.ImportFormat;
+import com.example.productcatalogapi.dto.ImportStatus;
+import com.example.productcatalogapi.dto.ProductImportDTO;
+import com.example.productcatalogapi.dto.ProductRequestDTO;
+import com.example.productcatalogapi.entity.ProductImport;
+import com.example.productcatalogapi.exception.ImportNotFoundException;
+import com.example.productcatalogapi.exception.ImportStateException;
+import com.example.productcatalogapi.metrics.QueryCounter;
+import com.example.productcatalogapi.repository.ProductImportRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports supplier catalogs from CSV or NDJSON files of any size.
+ * An upload is stored in the import directory and processed in the background: one thread reads the file
+ * sequentially and cuts it into chunks of whole records, a bounded pool parses and validates the chunks in
+ * parallel, and the chunks are written in file order through {@link ProductBulkService}, one transaction and
+ * one code lookup each. The reader stays at most max-pending-chunks ahead of the writer, so a slow database
+ * holds back reading instead of filling the heap. Every chunk transaction also records the file offset after
+ * the chunk, the counters and the committed length of the error file, so a paused, failed or interrupted
+ * import resumes right after its last committed chunk. Imports run one at a time, later ones are queued.
+ * Only codes repeated within one chunk are reported as duplicates, keeping memory independent of the file
+ * size; a code repeated in a later chunk meets the committed product and is handled by the mode.
+ */
+@Service
+public class ProductImportService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private final ProductBulkService productBulkService;
+    private final ProductImportRepository importRepository;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int chunkSize;
+    private final int workers;
+    private final int maxPendingChunks;
+    private final Counter createdRows;
+    private final Counter updatedRows;
+    private final Counter failedRows;
+
+    //Queued and running imports of this instance
+    private final Map<Long, ImportRun> runs = new ConcurrentHashMap<>();
+
+    private volatile ExecutorService coordinator;
+    private volatile ExecutorService parsers;
+
+    public ProductImportService(ProductBulkService productBulkService,
+                                ProductImportRepository importRepository,
+                                ObjectMapper objectMapper,
+                                MeterRegistry meterRegistry,
+                                @Value("${catalog.import.dir:data/imports}") Path directory,
+                                @Value("${catalog.import.chunk-size:1000}") int chunkSize,
+                                @Value("${catalog.import.workers:4}") int workers,
+                                @Value("${catalog.import.max-pending-chunks:8}") int maxPendingChunks) {
+        this.productBulkService = productBulkService;
+        this.importRepository = importRepository;
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+        this.maxPendingChunks = Math.max(1, maxPendingChunks);
+        this.createdRows = meterRegistry.counter("catalog.import.rows", "outcome", "created");
+        this.updatedRows = meterRegistry.counter("catalog.import.rows", "outcome", "updated");
+        this.failedRows = meterRegistry.counter("catalog.import.rows", "outcome", "failed");
+    }
+
+    //Stores the file and queues its import
+    public ProductImportDTO startImport(ImportFormat format, BulkMode mode, InputStream content) throws IOException {
+        if (coordinator == null) {
+            throw new ImportStateException("Imports are not accepted while the service is stopped");
+        }
+        Files.createDirectories(directory);
+        Path upload = Files.createTempFile(directory, "upload-", ".tmp");
+        long size;
+        try {
+            size = Files.copy(content, upload, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            Files.deleteIfExists(upload);
+            throw ex;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        ProductImport productImport = importRepository.save(new ProductImport(null, format, mode, ImportStatus.QUEUED,
+                size, 0, 0, 0, 0, 0, 0, 0, null, now, now));
+        Files.move(upload, dataFile(productImport), StandardCopyOption.ATOMIC_MOVE);
+        log.info("Import {} queued: {} bytes of {} in {} mode", productImport.getId(), size, format, mode);
+        schedule(productImport.getId());
+        return toDTO(productImport);
+    }
+
+    public ProductImportDTO getImport(Long id) {
+        return toDTO(find(id));
+    }
+
+    public List<ProductImportDTO> getImports(int limit) {
+        return importRepository.findAllByOrderByIdDesc(Limit.of(limit)).stream().map(this::toDTO).toList();
+    }
+
+    //Stops a running import after its current chunk, a queued one right away
+    public synchronized ProductImportDTO pauseImport(Long id) {
+        ProductImport productImport = find(id);
+        ImportRun run = runs.get(id);
+        if (run == null) {
+            throw new ImportStateException("Import " + id + " is not queued or running");
+        }
+        run.pauseRequested = true;
+        //A running import records PAUSED itself once its current chunk has committed
+        if (run.started.compareAndSet(false, true)) {
+            run.future.cancel(false);
+            runs.remove(id, run);
+            ProductImport paused = finish(id, ImportStatus.PAUSED, null);
+            productImport = paused != null ? paused : productImport;
+        }
+        return toDTO(productImport);
+    }
+
+    //Queues a paused or failed import again, it continues after its last committed chunk
+    public synchronized ProductImportDTO resumeImport(Long id) {
+        ProductImport productImport = find(id);
+        if (runs.containsKey(id)) {
+            throw new ImportStateException("Import " + id + " is already queued or running");
+        }
+        if (productImport.getStatus() == ImportStatus.COMPLETED) {
+            throw new ImportStateException("Import " + id + " is already completed");
+        }
+        if (!Files.exists(dataFile(productImport))) {
+            throw new ImportStateException("The file of import " + id + " is no longer in " + directory);
+        }
+        importRepository.updateStatus(id, ImportStatus.QUEUED, null, LocalDateTime.now());
+        schedule(id);
+        return toDTO(find(id));
+    }
+
+    //Copies the committed part of the error report, one BulkItemResultDTO per line, and returns its length
+    public long writeErrors(Long id, OutputStream out) throws IOException {
+        ProductImport productImport = find(id);
+        Path file = errorFile(productImport);
+        if (productImport.getErrorsLength() == 0 || !Files.exists(file)) {
+            return 0;
+        }
+        long length = productImport.getErrorsLength();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = 0;
+            while (position < length) {
+                position += channel.transferTo(position, length - position, target);
+            }
+        }
+        out.flush();
+        return length;
+    }
+
+    private ProductImport find(Long id) {
+        return importRepository.findById(id)
+                .orElseThrow(() -> new ImportNotFoundException("Import not found with id: " + id));
+    }
+
+    private synchronized void schedule(Long id) {
+        ExecutorService executor = coordinator;
+        if (executor == null) {
+            throw new ImportStateException("Imports are not accepted while the service is stopped");
+        }
+        ImportRun run = new ImportRun(id);
+        runs.put(id, run);
+        run.future = executor.submit(QueryCounter.counted(() -> execute(run)));
+    }
+
+    private void execute(ImportRun run) {
+        //Lost to a pause of the queued run, which recorded PAUSED already
+        if (!run.started.compareAndSet(false, true)) {
+            return;
+        }
+        Deque<Future<ParsedChunk>> pending = new ArrayDeque<>();
+        try {
+            if (run.pauseRequested
+                    || importRepository.updateStatus(run.id, ImportStatus.RUNNING, null, LocalDateTime.now()) == 0) {
+                finish(run.id, ImportStatus.PAUSED, null);
+                return;
+            }
+            ProductImport productImport = find(run.id);
+            ImportProgress progress = new ImportProgress(productImport);
+            log.info("Import {} started at byte {} of {}, record {}", run.id, productImport.getCommittedOffset(),
+                    productImport.getFileSize(), productImport.getCommittedRows());
+
+            Path file = dataFile(productImport);
+            ImportRecordParser parser = ImportRecordParser.ndjson(objectMapper);
+            long offset = productImport.getCommittedOffset();
+            if (productImport.getFormat() == ImportFormat.CSV) {
+                try (ImportChunkReader headerReader = new ImportChunkReader(file, 0, 0, ImportFormat.CSV)) {
+                    ImportChunkReader.Chunk header = headerReader.next(1);
+                    if (header == null) {
+                        throw new IllegalArgumentException("The CSV file has no header row");
+                    }
+                    parser = ImportRecordParser.csv(header.record(0));
+                    offset = Math.max(offset, header.endOffset());
+                }
+            }
+
+            ImportRecordParser recordParser = parser;
+            try (FileChannel errors = openErrorFile(productImport);
+                 ImportChunkReader reader = new ImportChunkReader(file, offset, productImport.getCommittedRows(),
+                         productImport.getFormat())) {
+                boolean more = true;
+                while (!run.pauseRequested) {
+                    if (more && pending.size() < maxPendingChunks) {
+                        ImportChunkReader.Chunk chunk = reader.next(chunkSize);
+                        if (chunk != null) {
+                            pending.add(parsers.submit(() -> parse(chunk, recordParser)));
+                            continue;
+                        }
+                        more = false;
+                    }
+                    if (pending.isEmpty()) {
+                        break;
+                    }
+                    write(productImport.getMode(), pending.poll().get(), errors, progress);
+                }
+            }
+
+            if (run.pauseRequested) {
+                finish(run.id, ImportStatus.PAUSED, null);
+                log.info("Import {} paused after {} records", run.id, progress.committed.getCommittedRows());
+                return;
+            }
+            ProductImport completed = progress.committed;
+            finish(run.id, ImportStatus.COMPLETED, null);
+            Files.deleteIfExists(file);
+            log.info("Import {} completed: {} records, {} created, {} updated, {} failed in {} ms", run.id,
+                    completed.getCommittedRows(), completed.getCreated(), completed.getUpdated(), completed.getFailed(),
+                    completed.getElapsedMillis());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            finish(run.id, ImportStatus.PAUSED, "Interrupted");
+        } catch (ExecutionException ex) {
+            fail(run.id, ex.getCause());
+        } catch (IOException | RuntimeException ex) {
+            fail(run.id, ex);
+        } finally {
+            pending.forEach(future -> future.cancel(true));
+            runs.remove(run.id, run);
+        }
+    }
+
+    //Runs on the parser pool
+    private ParsedChunk parse(ImportChunkReader.Chunk chunk, ImportRecordParser parser) {
+        List<BulkItem> items = new ArrayList<>(chunk.size());
+        List<BulkItemResultDTO> errors = new ArrayList<>();
+        Set<String> codes = new HashSet<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            int index = Math.toIntExact(chunk.firstIndex() + i);
+            ProductRequestDTO product = null;
+            String code = null;
+            String error;
+            try {
+                product = parser.parse(chunk.record(i));
+                code = product == null ? null : product.getCode();
+                error = productBulkService.validate(product);
+            } catch (ImportRecordParser.InvalidRecordException ex) {
+                code = ex.getCode();
+                error = ex.getMessage();
+            } catch (IllegalArgumentException ex) {
+                error = ex.getMessage();
+            }
+            if (error == null && !codes.add(code)) {
+                error = "Duplicate code '" + code + "' earlier in the same chunk (records " + chunk.firstIndex()
+                        + "-" + (chunk.firstIndex() + chunk.size() - 1) + ")";
+            }
+            if (error != null) {
+                errors.add(new BulkItemResultDTO(index, code, BulkItemStatus.FAILED, null, error));
+            } else {
+                items.add(new BulkItem(index, product));
+            }
+        }
+        return new ParsedChunk(items, errors, chunk.firstIndex() + chunk.size(), chunk.endOffset());
+    }
+
+    //Writes the chunk and, in its transaction, the error lines and the new position of the import
+    private void write(BulkMode mode, ParsedChunk chunk, FileChannel errors, ImportProgress progress) {
+        int[] counts = new int[3];
+        ProductImport committed = productBulkService.writeChunk(chunk.items(), mode, results -> {
+            //A first attempt that rolled back may have appended lines already
+            truncate(errors, progress.committed.getErrorsLength());
+            List<BulkItemResultDTO> failures = new ArrayList<>(chunk.errors());
+            for (BulkItemResultDTO result : results) {
+                switch (result.getStatus()) {
+                    case CREATED -> counts[0]++;
+                    case UPDATED -> counts[1]++;
+                    case FAILED -> failures.add(result);
+                }
+            }
+            counts[2] = failures.size();
+            failures.sort(Comparator.comparingInt(BulkItemResultDTO::getIndex));
+            appendErrors(errors, failures);
+
+            LocalDateTime now = LocalDateTime.now();
+            ProductImport productImport = importRepository.findById(progress.committed.getId()).orElseThrow();
+            productImport.setCreated(productImport.getCreated() + counts[0]);
+            productImport.setUpdated(productImport.getUpdated() + counts[1]);
+            productImport.setFailed(productImport.getFailed() + counts[2]);
+            productImport.setCommittedOffset(chunk.endOffset());
+            productImport.setCommittedRows(chunk.nextIndex());
+            productImport.setErrorsLength(position(errors));
+            productImport.setElapsedMillis(progress.elapsedBefore + System.currentTimeMillis() - progress.started);
+            productImport.setUpdatedAt(now);
+            return productImport;
+        });
+        progress.committed = committed;
+        createdRows.increment(counts[0]);
+        updatedRows.increment(counts[1]);
+        failedRows.increment(counts[2]);
+    }
+
+    private void appendErrors(FileChannel errors, List<BulkItemResultDTO> failures) {
+        if (failures.isEmpty()) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream lines = new ByteArrayOutputStream(failures.size() * 128);
+            for (BulkItemResultDTO failure : failures) {
+                lines.write(objectMapper.writeValueAsBytes(failure));
+                lines.write('\n');
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+            while (buffer.hasRemaining()) {
+                errors.write(buffer);
+            }
+            //The committed length must not point past what survives a crash
+            errors.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    //Drops error lines of chunks that never committed
+    private FileChannel openErrorFile(ProductImport productImport) throws IOException {
+        FileChannel channel = FileChannel.open(errorFile(productImport), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(productImport.getErrorsLength());
+        channel.position(productImport.getErrorsLength());
+        return channel;
+    }
+
+    private static long position(FileChannel channel) {
+        try {
+            return channel.position();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void truncate(FileChannel channel, long length) {
+        try {
+            channel.truncate(length);
+            channel.position(length);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void fail(Long id, Throwable cause) {
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+        if (cause instanceof DataAccessException dataAccessException) {
+            message = dataAccessException.getMostSpecificCause().getMessage();
+        }
+        log.warn("Import {} failed, it can be resumed after its last committed chunk: {}", id, message);
+        finish(id, ImportStatus.FAILED, message);
+    }
+
+    private ProductImport finish(Long id, ImportStatus status, String error) {
+        try {
+            String message = error == null || error.length() <= 500 ? error : error.substring(0, 500);
+            if (importRepository.updateStatus(id, status, message, LocalDateTime.now()) == 0) {
+                return null;
+            }
+            return importRepository.findById(id).orElse(null);
+        } catch (DataAccessException ex) {
+            log.warn("Could not mark import {} as {}: {}", id, status, ex.getMessage());
+            return null;
+        }
+    }
+
+    private Path dataFile(ProductImport productImport) {
+        return directory.resolve(productImport.getId() + "." + productImport.getFormat().name().toLowerCase(Locale.ROOT));
+    }
+
+    private Path errorFile(ProductImport productImport) {
+        return directory.resolve(productImport.getId() + ".errors.ndjson");
+    }
+
+    private ProductImportDTO toDTO(ProductImport productImport) {
+        long bytes = productImport.getCommittedOffset();
+        long elapsed = productImport.getElapsedMillis();
+        double percent = productImport.getStatus() == ImportStatus.COMPLETED || productImport.getFileSize() == 0
+                ? 100 : bytes * 100.0 / productImport.getFileSize();
+        return new ProductImportDTO(productImport.getId(), productImport.getFormat(), productImport.getMode(),
+                productImport.getStatus(), productImport.getFileSize(), bytes, round(percent),
+                productImport.getCommittedRows(), productImport.getCreated(), productImport.getUpdated(),
+                productImport.getFailed(), elapsed,
+                elapsed == 0 ? 0 : round(productImport.getCommittedRows() * 1000.0 / elapsed),
+                elapsed == 0 ? 0 : round(bytes * 1000.0 / elapsed / (1024 * 1024)),
+                productImport.getError(), productImport.getCreatedAt(), productImport.getUpdatedAt());
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    //Imports of this instance that were queued or running when it stopped wait to be resumed
+    @Override
+    public void start() {
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger parserThreads = new AtomicInteger();
+        parsers = Executors.newFixedThreadPool(Math.max(1, workers), runnable -> {
+            Thread thread = new Thread(runnable, "product-import-parser-" + parserThreads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        coordinator = executor;
+        try {
+            for (ProductImport productImport : importRepository.findByStatusIn(List.of(ImportStatus.QUEUED, ImportStatus.RUNNING))) {
+                if (Files.exists(dataFile(productImport))) {
+                    finish(productImport.getId(), ImportStatus.PAUSED, "Interrupted by a restart");
+                    log.info("Import {} was interrupted at record {}, resume it with POST /api/v1/imports/{}/resume",
+                            productImport.getId(), productImport.getCommittedRows(), productImport.getId());
+                }
+            }
+        } catch (DataAccessException ex) {
+            log.warn("Could not check for interrupted imports: {}", ex.getMessage());
+        }
+    }
+
+    //Stops after the web server, running imports pause after their current chunk
+    @Override
+    public void stop() {
+        ExecutorService executor = coordinator;
+        if (executor == null) {
+            return;
+        }
+        coordinator = null;
+        runs.values().forEach(run -> run.pauseRequested = true);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        parsers.shutdownNow();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return coordinator != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private static final class ImportRun {
+
+        private final Long id;
+        //Claimed by the coordinator when the run starts, or by a pause that cancels it while queued
+        private final AtomicBoolean started = new AtomicBoolean();
+        private volatile boolean pauseRequested;
+        private volatile Future<?> future;
+
+        private ImportRun(Long id) {
+            this.id = id;
+        }
+    }
+
+    //State of the import as of its last commit, touched by the coordinator thread only
+    private static final class ImportProgress {
+
+        private final long elapsedBefore;
+        private final long started = System.currentTimeMillis();
+        private ProductImport committed;
+
+        private ImportProgress(ProductImport committed) {
+            this.elapsedBefore = committed.getElapsedMillis();
+            this.committed = committed;
+        }
+    }
+
+    private record ParsedChunk(List<BulkItem> items, List<BulkItemResultDTO> errors, long nextIndex, long endOffset) {
+    }
+}
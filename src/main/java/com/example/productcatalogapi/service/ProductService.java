@@ -1,29 +1,116 @@
 package com.example.productcatalogapi.service;
 
+import com.example.productcatalogapi.cache.ProductCache;
+import com.example.productcatalogapi.columnar.ColumnarCatalog;
+import com.example.productcatalogapi.dto.CategoryFacetDTO;
+import com.example.productcatalogapi.dto.CoalescingStatsDTO;
+import com.example.productcatalogapi.dto.CursorPageDTO;
+import com.example.productcatalogapi.dto.ProductFilterDTO;
+import com.example.productcatalogapi.dto.ProductLookupDTO;
 import com.example.productcatalogapi.dto.ProductRequestDTO;
 import com.example.productcatalogapi.dto.ProductResponseDTO;
 import com.example.productcatalogapi.entity.Product;
+import com.example.productcatalogapi.event.ProductChangedEvent;
+import com.example.productcatalogapi.exception.DuplicateProductException;
+import com.example.productcatalogapi.exception.InvalidCursorException;
+import com.example.productcatalogapi.exception.ProductNotFoundException;
+import com.example.productcatalogapi.index.CategoryFacetIndex;
+import com.example.productcatalogapi.index.ProductRangeIndex;
+import com.example.productcatalogapi.pagination.CursorCodec;
+import com.example.productcatalogapi.repository.ProductProjection;
 import com.example.productcatalogapi.repository.ProductRepository;
+import com.example.productcatalogapi.repository.ProductSpecifications;
+import com.example.productcatalogapi.search.ProductSearchIndex;
+import com.example.productcatalogapi.search.SearchHit;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.jaxb.SpringDataJaxb;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(value = "catalog.service", histogram = true)
 @Transactional
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final ProductSearchIndex searchIndex;
+    private final ProductCache productCache;
+    private final CategoryFacetIndex categoryFacetIndex;
+    private final ProductRangeIndex rangeIndex;
+    private final ColumnarCatalog columnarCatalog;
+    private final CursorCodec cursorCodec;
+    private final StockWriteBehindQueue stockWriteBehindQueue;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxSortedSearchHits;
+    private final boolean coalescing;
+    private final RequestCoalescer<Long, ProductResponseDTO> productsById;
+    private final RequestCoalescer<String, ProductResponseDTO> productsByCode;
+    private final RequestCoalescer<CategoryPage, Page<?>> categoryPages;
+    private final TransactionTemplate readOnlyTransaction;
 
     @Autowired
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository,
+                          ProductSearchIndex searchIndex,
+                          ProductCache productCache,
+                          CategoryFacetIndex categoryFacetIndex,
+                          ProductRangeIndex rangeIndex,
+                          ColumnarCatalog columnarCatalog,
+                          CursorCodec cursorCodec,
+                          StockWriteBehindQueue stockWriteBehindQueue,
+                          ApplicationEventPublisher eventPublisher,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${catalog.search.max-sorted-hits:2000}") int maxSortedSearchHits,
+                          @Value("${catalog.coalescing.enabled:true}") boolean coalescing,
+                          @Value("${catalog.coalescing.batch-window:1ms}") Duration batchWindow,
+                          @Value("${catalog.coalescing.max-batch:100}") int maxBatch) {
         this.productRepository = productRepository;
+        this.searchIndex = searchIndex;
+        this.productCache = productCache;
+        this.categoryFacetIndex = categoryFacetIndex;
+        this.rangeIndex = rangeIndex;
+        this.columnarCatalog = columnarCatalog;
+        this.cursorCodec = cursorCodec;
+        this.stockWriteBehindQueue = stockWriteBehindQueue;
+        this.eventPublisher = eventPublisher;
+        this.maxSortedSearchHits = maxSortedSearchHits;
+        this.coalescing = coalescing;
+        this.productsById = new RequestCoalescer<>("product-by-id", this::loadByIds, batchWindow, maxBatch, meterRegistry);
+        this.productsByCode = new RequestCoalescer<>("product-by-code", this::loadByCodes, batchWindow, maxBatch,
+                meterRegistry);
+        //Pages are not batched, only identical concurrent requests share one read
+        this.categoryPages = new RequestCoalescer<>("category-page",
+                pages -> pages.stream().collect(Collectors.toMap(Function.identity(), this::readCategoryPage)),
+                Duration.ZERO, 1, meterRegistry);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     //Create a new product
@@ -34,38 +121,128 @@ public class ProductService {
         }
             Product product = convertToEntity(requestDTO);
             Product savedProduct = productRepository.save(product);
-            return convertToResponseDTO(savedProduct);
+            ProductResponseDTO responseDTO = convertToResponseDTO(savedProduct);
+            eventPublisher.publishEvent(ProductChangedEvent.created(responseDTO));
+            return responseDTO;
     }
 
 
     //Get all products with pagination
+    //List reads select straight into the requested projection, no entity is loaded
     @Transactional(readOnly = true)
-    public Page<ProductResponseDTO> getAllProducts(Pageable pageable){
-        Page<Product> productPage = productRepository.findAll(pageable);
-        return productPage.map(this::convertToResponseDTO);
+    public <T> Page<T> getAllProducts(Pageable pageable, ProductProjection<T> projection){
+        Page<T> page = columnarCatalog.find(new ProductFilterDTO(), null, null, pageable, projection);
+        if (page != null) {
+            return page;
+        }
+        return productRepository.findAll(ProductSpecifications.all(), pageable, projection);
     }
 
 
     //Get product by ID
-    @Transactional(readOnly = true)
+    //Served from the columnar catalog or the product cache when possible, only a miss opens a transaction.
+    //Concurrent misses share their query, see RequestCoalescer.
+    //Stock includes deltas still waiting in the write-behind queue
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ProductResponseDTO getProductById(Long id){
-        Product product = productRepository.findById(id)
-                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: "+ id));
-        return convertToResponseDTO(product);
+        ProductResponseDTO cached = cached(id);
+        if (cached != null) {
+            return stockWriteBehindQueue.withPendingStock(cached);
+        }
+        ProductResponseDTO responseDTO = coalescing ? productsById.get(id) : loadByIds(Set.of(id)).get(id);
+        if (responseDTO == null) {
+            throw new ProductNotFoundException("Product not found with id: "+ id);
+        }
+        return stockWriteBehindQueue.withPendingStock(responseDTO);
     }
 
 
     //Get product by code
-    @Transactional(readOnly = true)
+    //Served from the columnar catalog or the product cache when possible, only a miss opens a transaction.
+    //Concurrent misses share their query, see RequestCoalescer.
+    //Stock includes deltas still waiting in the write-behind queue
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ProductResponseDTO getProductByCode(String code) {
-        Product product = productRepository.findByCode(code)
+        ProductResponseDTO cached = cachedByCode(code);
+        if (cached != null) {
+            return stockWriteBehindQueue.withPendingStock(cached);
+        }
+        ProductResponseDTO responseDTO = coalescing ? productsByCode.get(code) : loadByCodes(Set.of(code)).get(code);
+        if (responseDTO == null) {
+            throw new ProductNotFoundException("Product not found with code: " + code);
+        }
+        return stockWriteBehindQueue.withPendingStock(responseDTO);
+    }
+
+
+    //Batch lookups: cache hits first, then one IN query for the misses.
+    //Results follow the request order, unknown keys come back as not found
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<ProductLookupDTO> getProductsByIds(List<Long> ids) {
+        Map<Long, ProductResponseDTO> found = new HashMap<>();
+        Set<Long> misses = new HashSet<>();
+        for (Long id : ids) {
+            ProductResponseDTO cached = cached(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            found.putAll(loadByIds(misses));
+        }
+        return ids.stream()
+                .map(id -> toLookup(String.valueOf(id), found.get(id)))
+                .collect(Collectors.toList());
+    }
+
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<ProductLookupDTO> getProductsByCodes(List<String> codes) {
+        Map<String, ProductResponseDTO> found = new HashMap<>();
+        Set<String> misses = new HashSet<>();
+        for (String code : codes) {
+            ProductResponseDTO cached = cachedByCode(code);
+            if (cached != null) {
+                found.put(code, cached);
+            } else {
+                misses.add(code);
+            }
+        }
+        if (!misses.isEmpty()) {
+            found.putAll(loadByCodes(misses));
+        }
+        return codes.stream()
+                .map(code -> toLookup(code, found.get(code)))
+                .collect(Collectors.toList());
+    }
+
+
+    //Get the last modification time of a product without loading it
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public LocalDateTime getProductLastModified(Long id) {
+        ProductResponseDTO cached = cached(id);
+        if (cached != null) {
+            return cached.getUpdatedAt();
+        }
+        return productRepository.findUpdatedAtById(id)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
+    }
+
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public LocalDateTime getProductLastModifiedByCode(String code) {
+        ProductResponseDTO cached = cachedByCode(code);
+        if (cached != null) {
+            return cached.getUpdatedAt();
+        }
+        return productRepository.findUpdatedAtByCode(code)
                 .orElseThrow(() -> new ProductNotFoundException("Product not found with code: " + code));
-        return convertToResponseDTO(product);
     }
 
 
     //Update product
-    @Transactional(readOnly = true)
     public ProductResponseDTO updateProduct(Long id, ProductRequestDTO requestDTO){
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(()-> new ProductNotFoundException("Product not found with id: " + id));
@@ -77,9 +254,12 @@ public class ProductService {
                         requestDTO.getCode() +"' already exists");
         }
 
+        ProductResponseDTO previous = convertToResponseDTO(existingProduct);
         updateProductFromDTO(existingProduct, requestDTO);
-        Product updateProduct = productRepository.save(existingProduct);
-        return convertToResponseDTO(updateProduct);
+        Product updateProduct = productRepository.saveAndFlush(existingProduct);
+        ProductResponseDTO responseDTO = convertToResponseDTO(updateProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(previous, responseDTO));
+        return responseDTO;
     }
 
 
@@ -87,60 +267,341 @@ public class ProductService {
     public void deleteProduct(Long id){
         Product product = productRepository.findById(id)
                 .orElseThrow(()-> new ProductNotFoundException("Product not found with id: " + id));
+        ProductResponseDTO previous = convertToResponseDTO(product);
         productRepository.delete(product);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(previous));
     }
 
 
     //Search product by name or description
+    //Unsorted pages are ranked by relevance, sorted pages are ordered by the database among the matches
     @Transactional(readOnly = true)
-    public Page<ProductResponseDTO> searchProducts(String searchTerm, Pageable pageable){
-        Page<Product> productPage = productRepository.searchByNameOrDescription(searchTerm, pageable);
-        return productPage.map(this::convertToResponseDTO);
+    public <T> Page<T> searchProducts(String searchTerm, Pageable pageable, ProductProjection<T> projection){
+        List<SearchHit> hits = searchIndex.isReady() ? searchIndex.search(searchTerm) : null;
+        if (hits == null || (pageable.getSort().isSorted() && hits.size() > maxSortedSearchHits)) {
+            ProductFilterDTO filter = new ProductFilterDTO();
+            filter.setQ(searchTerm);
+            return findMatching(filter, null, null, pageable, projection);
+        }
+
+        if (pageable.getSort().isSorted()) {
+            ProductFilterDTO filter = new ProductFilterDTO();
+            filter.setQ(searchTerm);
+            List<Long> ids = hits.stream().map(SearchHit::getProductId).collect(Collectors.toList());
+            return findMatching(filter, null, ids, pageable, projection);
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + pageable.getPageSize(), hits.size());
+        return new PageImpl<>(loadHits(hits.subList(from, to), projection), pageable, hits.size());
     }
 
-    //Get products by category
+    //Filtered listing: any combination of criteria in one query.
+    //The search term and the category are resolved through the in-memory indexes first, so the
+    //query compares ids and exact category values instead of running LIKE or UPPER() over the table
     @Transactional(readOnly = true)
-    public Page<ProductResponseDTO> getProductsByCategory(String category, Pageable pageable){
-        productRepository.findByCategoryIgnoreCase(category, pageable);
-        return productPage.map(this::convertToResponseDTO);
+    public <T> Page<T> filterProducts(ProductFilterDTO filter, Pageable pageable, ProductProjection<T> projection) {
+        List<String> categories = null;
+        if (filter.getCategory() != null && categoryFacetIndex.isReady()) {
+            categories = categoryFacetIndex.getCategories().stream()
+                    .filter(category -> category.equalsIgnoreCase(filter.getCategory()))
+                    .collect(Collectors.toList());
+            if (categories.isEmpty()) {
+                return Page.empty(pageable);
+            }
+        }
+        List<Long> ids = null;
+        if (filter.getQ() != null && searchIndex.isReady()) {
+            List<SearchHit> hits = searchIndex.search(filter.getQ());
+            if (hits.isEmpty()) {
+                return Page.empty(pageable);
+            }
+            if (hits.size() <= maxSortedSearchHits) {
+                ids = hits.stream().map(SearchHit::getProductId).collect(Collectors.toList());
+            }
+        }
+        return findMatching(filter, categories, ids, pageable, projection);
+    }
+
+
+    //Get products by category
+    //Identical concurrent requests share one read, which runs in its own read-only transaction
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @SuppressWarnings("unchecked")
+    public <T> Page<T> getProductsByCategory(String category, Pageable pageable, ProductProjection<T> projection){
+        CategoryPage request = new CategoryPage(category, pageable, projection);
+        return (Page<T>) (coalescing ? categoryPages.get(request) : readCategoryPage(request));
     }
 
 
     //Get products by price range
+    //Pages ordered by price are resolved by the range index, other sorts go to the database
     @Transactional(readOnly = true)
-    public  Page<ProductResponseDTO> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable){
-        Page<Product> productPage = productRepository.findByPriceBetween(minPrice, maxPrice, pageable);
-        return productPage.map(this::convertToResponseDTO);
+    public <T> Page<T> getProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice, Pageable pageable,
+                                               ProductProjection<T> projection){
+        Sort.Order priceOrder = pageable.getSort().getOrderFor("price");
+        if (rangeIndex.isReady() && priceOrder != null && pageable.getSort().stream().count() == 1) {
+            ProductRangeIndex.RangePage range = rangeIndex.findByPriceBetween(minPrice, maxPrice,
+                    pageable.getOffset(), pageable.getPageSize(), priceOrder.isDescending());
+            return new PageImpl<>(loadInOrder(range.getIds(), projection), pageable, range.getTotal());
+        }
+        ProductFilterDTO filter = new ProductFilterDTO();
+        filter.setMinPrice(minPrice);
+        filter.setMaxPrice(maxPrice);
+        return findMatching(filter, null, null, pageable, projection);
     }
 
 
     //Get active products
     @Transactional(readOnly = true)
-    public  Page<ProductResponseDTO> getActiveProducts(Pageable pageable){
-        Page<Product> productPage = productRepository.findByIsActiveTrue(pageable);
-        return productPage.map(this::convertToResponseDTO);
+    public <T> Page<T> getActiveProducts(Pageable pageable, ProductProjection<T> projection){
+        ProductFilterDTO filter = new ProductFilterDTO();
+        filter.setIsActive(true);
+        return findMatching(filter, null, null, pageable, projection);
     }
 
 
     //Get all categories
-    @Transactional(readOnly = true)
+    //Served from the facet index once it is loaded
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<String> getAllCategories(){
+        if (categoryFacetIndex.isReady()) {
+            return categoryFacetIndex.getCategories();
+        }
         return productRepository.findAllCategories();
     }
 
 
-    //Get low stock products
+    //Get per-category total and active product counts
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<CategoryFacetDTO> getCategoryFacets(){
+        if (categoryFacetIndex.isReady()) {
+            return categoryFacetIndex.getFacets();
+        }
+        return productRepository.findAllCategories().stream()
+                .map(category -> new CategoryFacetDTO(category,
+                        productRepository.countByCategory(category),
+                        productRepository.countByCategoryAndIsActiveTrue(category)))
+                .collect(Collectors.toList());
+    }
+
+
+    //Get low stock products, lowest stock first
+    @Transactional(readOnly = true)
+    public <T> Page<T> getLowStockProducts(Integer threshold, Pageable pageable, ProductProjection<T> projection){
+        if (rangeIndex.isReady()) {
+            ProductRangeIndex.RangePage range = rangeIndex.findLowStock(threshold,
+                    pageable.getOffset(), pageable.getPageSize());
+            return new PageImpl<>(loadInOrder(range.getIds(), projection), pageable, range.getTotal());
+        }
+        ProductFilterDTO filter = new ProductFilterDTO();
+        filter.setIsActive(true);
+        filter.setMaxStock(threshold);
+        Pageable lowestFirst = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), Sort.by("stockQuantity", "id"));
+        return findMatching(filter, null, null, lowestFirst, projection);
+    }
+
+
+    //Keyset-paginated listings: cost per window does not depend on how deep the client has scrolled.
+    //Windows are still read as entities, Spring Data takes the next position from the last one
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductResponseDTO> scrollAllProducts(Sort sort, int size, String cursor){
+        ScrollPosition position = cursorCodec.decode(cursor, cursorCodec.validateSort(sort));
+        return toCursorPage(productRepository.findAllBy(position, sort, Limit.of(size)), sort);
+    }
+
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductResponseDTO> scrollProductsByCategory(String category, Sort sort, int size, String cursor){
+        ScrollPosition position = cursorCodec.decode(cursor, cursorCodec.validateSort(sort));
+        return toCursorPage(productRepository.findByCategoryIgnoreCase(category, position, sort, Limit.of(size)), sort);
+    }
+
+
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductResponseDTO> scrollProductsByPriceRange(BigDecimal minPrice, BigDecimal maxPrice,
+                                                                        Sort sort, int size, String cursor){
+        ScrollPosition position = cursorCodec.decode(cursor, cursorCodec.validateSort(sort));
+        return toCursorPage(productRepository.findByPriceBetween(minPrice, maxPrice, position, sort, Limit.of(size)), sort);
+    }
+
+
     @Transactional(readOnly = true)
-    public List<ProductResponseDTO> getLowStockProducts(Integer threshold){
-        List<Product> products = productRepository.findLowStockProducts(threshold);
-        return products.stream()
+    public CursorPageDTO<ProductResponseDTO> scrollActiveProducts(Sort sort, int size, String cursor){
+        ScrollPosition position = cursorCodec.decode(cursor, cursorCodec.validateSort(sort));
+        return toCursorPage(productRepository.findByIsActiveTrue(position, sort, Limit.of(size)), sort);
+    }
+
+
+    //Unsorted search windows follow relevance order, the cursor then carries the last score and id
+    @Transactional(readOnly = true)
+    public CursorPageDTO<ProductResponseDTO> scrollSearchProducts(String searchTerm, Sort sort, int size, String cursor){
+        List<SearchHit> hits = searchIndex.isReady() ? searchIndex.search(searchTerm) : null;
+
+        if (hits != null && sort.isUnsorted()) {
+            Map<String, Object> after = cursorCodec.decodeKeys(cursor, sort);
+            int from = 0;
+            if (after != null) {
+                if (!(after.get("score") instanceof Double)) {
+                    throw new InvalidCursorException("Cursor was not issued for a relevance ordered search");
+                }
+                double lastScore = (Double) after.get("score");
+                long lastId = (Long) after.get("id");
+                while (from < hits.size() && (hits.get(from).getScore() > lastScore ||
+                        (hits.get(from).getScore() == lastScore && hits.get(from).getProductId() <= lastId))) {
+                    from++;
+                }
+            }
+            int to = Math.min(from + size, hits.size());
+            List<SearchHit> window = hits.subList(from, to);
+            String nextCursor = null;
+            if (to < hits.size() && !window.isEmpty()) {
+                SearchHit last = window.get(window.size() - 1);
+                nextCursor = cursorCodec.encode(Map.of("score", last.getScore(), "id", last.getProductId()), sort);
+            }
+            return new CursorPageDTO<>(loadHits(window, ProductProjection.DETAIL), window.size(), nextCursor != null, nextCursor);
+        }
+
+        Sort seekSort = sort.isSorted() ? cursorCodec.validateSort(sort) : Sort.by("id");
+        ScrollPosition position = cursorCodec.decode(cursor, seekSort);
+        Window<Product> window = hits != null && hits.size() <= maxSortedSearchHits
+                ? productRepository.findByIdIn(hits.stream().map(SearchHit::getProductId).collect(Collectors.toList()),
+                        position, seekSort, Limit.of(size))
+                : productRepository.findByNameContainingIgnoreCase(searchTerm, position, seekSort, Limit.of(size));
+        return toCursorPage(window, seekSort);
+    }
+
+
+    //Helper method to read a filtered page from the columnar catalog when it can order it, else from the database
+    private <T> Page<T> findMatching(ProductFilterDTO filter, List<String> categories, List<Long> ids,
+                                     Pageable pageable, ProductProjection<T> projection) {
+        Page<T> page = columnarCatalog.find(filter, categories, ids, pageable, projection);
+        if (page != null) {
+            return page;
+        }
+        return productRepository.findAll(ProductSpecifications.matching(filter, categories, ids), pageable, projection);
+    }
+
+
+    //Lookups that are already running must not be joined by reads that follow a committed change
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void onProductChanged(ProductChangedEvent event) {
+        productsById.forget(event.getProductId());
+        if (event.getPrevious() != null) {
+            productsByCode.forget(event.getPrevious().getCode());
+        }
+        if (event.getCurrent() != null) {
+            productsByCode.forget(event.getCurrent().getCode());
+        }
+        categoryPages.forgetAll();
+    }
+
+
+    //Queries saved by request coalescing, per lookup
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<CoalescingStatsDTO> getCoalescingStats() {
+        return List.of(productsById.getStats(), productsByCode.getStats(), categoryPages.getStats());
+    }
+
+
+    //Helper method to read products by id into the product cache, one IN query
+    private Map<Long, ProductResponseDTO> loadByIds(Set<Long> ids) {
+        long stamp = productCache.stamp();
+        Map<Long, ProductResponseDTO> found = new HashMap<>();
+        for (ProductResponseDTO responseDTO : productRepository.findAll(ProductSpecifications.idIn(ids),
+                ProductProjection.DETAIL)) {
+            productCache.put(responseDTO, stamp);
+            found.put(responseDTO.getId(), responseDTO);
+        }
+        return found;
+    }
+
+
+    private Map<String, ProductResponseDTO> loadByCodes(Set<String> codes) {
+        long stamp = productCache.stamp();
+        Map<String, ProductResponseDTO> found = new HashMap<>();
+        for (ProductResponseDTO responseDTO : productRepository.findAll(ProductSpecifications.codeIn(codes),
+                ProductProjection.DETAIL)) {
+            productCache.put(responseDTO, stamp);
+            found.put(responseDTO.getCode(), responseDTO);
+        }
+        return found;
+    }
+
+
+    private Page<?> readCategoryPage(CategoryPage request) {
+        ProductFilterDTO filter = new ProductFilterDTO();
+        filter.setCategory(request.category());
+        return readOnlyTransaction.execute(status -> filterProducts(filter, request.pageable(), request.projection()));
+    }
+
+
+    //Helper method to look a product up in the columnar catalog, then in the product cache
+    private ProductResponseDTO cached(Long id) {
+        ProductResponseDTO product = columnarCatalog.get(id);
+        return product != null ? product : productCache.get(id);
+    }
+
+
+    private ProductResponseDTO cachedByCode(String code) {
+        ProductResponseDTO product = columnarCatalog.getByCode(code);
+        return product != null ? product : productCache.getByCode(code);
+    }
+
+
+    //Helper method to load search hits in rank order
+    private <T> List<T> loadHits(List<SearchHit> hits, ProductProjection<T> projection) {
+        return loadInOrder(hits.stream()
+                .map(SearchHit::getProductId)
+                .collect(Collectors.toList()), projection);
+    }
+
+
+    //Helper method to load products by id, keeping the order of the ids
+    private <T> List<T> loadInOrder(List<Long> ids, ProductProjection<T> projection) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<T> columnar = columnarCatalog.getAll(ids, projection);
+        if (columnar != null) {
+            return columnar;
+        }
+        Map<Long, T> productsById = productRepository.findAll(ProductSpecifications.idIn(ids), projection).stream()
+                .collect(Collectors.toMap(projection::idOf, Function.identity()));
+        return ids.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+
+    //Helper method to convert a keyset window to a cursor page
+    private CursorPageDTO<ProductResponseDTO> toCursorPage(Window<Product> window, Sort sort) {
+        List<ProductResponseDTO> content = window.stream()
                 .map(this::convertToResponseDTO)
                 .collect(Collectors.toList());
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? cursorCodec.encode(window.positionAt(window.size() - 1), sort)
+                : null;
+        return new CursorPageDTO<>(content, content.size(), nextCursor != null, nextCursor);
+    }
+
+
+    //Key of a coalesced category page read
+    private record CategoryPage(String category, Pageable pageable, ProductProjection<?> projection) {
+    }
+
+
+    private ProductLookupDTO toLookup(String key, ProductResponseDTO product) {
+        return product == null
+                ? new ProductLookupDTO(key, false, null)
+                : new ProductLookupDTO(key, true, stockWriteBehindQueue.withPendingStock(product));
     }
 
 
-    //Helper method to convert ProductResponseDTO to Product entity
-    private Product convertToEntity(ProductResponseDTO requestDTO){
+    //Helper method to convert ProductRequestDTO to Product entity
+    private Product convertToEntity(ProductRequestDTO requestDTO){
         Product product = new Product();
         product.setCode(requestDTO.getCode());
         product.setName(requestDTO.getName());
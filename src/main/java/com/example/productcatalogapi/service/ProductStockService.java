@@ -0,0 +1,171 @@
+package com.example.productcatalogapi.service;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.dto.StockAdjustmentDTO;
+import com.example.productcatalogapi.dto.StockAdjustmentResultDTO;
+import com.example.productcatalogapi.dto.StockAdjustmentStatus;
+import com.example.productcatalogapi.dto.StockItemResultDTO;
+import com.example.productcatalogapi.entity.Product;
+import com.example.productcatalogapi.event.ProductChangedEvent;
+import com.example.productcatalogapi.exception.InsufficientStockException;
+import com.example.productcatalogapi.exception.ProductNotFoundException;
+import com.example.productcatalogapi.repository.ProductRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Atomic stock adjustments for order flows.
+ * Each adjustment is a single conditional UPDATE that applies the delta in the database and refuses to take
+ * stock below zero, so concurrent reservations never lose writes and never rewrite the rest of the row.
+ */
+@Service
+@Timed(value = "catalog.service", histogram = true)
+public class ProductStockService {
+
+    private static final String ADJUST_SQL = "UPDATE products SET stock_quantity = stock_quantity + ?, updated_at = ? " +
+            "WHERE code = ? AND stock_quantity + ? >= 0";
+
+    private static final String CLAMPED_ADJUST_SQL = "UPDATE products SET stock_quantity = GREATEST(stock_quantity + ?, 0), " +
+            "updated_at = ? WHERE code = ?";
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductStockService(ProductRepository productRepository,
+                               JdbcTemplate jdbcTemplate,
+                               PlatformTransactionManager transactionManager,
+                               ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+    }
+
+    //Adjust the stock of one product
+    @Transactional
+    public ProductResponseDTO adjustStock(Long id, int delta) {
+        int updated = productRepository.adjustStock(id, delta, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with id: " + id));
+        if (updated == 0) {
+            throw new InsufficientStockException("Insufficient stock for product " + product.getCode() + ": "
+                    + product.getStockQuantity() + " available, " + -delta + " requested");
+        }
+        ProductResponseDTO current = toResponseDTO(product);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(previousOf(current, delta), current));
+        return current;
+    }
+
+    //Adjust many products in one transaction and one JDBC batch.
+    //When atomic, any failed item rolls the whole request back, otherwise the successful items are kept
+    public StockAdjustmentResultDTO adjustStock(List<StockAdjustmentDTO> adjustments, boolean atomic) {
+        return adjust(adjustments, atomic, false);
+    }
+
+    //Apply deltas that have already happened elsewhere (feeds, write-behind flushes).
+    //Nothing is refused for lack of stock, a decrement larger than the stock leaves it at zero
+    public StockAdjustmentResultDTO applyDeltas(List<StockAdjustmentDTO> adjustments) {
+        return adjust(adjustments, false, true);
+    }
+
+    private StockAdjustmentResultDTO adjust(List<StockAdjustmentDTO> adjustments, boolean atomic, boolean clamped) {
+        //Merged per code and sorted, so concurrent requests lock rows in the same order and cannot deadlock
+        Map<String, Integer> deltas = new TreeMap<>();
+        for (StockAdjustmentDTO adjustment : adjustments) {
+            deltas.merge(adjustment.getCode(), adjustment.getDelta(), Integer::sum);
+        }
+        List<String> codes = new ArrayList<>(deltas.keySet());
+        return transactionTemplate.execute(status -> {
+            int[] counts = update(codes, deltas, clamped, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS));
+            Map<String, Product> products = productRepository.findByCodeIn(codes).stream()
+                    .collect(Collectors.toMap(Product::getCode, Function.identity()));
+
+            List<StockItemResultDTO> items = new ArrayList<>(codes.size());
+            int failed = 0;
+            for (int i = 0; i < codes.size(); i++) {
+                String code = codes.get(i);
+                Product product = products.get(code);
+                StockAdjustmentStatus itemStatus = product == null ? StockAdjustmentStatus.NOT_FOUND
+                        : counts[i] == 0 ? StockAdjustmentStatus.INSUFFICIENT_STOCK : StockAdjustmentStatus.ADJUSTED;
+                if (itemStatus != StockAdjustmentStatus.ADJUSTED) {
+                    failed++;
+                }
+                items.add(new StockItemResultDTO(code, deltas.get(code), itemStatus,
+                        product == null ? null : product.getStockQuantity()));
+            }
+
+            if (atomic && failed > 0) {
+                status.setRollbackOnly();
+                for (StockItemResultDTO item : items) {
+                    if (item.getStatus() == StockAdjustmentStatus.ADJUSTED) {
+                        item.setStatus(StockAdjustmentStatus.ROLLED_BACK);
+                        item.setStockQuantity(item.getStockQuantity() - item.getDelta());
+                    }
+                }
+                return new StockAdjustmentResultDTO(false, 0, failed, items);
+            }
+
+            for (StockItemResultDTO item : items) {
+                if (item.getStatus() == StockAdjustmentStatus.ADJUSTED) {
+                    ProductResponseDTO current = toResponseDTO(products.get(item.getCode()));
+                    eventPublisher.publishEvent(ProductChangedEvent.updated(previousOf(current, item.getDelta()), current));
+                }
+            }
+            return new StockAdjustmentResultDTO(true, items.size() - failed, failed, items);
+        });
+    }
+
+    private int[] update(List<String> codes, Map<String, Integer> deltas, boolean clamped, LocalDateTime now) {
+        Timestamp timestamp = Timestamp.valueOf(now);
+        return jdbcTemplate.batchUpdate(clamped ? CLAMPED_ADJUST_SQL : ADJUST_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                int delta = deltas.get(codes.get(i));
+                ps.setInt(1, delta);
+                ps.setTimestamp(2, timestamp);
+                ps.setString(3, codes.get(i));
+                if (!clamped) {
+                    ps.setInt(4, delta);
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return codes.size();
+            }
+        });
+    }
+
+    //Only the stock is known to have changed, listeners key on the id and the current snapshot
+    private static ProductResponseDTO previousOf(ProductResponseDTO current, int delta) {
+        return new ProductResponseDTO(current.getId(), current.getCode(), current.getName(), current.getDescription(),
+                current.getPrice(), current.getCategory(), current.getStockQuantity() - delta, current.getIsActive(),
+                current.getCreatedAt(), null);
+    }
+
+    private static ProductResponseDTO toResponseDTO(Product product) {
+        return new ProductResponseDTO(product.getId(), product.getCode(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getCategory(), product.getStockQuantity(), product.getIsActive(),
+                product.getCreatedAt(), product.getUpdatedAt());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.productcatalogapi.service;
+
+import com.example.productcatalogapi.dto.CoalescingStatsDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Single-flight reads: callers asking for a key that is already being loaded wait for that load instead of
+ * running their own query. With a batch window, a miss that arrives while other loads are running waits
+ * that long for more keys and loads all of them with one call of the batch loader (an IN query), running
+ * it on its own thread; a batch that fills up to max-batch starts early. A miss while nothing else is loading
+ * is loaded at once, so the window only costs latency when there is concurrent traffic to batch with.
+ * Failures reach every caller of the batch.
+ * Keys the loader leaves out of its result come back as null.
+ */
+class RequestCoalescer<K, V> {
+
+    private final String name;
+    private final Function<Set<K>, Map<K, V>> batchLoader;
+    private final long windowNanos;
+    private final int maxBatch;
+    private final Counter calls;
+    private final Counter queries;
+
+    //Keys of open and running batches
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    private Batch<K, V> open;
+
+    RequestCoalescer(String name, Function<Set<K>, Map<K, V>> batchLoader, Duration window, int maxBatch,
+                     MeterRegistry meterRegistry) {
+        this.name = name;
+        this.batchLoader = batchLoader;
+        this.windowNanos = window.toNanos();
+        this.maxBatch = windowNanos > 0 ? Math.max(1, maxBatch) : 1;
+        this.calls = meterRegistry.counter("catalog.coalescing.calls", "lookup", name);
+        this.queries = meterRegistry.counter("catalog.coalescing.queries", "lookup", name);
+    }
+
+    V get(K key) {
+        calls.increment();
+        CompletableFuture<V> future;
+        Batch<K, V> leading = null;
+        synchronized (lock) {
+            future = inFlight.get(key);
+            if (future == null && open != null) {
+                //Its query has not started, so it still reads anything that committed before this call
+                future = open.futures.get(key);
+            }
+            if (future == null) {
+                boolean alone = false;
+                if (open == null) {
+                    alone = inFlight.isEmpty();
+                    open = new Batch<>(Thread.currentThread());
+                    leading = open;
+                }
+                future = new CompletableFuture<>();
+                open.futures.put(key, future);
+                inFlight.put(key, future);
+                if (alone || open.futures.size() >= maxBatch) {
+                    LockSupport.unpark(open.leader);
+                    open = null;
+                }
+            }
+        }
+        if (leading != null) {
+            run(leading);
+        }
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+    }
+
+    //Later calls for the key start a new load, callers already waiting keep theirs
+    void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    void forgetAll() {
+        inFlight.clear();
+    }
+
+    CoalescingStatsDTO getStats() {
+        long callCount = (long) calls.count();
+        long queryCount = (long) queries.count();
+        return new CoalescingStatsDTO(name, callCount, queryCount, callCount - queryCount);
+    }
+
+    private void run(Batch<K, V> batch) {
+        long deadline = System.nanoTime() + windowNanos;
+        while (windowNanos > 0) {
+            synchronized (lock) {
+                if (open != batch) {
+                    break;
+                }
+                if (System.nanoTime() >= deadline) {
+                    open = null;
+                    break;
+                }
+            }
+            LockSupport.parkNanos(this, deadline - System.nanoTime());
+        }
+        synchronized (lock) {
+            if (open == batch) {
+                open = null;
+            }
+        }
+        queries.increment();
+        try {
+            Map<K, V> loaded = batchLoader.apply(batch.futures.keySet());
+            batch.futures.forEach((key, future) -> future.complete(loaded.get(key)));
+        } catch (RuntimeException | Error ex) {
+            batch.futures.values().forEach(future -> future.completeExceptionally(ex));
+            throw ex;
+        } finally {
+            batch.futures.forEach(inFlight::remove);
+        }
+    }
+
+    private static final class Batch<K, V> {
+
+        private final Thread leader;
+        //Guarded by the coalescer lock until the batch is closed
+        private final Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+
+        private Batch(Thread leader) {
+            this.leader = leader;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.productcatalogapi.service;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.dto.StockAdjustmentDTO;
+import com.example.productcatalogapi.dto.StockAdjustmentResultDTO;
+import com.example.productcatalogapi.dto.StockAdjustmentStatus;
+import com.example.productcatalogapi.dto.StockItemResultDTO;
+import com.example.productcatalogapi.metrics.QueryCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Optional write-behind mode for high-frequency, fire-and-forget stock deltas (inventory feeds, flash sales).
+ * Deltas are merged per product code in memory and flushed as one batched, guarded update per code
+ * every flush interval, or as soon as max-pending products have deltas waiting. Like any feed delta, a decrement larger
+ * than the stock leaves it at zero. Pending deltas are flushed on shutdown
+ * and single-product reads include them, but a hard crash loses at most one interval of deltas.
+ * Reservations that need an immediate yes/no answer should use {@link ProductStockService} directly.
+ */
+@Component
+public class StockWriteBehindQueue implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(StockWriteBehindQueue.class);
+
+    private final ProductStockService productStockService;
+    private final boolean enabled;
+    private final Duration flushInterval;
+    private final int maxPending;
+
+    //ConcurrentHashMap.merge locks a single bin, so writers to different codes never contend.
+    //Sums are longs, many large decrements during a flash sale must not wrap around into an increment
+    private final ConcurrentHashMap<String, Long> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Counter acceptedDeltas;
+    private final Counter appliedUpdates;
+    private final Counter rejectedUpdates;
+
+    private volatile ScheduledExecutorService flusher;
+
+    public StockWriteBehindQueue(ProductStockService productStockService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${catalog.stock.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${catalog.stock.write-behind.flush-interval:500ms}") Duration flushInterval,
+                                 @Value("${catalog.stock.write-behind.max-pending:5000}") int maxPending) {
+        this.productStockService = productStockService;
+        this.enabled = enabled;
+        this.flushInterval = flushInterval;
+        this.maxPending = maxPending;
+        this.acceptedDeltas = meterRegistry.counter("catalog.stock.write-behind", "outcome", "accepted");
+        this.appliedUpdates = meterRegistry.counter("catalog.stock.write-behind", "outcome", "applied");
+        this.rejectedUpdates = meterRegistry.counter("catalog.stock.write-behind", "outcome", "rejected");
+        meterRegistry.gauge("catalog.stock.write-behind.pending", pending, ConcurrentHashMap::size);
+    }
+
+    //Queues the deltas, or applies them right away when write-behind is disabled or stopped
+    public void submit(List<StockAdjustmentDTO> adjustments) {
+        ScheduledExecutorService executor = flusher;
+        if (executor == null) {
+            productStockService.applyDeltas(adjustments);
+            return;
+        }
+        for (StockAdjustmentDTO adjustment : adjustments) {
+            pending.merge(adjustment.getCode(), (long) adjustment.getDelta(), Long::sum);
+        }
+        acceptedDeltas.increment(adjustments.size());
+        //Counted in products, the unit a flush writes and the only one that stays right while deltas merge
+        if (pending.size() >= maxPending && flushRequested.compareAndSet(false, true)) {
+            executor.execute(QueryCounter.counted(this::flushQuietly));
+        }
+    }
+
+    //The product as it will be after the next flush, the cached instance itself is never modified
+    public ProductResponseDTO withPendingStock(ProductResponseDTO product) {
+        Long delta = pending.get(product.getCode());
+        if (delta == null || delta == 0 || product.getStockQuantity() == null) {
+            return product;
+        }
+        int stock = (int) Math.max(0, Math.min(product.getStockQuantity() + delta, Integer.MAX_VALUE));
+        return new ProductResponseDTO(product.getId(), product.getCode(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getCategory(), stock, product.getIsActive(),
+                product.getCreatedAt(), product.getUpdatedAt());
+    }
+
+    //Whether reads of this product currently show stock that is not written yet
+    public boolean hasPendingStock(String code) {
+        Long delta = pending.get(code);
+        return delta != null && delta != 0;
+    }
+
+    public boolean hasPendingStock() {
+        return !pending.isEmpty();
+    }
+
+    //Drains the merged deltas and writes them in one batch.
+    //Runs on the flusher thread only, or on the stopping thread after the flusher has terminated
+    void flush() {
+        flushRequested.set(false);
+        List<StockAdjustmentDTO> batch = new ArrayList<>(pending.size());
+        Map<String, Long> remainders = new HashMap<>();
+        for (String code : pending.keySet()) {
+            //remove() takes the delta atomically, a concurrent merge after it lands in the next flush
+            Long delta = pending.remove(code);
+            if (delta != null && delta != 0) {
+                //A sum beyond the int column range goes out in parts, one per flush
+                int part = (int) Math.max(Integer.MIN_VALUE, Math.min(delta, Integer.MAX_VALUE));
+                batch.add(new StockAdjustmentDTO(code, part));
+                if (part != delta) {
+                    remainders.put(code, delta - part);
+                }
+            }
+        }
+        remainders.forEach((code, remainder) -> pending.merge(code, remainder, Long::sum));
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            StockAdjustmentResultDTO result = productStockService.applyDeltas(batch);
+            appliedUpdates.increment(result.getAdjusted());
+            if (result.getFailed() > 0) {
+                rejectedUpdates.increment(result.getFailed());
+                for (StockItemResultDTO item : result.getItems()) {
+                    if (item.getStatus() != StockAdjustmentStatus.ADJUSTED) {
+                        log.warn("Dropped write-behind stock delta {} for {}: {}", item.getDelta(), item.getCode(), item.getStatus());
+                    }
+                }
+            }
+        } catch (RuntimeException ex) {
+            //Put the deltas back so the next flush retries them
+            for (StockAdjustmentDTO adjustment : batch) {
+                pending.merge(adjustment.getCode(), (long) adjustment.getDelta(), Long::sum);
+            }
+            if (ex instanceof DataAccessException || ex instanceof TransactionException) {
+                log.warn("Write-behind flush of {} stock deltas failed, will retry: {}", batch.size(),
+                        ex.getMessage());
+            } else {
+                log.error("Write-behind flush of {} stock deltas failed, will retry", batch.size(), ex);
+            }
+        }
+    }
+
+    //An exception escaping a scheduled task cancels all its later runs
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.error("Write-behind flush failed", ex);
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stock-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        executor.scheduleWithFixedDelay(QueryCounter.counted(this::flushQuietly), intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        flusher = executor;
+        log.info("Stock write-behind enabled, flushing every {} ms or at {} products with pending deltas", intervalMillis, maxPending);
+    }
+
+    //Stops after the web server, so no request can queue a delta once the final flush has run
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = flusher;
+        if (executor == null) {
+            return;
+        }
+        flusher = null;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        if (!pending.isEmpty()) {
+            log.error("{} stock deltas could not be written on shutdown: {}", pending.size(), pending);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return flusher != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.productcatalogapi.web;
+
+import com.example.productcatalogapi.index.CatalogVersion;
+import com.example.productcatalogapi.service.StockWriteBehindQueue;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Conditional GET for list and category responses.
+ * The weak ETag combines the catalog version with the request URI, query and Accept header, so a repeat
+ * request against an unchanged catalog is answered with 304 before the controller runs any query.
+ * Batch lookups show write-behind stock that is not written yet and does not move the version, so they
+ * get no ETag while any delta is pending.
+ */
+@Component
+public class CatalogETagInterceptor implements HandlerInterceptor {
+
+    private static final String BATCH_PATH = "/api/v1/products/batch";
+
+    private final CatalogVersion catalogVersion;
+    private final StockWriteBehindQueue stockWriteBehindQueue;
+
+    public CatalogETagInterceptor(CatalogVersion catalogVersion, StockWriteBehindQueue stockWriteBehindQueue) {
+        this.catalogVersion = catalogVersion;
+        this.stockWriteBehindQueue = stockWriteBehindQueue;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            return true;
+        }
+        if (request.getRequestURI().endsWith(BATCH_PATH) && stockWriteBehindQueue.hasPendingStock()) {
+            return true;
+        }
+        //Read the version before the handler runs, a change during the request only makes the ETag conservative
+        long version = catalogVersion.getVersion();
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        String eTag = "W/\"" + Long.toHexString(version) + "-" + requestHash(request) + "\"";
+        return !new ServletWebRequest(request, response).checkNotModified(eTag, catalogVersion.getLastModified());
+    }
+
+    private static String requestHash(HttpServletRequest request) {
+        CRC32 crc = new CRC32();
+        crc.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+        if (request.getQueryString() != null) {
+            crc.update('?');
+            crc.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+        }
+        //JSON, Smile and CBOR representations of the same list must not share an ETag
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null) {
+            crc.update('#');
+            crc.update(accept.getBytes(StandardCharsets.UTF_8));
+        }
+        return Long.toHexString(crc.getValue());
+    }
+}
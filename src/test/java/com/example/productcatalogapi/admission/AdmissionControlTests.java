@@ -0,0 +1,165 @@
+package com.example.productcatalogapi.admission;
+
+import com.example.productcatalogapi.exception.RateLimitExceededException;
+import com.example.productcatalogapi.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControlTests {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void bucketAllowsTheBurstAndThenTheRate() {
+		TokenBucket bucket = new TokenBucket(8, 4, 0);
+
+		assertThat(bucket.tryAcquire(4, 0)).isZero();
+		assertThat(bucket.tryAcquire(4, 0)).isZero();
+		assertThat(bucket.tryAcquire(4, 0)).isEqualTo(SECOND);
+		assertThat(bucket.tryAcquire(4, SECOND)).isZero();
+		assertThat(bucket.isFull(SECOND)).isFalse();
+		//Costs above the burst take the whole bucket instead of never fitting
+		assertThat(bucket.tryAcquire(100, 3 * SECOND)).isZero();
+		assertThat(bucket.isFull(5 * SECOND)).isTrue();
+	}
+
+	@Test
+	void limitShrinksWhenDatabaseLatencyRisesAndRecovers() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 4, 100, 2.0, 0.25);
+		//Grows only while at least half of it is used
+		run(limit, 20, 200, 1_000);
+		assertThat(limit.getLimit()).isBetween(38, 41);
+
+		run(limit, 40, 300, 20_000);
+		assertThat(limit.getLimit()).isEqualTo(4);
+
+		run(limit, 40, 500, 1_000);
+		assertThat(limit.getLimit()).isGreaterThan(60);
+	}
+
+	@Test
+	void expensiveRequestsAreShedFirst() {
+		AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 4, 100, 2.0, 0.25);
+		for (int i = 0; i < 6; i++) {
+			assertThat(limit.tryAcquire(true)).isTrue();
+		}
+		assertThat(limit.tryAcquire(true)).isFalse();
+		assertThat(limit.tryAcquire(false)).isTrue();
+		assertThat(limit.tryAcquire(false)).isTrue();
+		assertThat(limit.tryAcquire(false)).isFalse();
+
+		limit.release(0, 0);
+		assertThat(limit.getInFlight()).isEqualTo(7);
+		assertThat(limit.tryAcquire(false)).isTrue();
+	}
+
+	@Test
+	void streamGivesBackItsSlotWhenItGoesAsync() {
+		AdmissionControlInterceptor interceptor = interceptor(false, 100);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		MockHttpServletRequest stream = request("/api/v1/products/changes/stream", "10.0.0.1");
+		assertThat(interceptor.preHandle(stream, response, null)).isTrue();
+		assertThatThrownBy(() -> interceptor.preHandle(request("/api/v1/products/{id}", "10.0.0.2"), response, null))
+				.isInstanceOf(ServiceOverloadedException.class);
+
+		interceptor.afterConcurrentHandlingStarted(stream, response, null);
+		MockHttpServletRequest get = request("/api/v1/products/{id}", "10.0.0.2");
+		assertThat(interceptor.preHandle(get, response, null)).isTrue();
+		interceptor.afterCompletion(get, response, null, null);
+		//The async dispatch completing the stream must not release a second time
+		interceptor.afterCompletion(stream, response, null, null);
+		assertThat(interceptor.getStats().getInFlight()).isZero();
+	}
+
+	@Test
+	void onlyExpensiveEndpointsAreKeptOutOfTheReserve() {
+		//Four slots, one of them held back from expensive endpoints
+		AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(new SimpleMeterRegistry(), true,
+				"X-Client-Id", false, 100, 1000, 1000, 200, 100, Set.of("/api/v1/products/search/{name}"), 4,
+				4, 4, 4, 2.0, 0.25);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		for (int i = 0; i < 3; i++) {
+			assertThat(interceptor.preHandle(request("/api/v1/products/{id}", "10.0.0.1"), response, null)).isTrue();
+		}
+
+		assertThatThrownBy(() -> interceptor.preHandle(request("/api/v1/products/search/{name}", "10.0.0.1"), response, null))
+				.isInstanceOf(ServiceOverloadedException.class);
+		//A large page costs more tokens but is still a cheap endpoint
+		MockHttpServletRequest largePage = request("/api/v1/products", "10.0.0.1");
+		largePage.setParameter("size", "200");
+		assertThat(interceptor.cost("/api/v1/products", "200")).isGreaterThan(1);
+		assertThat(interceptor.preHandle(largePage, response, null)).isTrue();
+		assertThat(interceptor.getStats().getInFlight()).isEqualTo(4);
+	}
+
+	@Test
+	void clientHeaderNamesTheClientOnlyWhenTrusted() {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		AdmissionControlInterceptor untrusted = interceptor(false, 100);
+		drain(untrusted, "client-0");
+		assertThatThrownBy(() -> untrusted.preHandle(withClient("client-1"), response, null))
+				.isInstanceOf(RateLimitExceededException.class);
+
+		AdmissionControlInterceptor trusted = interceptor(true, 2);
+		drain(trusted, "client-0");
+		drain(trusted, "client-1");
+		//The map is full, newcomers share one overflow bucket per endpoint
+		drain(trusted, "client-2");
+		assertThat(trusted.getStats().getBuckets()).isEqualTo(3);
+		assertThatThrownBy(() -> trusted.preHandle(withClient("client-3"), response, null))
+				.isInstanceOf(RateLimitExceededException.class);
+	}
+
+	//Burst of 2 tokens that hardly refills and a single concurrency slot
+	private static AdmissionControlInterceptor interceptor(boolean trustClientHeader, int maxBuckets) {
+		return new AdmissionControlInterceptor(new SimpleMeterRegistry(), true, "X-Client-Id", trustClientHeader,
+				maxBuckets, 0.001, 2, 200, 100, Set.of(), 4, 1, 1, 1, 2.0, 0.25);
+	}
+
+	//Spends both tokens of the client's bucket
+	private static void drain(AdmissionControlInterceptor interceptor, String client) {
+		for (int i = 0; i < 2; i++) {
+			MockHttpServletRequest request = withClient(client);
+			assertThat(interceptor.preHandle(request, new MockHttpServletResponse(), null)).isTrue();
+			interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+		}
+	}
+
+	private static MockHttpServletRequest withClient(String client) {
+		MockHttpServletRequest request = request("/api/v1/products/{id}", "10.0.0.1");
+		request.addHeader("X-Client-Id", client);
+		return request;
+	}
+
+	private static MockHttpServletRequest request(String pattern, String remoteAddress) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", pattern);
+		request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+		request.setRemoteAddr(remoteAddress);
+		return request;
+	}
+
+	//Finishes samples requests of one statement each, keeping up to concurrency requests in flight
+	private static void run(AdaptiveConcurrencyLimit limit, int concurrency, int samples, long nanosPerStatement) {
+		for (int i = 0; i < samples; i++) {
+			while (limit.getInFlight() < concurrency) {
+				if (!limit.tryAcquire(false)) {
+					break;
+				}
+			}
+			limit.release(1, nanosPerStatement);
+		}
+		while (limit.getInFlight() > 0) {
+			limit.release(0, 0);
+		}
+	}
+}
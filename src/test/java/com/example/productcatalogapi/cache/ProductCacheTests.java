@@ -0,0 +1,53 @@
+package com.example.productcatalogapi.cache;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheTests {
+
+	@Test
+	void servesByIdAndCodeAndEvictsLeastRecentlyUsed() {
+		ProductCache cache = new ProductCache(2, Duration.ofMinutes(1));
+		cache.put(product(1L, "A"), cache.stamp());
+		cache.put(product(2L, "B"), cache.stamp());
+		assertThat(cache.get(1L)).isNotNull();
+
+		cache.put(product(3L, "C"), cache.stamp());
+
+		assertThat(cache.getByCode("B")).isNull();
+		assertThat(cache.getByCode("A").getId()).isEqualTo(1L);
+		assertThat(cache.get(3L)).isNotNull();
+		assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+		assertThat(cache.getStats().getHits()).isEqualTo(3);
+	}
+
+	@Test
+	void dropsLoadsThatRacedWithAnInvalidation() {
+		ProductCache cache = new ProductCache(10, Duration.ofMinutes(1));
+		long stamp = cache.stamp();
+		cache.invalidate(1L, "A");
+		cache.put(product(1L, "A"), stamp);
+
+		assertThat(cache.get(1L)).isNull();
+	}
+
+	@Test
+	void expiresEntriesAfterTimeToLive() {
+		ProductCache cache = new ProductCache(10, Duration.ZERO);
+		cache.put(product(1L, "A"), cache.stamp());
+
+		assertThat(cache.get(1L)).isNull();
+		assertThat(cache.getStats().getEvictions()).isEqualTo(1);
+	}
+
+	private static ProductResponseDTO product(Long id, String code) {
+		ProductResponseDTO product = new ProductResponseDTO();
+		product.setId(id);
+		product.setCode(code);
+		return product;
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.productcatalogapi.changefeed;
+
+import com.example.productcatalogapi.dto.ChangeFeedPageDTO;
+import com.example.productcatalogapi.dto.ProductChangeDTO;
+import com.example.productcatalogapi.entity.ProductChange;
+import com.example.productcatalogapi.event.ProductChangeType;
+import com.example.productcatalogapi.exception.ChangeFeedExpiredException;
+import com.example.productcatalogapi.repository.ProductChangeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductChangeFeedTests {
+
+	private final ProductChangeRepository repository = mock(ProductChangeRepository.class);
+	private final ProductChangeFeed feed = new ProductChangeFeed(repository, mock(JdbcTemplate.class), Duration.ofSeconds(1),
+			Duration.ofSeconds(5), Duration.ofDays(7), Duration.ofMinutes(30), 500);
+
+	@Test
+	void stopsAtAGapThatMayStillCommit() {
+		when(repository.findFirstSequence()).thenReturn(1L);
+		when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class)))
+				.thenReturn(List.of(change(1, 60), change(2, 60), change(4, 1), change(5, 1)));
+
+		ChangeFeedPageDTO page = feed.read(0, 100);
+
+		assertThat(page.getChanges()).extracting(ProductChangeDTO::getSequence).containsExactly(1L, 2L);
+		assertThat(page.getLastSequence()).isEqualTo(2);
+	}
+
+	@Test
+	void skipsAGapOlderThanTheGapTimeout() {
+		when(repository.findFirstSequence()).thenReturn(1L);
+		when(repository.findByIdGreaterThanOrderByIdAsc(eq(2L), any(Limit.class)))
+				.thenReturn(List.of(change(4, 10), change(5, 1), change(7, 1)));
+
+		ChangeFeedPageDTO page = feed.read(2, 100);
+
+		//3 was rolled back long enough ago, 6 is still within the timeout
+		assertThat(page.getChanges()).extracting(ProductChangeDTO::getSequence).containsExactly(4L, 5L);
+		assertThat(page.getLastSequence()).isEqualTo(5);
+	}
+
+	@Test
+	void positionsBeforeTheOldestRetainedChangeHaveExpired() {
+		when(repository.findFirstSequence()).thenReturn(10L);
+		when(repository.findByIdGreaterThanOrderByIdAsc(eq(9L), any(Limit.class))).thenReturn(List.of(change(10, 60)));
+
+		assertThatThrownBy(() -> feed.read(8, 100))
+				.isInstanceOf(ChangeFeedExpiredException.class)
+				.hasMessageContaining("continue from sequence 9");
+		assertThatThrownBy(() -> feed.subscribe(0))
+				.isInstanceOf(ChangeFeedExpiredException.class);
+		assertThat(feed.read(9, 100).getLastSequence()).isEqualTo(10);
+	}
+
+	@Test
+	void emptyFeedAcceptsAnyPosition() {
+		when(repository.findByIdGreaterThanOrderByIdAsc(eq(42L), any(Limit.class))).thenReturn(List.of());
+
+		ChangeFeedPageDTO page = feed.read(42, 100);
+
+		assertThat(page.getChanges()).isEmpty();
+		assertThat(page.getLastSequence()).isEqualTo(42);
+	}
+
+	private static ProductChange change(long id, int secondsAgo) {
+		return new ProductChange(id, id, "P-" + id, ProductChangeType.UPDATED, "{}", LocalDateTime.now().minusSeconds(secondsAgo));
+	}
+}
@@ -0,0 +1,41 @@
+package com.example.productcatalogapi.changefeed;
+
+import com.example.productcatalogapi.dto.ProductRequestDTO;
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductChangeOutboxTests {
+
+	@Autowired
+	ProductService productService;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Test
+	void keepsThePayloadOfALongFullyEscapedDescription() throws Exception {
+		//Each control character is written as a six character escape
+		String description = "\u0001".repeat(500);
+		productService.createProduct(new ProductRequestDTO("OUTBOX-ESCAPED", "Outbox escaped", description,
+				new BigDecimal("5.00"), "Outbox", 1, true));
+
+		String payload = jdbcTemplate.queryForObject("SELECT payload FROM product_changes WHERE product_code = ?",
+				String.class, "OUTBOX-ESCAPED");
+
+		assertThat(payload.length()).isGreaterThan(3000);
+		assertThat(objectMapper.readValue(payload, ProductResponseDTO.class).getDescription()).isEqualTo(description);
+	}
+}
@@ -0,0 +1,164 @@
+package com.example.productcatalogapi.columnar;
+
+import com.example.productcatalogapi.dto.ProductFilterDTO;
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.dto.ProductSummaryDTO;
+import com.example.productcatalogapi.event.ProductChangedEvent;
+import com.example.productcatalogapi.repository.ProductProjection;
+import com.example.productcatalogapi.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ColumnarCatalogTests {
+
+	private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123_456_000);
+
+	private final ProductRepository repository = mock(ProductRepository.class);
+	private final ColumnarCatalog catalog = new ColumnarCatalog(repository, new SimpleMeterRegistry(), true,
+			Duration.ofSeconds(1), Duration.ofSeconds(5), 100);
+
+	@Test
+	void readsBackWhatWasStoredAcrossUpdatesAndDeletes() {
+		load(product(1L, "P-1", "Phone", "9.90", "Phones", 5, true),
+				product(2L, "P-2", "Cable", "1.5", null, null, null));
+
+		assertThat(catalog.get(1L)).isEqualTo(product(1L, "P-1", "Phone", "9.90", "Phones", 5, true));
+		assertThat(catalog.get(2L).getPrice()).isEqualTo(new BigDecimal("1.50"));
+		assertThat(catalog.get(2L).getStockQuantity()).isNull();
+		assertThat(catalog.get(2L).getIsActive()).isNull();
+
+		ProductResponseDTO renamed = product(1L, "P-1b", "Phöne ✓", "10.00", "Audio", 0, false);
+		catalog.onProductChanged(ProductChangedEvent.updated(catalog.get(1L), renamed));
+		catalog.onProductChanged(ProductChangedEvent.deleted(catalog.get(2L)));
+
+		assertThat(catalog.getByCode("P-1")).isNull();
+		assertThat(catalog.getByCode("P-1b")).isEqualTo(renamed);
+		assertThat(catalog.get(2L)).isNull();
+		assertThat(catalog.getByCode("P-2")).isNull();
+	}
+
+	@Test
+	void survivesGrowthAndCompaction() {
+		catalog.beginLoad();
+		for (long id = 1; id <= 20_000; id++) {
+			catalog.load(product(id, "C-" + id, "Product " + id, "1.00", "Cat" + id % 7, (int) id, true));
+		}
+		catalog.finishLoad();
+		for (long id = 1; id <= 20_000; id += 2) {
+			catalog.onProductChanged(ProductChangedEvent.deleted(catalog.get(id)));
+		}
+
+		assertThat(catalog.get(1L)).isNull();
+		assertThat(catalog.getByCode("C-19998").getName()).isEqualTo("Product 19998");
+		assertThat(catalog.find(new ProductFilterDTO(), null, null, PageRequest.of(0, 1), ProductProjection.DETAIL)
+				.getTotalElements()).isEqualTo(10_000);
+	}
+
+	@Test
+	void filtersAndOrdersLikeTheDatabase() {
+		load(product(1L, "A", "Red phone", "300.00", "Phones", 3, true),
+				product(2L, "B", "Blue phone", "100.00", "phones", null, true),
+				product(3L, "C", "Red cable", "5.00", "Cables", 50, true),
+				product(4L, "D", "Old phone", "100.00", "Phones", 1, false));
+
+		ProductFilterDTO filter = new ProductFilterDTO();
+		filter.setCategory("PHONES");
+		filter.setIsActive(true);
+		Page<ProductSummaryDTO> page = catalog.find(filter, null, null,
+				PageRequest.of(0, 10, Sort.by("price")), ProductProjection.SUMMARY);
+		assertThat(page.getContent()).extracting(ProductSummaryDTO::getId).containsExactly(2L, 1L);
+
+		filter = new ProductFilterDTO();
+		filter.setMinPrice(new BigDecimal("99.999"));
+		filter.setMaxStock(10);
+		page = catalog.find(filter, null, null, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "price")),
+				ProductProjection.SUMMARY);
+		assertThat(page.getContent()).extracting(ProductSummaryDTO::getId).containsExactly(1L, 4L);
+
+		filter = new ProductFilterDTO();
+		filter.setQ("RED");
+		page = catalog.find(filter, null, null, PageRequest.of(1, 1, Sort.by("stockQuantity")), ProductProjection.SUMMARY);
+		assertThat(page.getTotalElements()).isEqualTo(2);
+		assertThat(page.getContent()).extracting(ProductSummaryDTO::getId).containsExactly(3L);
+
+		page = catalog.find(filter, null, List.of(4L, 2L), PageRequest.of(0, 10, Sort.by("stockQuantity")),
+				ProductProjection.SUMMARY);
+		assertThat(page.getContent()).extracting(ProductSummaryDTO::getId).containsExactly(2L, 4L);
+
+		assertThat(catalog.find(new ProductFilterDTO(), null, null, PageRequest.of(0, 10, Sort.by("name")),
+				ProductProjection.SUMMARY)).isNull();
+	}
+
+	@Test
+	void matchesTheSearchTermInNameOrDescription() {
+		load(product(1L, "A", "Phone", "1.00", null, 1, true), product(2L, "B", "Cable", "1.00", null, 1, true),
+				new ProductResponseDTO(3L, "C", "Charger", "Fits every PHONE", new BigDecimal("1.00"), null, 1, true,
+						NOW, NOW),
+				new ProductResponseDTO(4L, "D", "Case", null, new BigDecimal("1.00"), null, 1, true, NOW, NOW));
+
+		ProductFilterDTO filter = new ProductFilterDTO();
+		filter.setQ("phone");
+		assertThat(catalog.find(filter, null, null, PageRequest.of(0, 10, Sort.by("id")), ProductProjection.SUMMARY)
+				.getContent()).extracting(ProductSummaryDTO::getId).containsExactly(1L, 3L);
+	}
+
+	@Test
+	void pagesInIdOrderAfterOutOfOrderInserts() {
+		load(product(10L, "J", "Ten", "1.00", null, 1, true), product(30L, "L", "Thirty", "1.00", null, 1, true));
+		catalog.onProductChanged(ProductChangedEvent.created(product(20L, "K", "Twenty", "1.00", null, 1, true)));
+
+		assertThat(catalog.find(new ProductFilterDTO(), null, null, PageRequest.of(0, 2, Sort.by("id")),
+				ProductProjection.SUMMARY).getContent()).extracting(ProductSummaryDTO::getId).containsExactly(10L, 20L);
+		assertThat(catalog.find(new ProductFilterDTO(), null, null, PageRequest.of(1, 2, Sort.by("id").descending()),
+				ProductProjection.SUMMARY).getContent()).extracting(ProductSummaryDTO::getId).containsExactly(10L);
+	}
+
+	@Test
+	void refreshAppliesWritesFromOtherInstancesAndDropsDeletedProducts() {
+		load(product(1L, "A", "One", "1.00", null, 1, true), product(2L, "B", "Two", "2.00", null, 2, true),
+				product(3L, "C", "Three", "3.00", null, 3, true));
+		ProductResponseDTO changed = product(2L, "B", "Two v2", "2.00", null, 0, true);
+		changed.setUpdatedAt(NOW.plusSeconds(60));
+		ProductResponseDTO created = product(4L, "D", "Four", "4.00", null, 4, true);
+		when(repository.findChangedAfter(eq(NOW.plusSeconds(3).minusSeconds(5)), eq(0L), any(Limit.class)))
+				.thenReturn(List.of(product(3L, "C", "Three", "3.00", null, 3, true), created, changed));
+		when(repository.count()).thenReturn(3L);
+		when(repository.findIdsAfter(anyLong(), any(Limit.class))).thenReturn(List.of(2L, 3L, 4L));
+
+		catalog.refresh();
+
+		assertThat(catalog.get(2L).getName()).isEqualTo("Two v2");
+		assertThat(catalog.getByCode("D")).isEqualTo(created);
+		assertThat(catalog.get(1L)).isNull();
+	}
+
+	private void load(ProductResponseDTO... products) {
+		catalog.beginLoad();
+		for (ProductResponseDTO product : products) {
+			catalog.load(product);
+		}
+		catalog.finishLoad();
+	}
+
+	private static ProductResponseDTO product(Long id, String code, String name, String price, String category,
+			Integer stock, Boolean active) {
+		return new ProductResponseDTO(id, code, name, name + " description", new BigDecimal(price), category, stock,
+				active, NOW, NOW.plusSeconds(id));
+	}
+}
@@ -0,0 +1,107 @@
+package com.example.productcatalogapi.controller;
+
+import com.example.productcatalogapi.dto.BulkItemResultDTO;
+import com.example.productcatalogapi.dto.BulkItemStatus;
+import com.example.productcatalogapi.dto.BulkResultDTO;
+import com.example.productcatalogapi.entity.Product;
+import com.example.productcatalogapi.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "catalog.bulk.batch-size=2")
+@AutoConfigureMockMvc
+class ProductBulkTests {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	ProductRepository productRepository;
+
+	@Test
+	void mapsGeneratedKeysToTheirItems() throws Exception {
+		BulkResultDTO result = bulk("CREATE",
+				item("BULK-KEY-1"), item("BULK-KEY-2"), item("BULK-KEY-3"), item("BULK-KEY-4"), item("BULK-KEY-5"));
+
+		assertThat(result.getCreated()).isEqualTo(5);
+		for (BulkItemResultDTO item : result.getItems()) {
+			assertThat(item.getStatus()).isEqualTo(BulkItemStatus.CREATED);
+			assertThat(item.getId()).isEqualTo(id(item.getCode()));
+		}
+	}
+
+	@Test
+	void commitsEachChunkOnItsOwn() throws Exception {
+		bulk("CREATE", item("BULK-CHUNK-TAKEN"));
+
+		//Second chunk of two holds the conflicting code, only that item fails
+		BulkResultDTO result = bulk("CREATE",
+				item("BULK-CHUNK-1"), item("BULK-CHUNK-2"), item("BULK-CHUNK-TAKEN"), item("BULK-CHUNK-3"));
+
+		assertThat(result.getCreated()).isEqualTo(3);
+		assertThat(result.getFailed()).isEqualTo(1);
+		assertThat(result.getItems().get(2).getStatus()).isEqualTo(BulkItemStatus.FAILED);
+		assertThat(productRepository.findByCode("BULK-CHUNK-3")).isPresent();
+	}
+
+	@Test
+	void reportsAnItemThatDoesNotMapAndKeepsReading() throws Exception {
+		BulkResultDTO result = bulk("CREATE",
+				item("BULK-MAP-1"), item("BULK-MAP-2"),
+				"{\"code\":\"BULK-MAP-BAD\",\"name\":\"Bad\",\"price\":\"not-a-number\"}",
+				item("BULK-MAP-3"));
+
+		assertThat(result.getTotal()).isEqualTo(4);
+		assertThat(result.getCreated()).isEqualTo(3);
+		assertThat(result.getItems().get(2).getIndex()).isEqualTo(2);
+		assertThat(result.getItems().get(2).getStatus()).isEqualTo(BulkItemStatus.FAILED);
+		assertThat(result.getItems().get(2).getError()).startsWith("Malformed item");
+		assertThat(productRepository.findByCode("BULK-MAP-3")).isPresent();
+	}
+
+	@Test
+	void endsCleanlyWhenTheBodyStopsParsing() throws Exception {
+		BulkResultDTO result = bulk("CREATE",
+				item("BULK-BROKEN-1"), item("BULK-BROKEN-2"), item("BULK-BROKEN-3"), "{\"code\":\"BULK-BROKEN-4\",");
+
+		assertThat(result.getCreated()).isEqualTo(3);
+		assertThat(result.getFailed()).isEqualTo(1);
+		assertThat(result.getItems()).last().satisfies(item -> {
+			assertThat(item.getIndex()).isEqualTo(3);
+			assertThat(item.getStatus()).isEqualTo(BulkItemStatus.FAILED);
+		});
+		assertThat(productRepository.findByCode("BULK-BROKEN-1")).isPresent();
+		assertThat(productRepository.findByCode("BULK-BROKEN-3")).isPresent();
+	}
+
+	private BulkResultDTO bulk(String mode, String... lines) throws Exception {
+		String body = mockMvc.perform(post("/api/v1/products/bulk").param("mode", mode)
+						.contentType(MediaType.APPLICATION_NDJSON)
+						.content(String.join("\n", List.of(lines))))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readValue(body, BulkResultDTO.class);
+	}
+
+	private static String item(String code) {
+		return "{\"code\":\"" + code + "\",\"name\":\"Bulk " + code + "\",\"price\":9.99,\"category\":\"Bulk\",\"stockQuantity\":1}";
+	}
+
+	private Long id(String code) {
+		return productRepository.findByCode(code).map(Product::getId).orElseThrow();
+	}
+}
@@ -0,0 +1,45 @@
+package com.example.productcatalogapi.controller;
+
+import com.example.productcatalogapi.dto.ProductRequestDTO;
+import com.example.productcatalogapi.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Any search hit is too many to sort, so the term goes to the database as a LIKE
+@SpringBootTest(properties = "catalog.search.max-sorted-hits=0")
+@AutoConfigureMockMvc
+class ProductFilterTests {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	ProductService productService;
+
+	@Test
+	void fallbackMatchesTheTermInNameOrDescription() throws Exception {
+		create("FILTER-NAME", "Zebrawood desk", "A desk");
+		create("FILTER-DESC", "Desk lamp", "Shade in zebrawood veneer");
+		create("FILTER-NONE", "Desk chair", "Oak");
+
+		mockMvc.perform(get("/api/v1/products/filter").param("q", "zebrawood").param("category", "FilterTests"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.totalElements").value(2))
+				.andExpect(jsonPath("$.content[*].code").value(containsInAnyOrder("FILTER-NAME", "FILTER-DESC")));
+	}
+
+	private void create(String code, String name, String description) {
+		productService.createProduct(new ProductRequestDTO(code, name, description, new BigDecimal("10.00"),
+				"FilterTests", 1, true));
+	}
+}
@@ -0,0 +1,96 @@
+package com.example.productcatalogapi.controller;
+
+import com.example.productcatalogapi.dto.ProductRequestDTO;
+import com.example.productcatalogapi.pagination.CursorCodec;
+import com.example.productcatalogapi.service.ProductService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ProductScrollTests {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	CursorCodec cursorCodec;
+
+	@BeforeAll
+	void createProducts(@Autowired ProductService productService) {
+		String[] prices = {"5.00", "1.00", "3.00", "1.00", "4.00"};
+		for (int i = 0; i < prices.length; i++) {
+			productService.createProduct(new ProductRequestDTO("SCROLL-" + i, "Scroll lamp " + i,
+					i % 2 == 0 ? "lamp lamp" : "desk", new BigDecimal(prices[i]), "Scroll", 1, true));
+		}
+	}
+
+	@Test
+	void scrollsThroughEveryProductOnceInSortOrder() throws Exception {
+		List<String> codes = scroll("/api/v1/products/category/Scroll/scroll?size=2&sortBy=price");
+
+		assertThat(codes).containsExactly("SCROLL-1", "SCROLL-3", "SCROLL-2", "SCROLL-4", "SCROLL-0");
+	}
+
+	@Test
+	void scrollsSearchHitsInRelevanceOrder() throws Exception {
+		List<String> codes = scroll("/api/v1/products/search/scroll?q=lamp&size=2");
+
+		assertThat(codes).hasSize(5).doesNotHaveDuplicates();
+		//Descriptions with the term rank above name-only matches
+		assertThat(codes.subList(0, 3)).containsExactlyInAnyOrder("SCROLL-0", "SCROLL-2", "SCROLL-4");
+	}
+
+	@Test
+	void rejectsCursorsItCannotContinue() throws Exception {
+		String byPrice = cursorCodec.encode(Map.of("price", "1.00", "id", 1L), Sort.by("price").ascending());
+		String withoutScore = cursorCodec.encode(Map.of("id", 1L), Sort.unsorted());
+
+		mockMvc.perform(get("/api/v1/products/scroll").param("cursor", "garbage"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/v1/products/scroll").param("sortBy", "name").param("cursor", byPrice))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/v1/products/scroll").param("sortBy", "stockQuantity"))
+				.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/api/v1/products/search/scroll").param("q", "lamp").param("cursor", withoutScore))
+				.andExpect(status().isBadRequest());
+	}
+
+	private List<String> scroll(String uri) throws Exception {
+		List<String> codes = new ArrayList<>();
+		String cursor = null;
+		do {
+			var request = get(uri);
+			if (cursor != null) {
+				request.param("cursor", cursor);
+			}
+			JsonNode window = objectMapper.readTree(mockMvc.perform(request)
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString());
+			window.get("content").forEach(product -> codes.add(product.get("code").asText()));
+			cursor = window.get("hasNext").asBoolean() ? window.get("nextCursor").asText() : null;
+		} while (cursor != null);
+		return codes;
+	}
+}
@@ -0,0 +1,132 @@
+package com.example.productcatalogapi.controller;
+
+import com.example.productcatalogapi.dto.ProductRequestDTO;
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.dto.StockAdjustmentDTO;
+import com.example.productcatalogapi.dto.StockAdjustmentRequestDTO;
+import com.example.productcatalogapi.exception.InsufficientStockException;
+import com.example.productcatalogapi.repository.ProductRepository;
+import com.example.productcatalogapi.service.ProductService;
+import com.example.productcatalogapi.service.ProductStockService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductStockTests {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Autowired
+	ProductService productService;
+
+	@Autowired
+	ProductStockService productStockService;
+
+	@Autowired
+	ProductRepository productRepository;
+
+	@Test
+	void refusesToTakeStockBelowZero() throws Exception {
+		ProductResponseDTO product = create("STOCK-SINGLE", 3);
+
+		mockMvc.perform(patch("/api/v1/products/{id}/stock", product.getId()).param("delta", "-4"))
+				.andExpect(status().isConflict());
+		mockMvc.perform(patch("/api/v1/products/{id}/stock", product.getId()).param("delta", "-3"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.stockQuantity").value(0));
+	}
+
+	@Test
+	void atomicBatchRollsBackEveryItemWhenOneFails() throws Exception {
+		create("STOCK-A", 5);
+		create("STOCK-B", 1);
+
+		mockMvc.perform(adjustments(true, new StockAdjustmentDTO("STOCK-A", -2), new StockAdjustmentDTO("STOCK-B", -2),
+						new StockAdjustmentDTO("STOCK-MISSING", 1)))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.applied").value(false))
+				.andExpect(jsonPath("$.failed").value(2))
+				.andExpect(jsonPath("$.items[0].code").value("STOCK-A"))
+				.andExpect(jsonPath("$.items[0].status").value("ROLLED_BACK"))
+				.andExpect(jsonPath("$.items[0].stockQuantity").value(5))
+				.andExpect(jsonPath("$.items[1].status").value("INSUFFICIENT_STOCK"))
+				.andExpect(jsonPath("$.items[2].status").value("NOT_FOUND"));
+		assertThat(stock("STOCK-A")).isEqualTo(5);
+		assertThat(stock("STOCK-B")).isEqualTo(1);
+
+		mockMvc.perform(adjustments(false, new StockAdjustmentDTO("STOCK-A", -2), new StockAdjustmentDTO("STOCK-B", -2)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.adjusted").value(1))
+				.andExpect(jsonPath("$.items[0].status").value("ADJUSTED"))
+				.andExpect(jsonPath("$.items[1].status").value("INSUFFICIENT_STOCK"));
+		assertThat(stock("STOCK-A")).isEqualTo(3);
+		assertThat(stock("STOCK-B")).isEqualTo(1);
+	}
+
+	@Test
+	void concurrentReservationsNeverOversell() throws Exception {
+		ProductResponseDTO product = create("STOCK-RACE", 10);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Callable<Boolean>> reservations = new ArrayList<>();
+			for (int i = 0; i < 25; i++) {
+				reservations.add(() -> {
+					try {
+						productStockService.adjustStock(product.getId(), -1);
+						return true;
+					} catch (InsufficientStockException ex) {
+						return false;
+					}
+				});
+			}
+			int reserved = 0;
+			for (Future<Boolean> result : executor.invokeAll(reservations)) {
+				reserved += result.get() ? 1 : 0;
+			}
+			assertThat(reserved).isEqualTo(10);
+			assertThat(stock("STOCK-RACE")).isZero();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private ProductResponseDTO create(String code, int stock) {
+		return productService.createProduct(new ProductRequestDTO(code, "Product " + code, null, BigDecimal.TEN, null, stock, true));
+	}
+
+	private int stock(String code) {
+		return productRepository.findByCode(code).orElseThrow().getStockQuantity();
+	}
+
+	private RequestBuilder adjustments(boolean atomic, StockAdjustmentDTO... items) throws Exception {
+		return post("/api/v1/products/stock-adjustments")
+				.param("atomic", String.valueOf(atomic))
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(objectMapper.writeValueAsString(new StockAdjustmentRequestDTO(List.of(items))));
+	}
+}
@@ -0,0 +1,101 @@
+package com.example.productcatalogapi.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Two in-memory H2 databases stand in for the primary and a replica, each knows its own name
+class ReplicaRoutingDataSourceTests {
+
+	private DataSource primary;
+	private DataSource replica;
+
+	@BeforeEach
+	void createDatabases() {
+		primary = database("primary");
+		replica = database("replica");
+	}
+
+	@Test
+	void routesReadOnlyTransactionsToTheReplica() {
+		ReplicaRoutingDataSource routing = routing(Map.of("replica-0", replica), Duration.ZERO);
+
+		assertThat(read(routing, true)).isEqualTo("replica");
+		assertThat(read(routing, false)).isEqualTo("primary");
+		assertThat(new JdbcTemplate(new LazyConnectionDataSourceProxy(routing))
+				.queryForObject("SELECT name FROM node", String.class)).isEqualTo("primary");
+		assertThat(ReplicaRoutingDataSource.onPrimary(() -> read(routing, true))).isEqualTo("primary");
+	}
+
+	@Test
+	void readsYourWritesFromThePrimaryUntilTheWindowPasses() throws InterruptedException {
+		ReplicaRoutingDataSource routing = routing(Map.of("replica-0", replica), Duration.ofMillis(200));
+
+		routing.markWrite();
+		assertThat(read(routing, true)).isEqualTo("primary");
+
+		Thread.sleep(250);
+		assertThat(read(routing, true)).isEqualTo("replica");
+	}
+
+	@Test
+	void failsOverToThePrimaryWhenAReplicaIsDown() {
+		JdbcDataSource unreachable = new JdbcDataSource();
+		unreachable.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";IFEXISTS=TRUE");
+		ReplicaRoutingDataSource routing = routing(Map.of("replica-0", unreachable), Duration.ZERO);
+
+		assertThat(read(routing, true)).isEqualTo("primary");
+		assertThat(routing.getAvailableReplicas()).isEmpty();
+	}
+
+	@Test
+	void excludesReplicasThatLagTooFarBehind() {
+		ReplicaRoutingDataSource routing = routing(Map.of("replica-0", replica), Duration.ZERO);
+		new JdbcTemplate(replica).execute("CREATE TABLE lag (seconds INT)");
+		new JdbcTemplate(replica).update("INSERT INTO lag VALUES (30)");
+		ReplicaHealthMonitor monitor = new ReplicaHealthMonitor(routing, new SimpleMeterRegistry(),
+				Duration.ofSeconds(1), Duration.ofSeconds(5), "SELECT seconds FROM lag");
+
+		monitor.checkReplicas();
+		assertThat(routing.getAvailableReplicas()).isEmpty();
+		assertThat(read(routing, true)).isEqualTo("primary");
+
+		new JdbcTemplate(replica).update("UPDATE lag SET seconds = 1");
+		monitor.checkReplicas();
+		assertThat(routing.getAvailableReplicas()).containsExactly("replica-0");
+		assertThat(read(routing, true)).isEqualTo("replica");
+	}
+
+	private ReplicaRoutingDataSource routing(Map<String, DataSource> replicas, Duration readYourWrites) {
+		return new ReplicaRoutingDataSource(primary, replicas, readYourWrites, new SimpleMeterRegistry());
+	}
+
+	private static String read(ReplicaRoutingDataSource routing, boolean readOnly) {
+		DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+		TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+		transaction.setReadOnly(readOnly);
+		return transaction.execute(status ->
+				new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class));
+	}
+
+	private static DataSource database(String name) {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+		jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+		return dataSource;
+	}
+}
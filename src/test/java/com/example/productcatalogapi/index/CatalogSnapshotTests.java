@@ -0,0 +1,72 @@
+package com.example.productcatalogapi.index;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void readsBackWhatWasWritten() throws IOException {
+		List<ProductResponseDTO> products = List.of(
+				new ProductResponseDTO(1L, "P-1", "Lampe été", "Desk lamp", new BigDecimal("10.50"), "Home",
+						3, true, LocalDateTime.of(2024, 5, 1, 12, 0), LocalDateTime.of(2024, 5, 2, 8, 30, 15, 120_000)),
+				new ProductResponseDTO(2L, "P-2", "Chair", null, new BigDecimal("-1234567890123.4567"), null,
+						null, null, null, null));
+		Path file = dir.resolve("catalog.snapshot");
+		try (CatalogSnapshot.Writer writer = CatalogSnapshot.create(file, 42L)) {
+			products.forEach(writer::add);
+			writer.commit();
+		}
+
+		CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+		List<ProductResponseDTO> read = new ArrayList<>();
+		snapshot.forEach(read::add);
+
+		assertThat(snapshot.getSequence()).isEqualTo(42L);
+		assertThat(snapshot.getProductCount()).isEqualTo(2);
+		assertThat(read).isEqualTo(products);
+	}
+
+	@Test
+	void keepsThePreviousFileUntilCommit() throws IOException {
+		Path file = dir.resolve("catalog.snapshot");
+		try (CatalogSnapshot.Writer writer = CatalogSnapshot.create(file, 1L)) {
+			writer.commit();
+		}
+		try (CatalogSnapshot.Writer writer = CatalogSnapshot.create(file, 2L)) {
+			writer.add(new ProductResponseDTO(1L, "P-1", "Lamp", null, BigDecimal.ONE, null, 1, true, null, null));
+		}
+
+		assertThat(CatalogSnapshot.open(file).getSequence()).isEqualTo(1L);
+		assertThat(dir.resolve("catalog.snapshot.tmp")).doesNotExist();
+	}
+
+	@Test
+	void rejectsACorruptFile() throws IOException {
+		Path file = dir.resolve("catalog.snapshot");
+		try (CatalogSnapshot.Writer writer = CatalogSnapshot.create(file, 1L)) {
+			writer.add(new ProductResponseDTO(1L, "P-1", "Lamp", null, BigDecimal.ONE, null, 1, true, null, null));
+			writer.commit();
+		}
+		byte[] bytes = Files.readAllBytes(file);
+		bytes[30] ^= 1;
+		Files.write(file, bytes);
+
+		assertThatThrownBy(() -> CatalogSnapshot.open(file)).isInstanceOf(IOException.class);
+	}
+}
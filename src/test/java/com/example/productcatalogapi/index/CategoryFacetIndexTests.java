@@ -0,0 +1,42 @@
+package com.example.productcatalogapi.index;
+
+import com.example.productcatalogapi.dto.CategoryFacetDTO;
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.event.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CategoryFacetIndexTests {
+
+	private final CategoryFacetIndex index = new CategoryFacetIndex();
+
+	@Test
+	void tracksCountsAcrossCategoryAndActivationChanges() {
+		index.beginLoad();
+		index.load(product(1L, "Phones", true));
+		index.load(product(2L, "Phones", false));
+		index.load(product(3L, null, true));
+		index.finishLoad();
+
+		assertThat(index.getCategories()).containsExactly("Phones");
+		assertThat(index.getFacets()).containsExactly(new CategoryFacetDTO("Phones", 2, 1));
+
+		index.onProductChanged(ProductChangedEvent.updated(product(2L, "Phones", false), product(2L, "Audio", true)));
+		index.onProductChanged(ProductChangedEvent.created(product(4L, "Phones", true)));
+		index.onProductChanged(ProductChangedEvent.deleted(product(1L, "Phones", true)));
+
+		assertThat(index.getCategories()).containsExactly("Audio", "Phones");
+		assertThat(index.getFacets()).containsExactly(
+				new CategoryFacetDTO("Audio", 1, 1),
+				new CategoryFacetDTO("Phones", 1, 1));
+	}
+
+	private static ProductResponseDTO product(Long id, String category, boolean active) {
+		ProductResponseDTO product = new ProductResponseDTO();
+		product.setId(id);
+		product.setCategory(category);
+		product.setIsActive(active);
+		return product;
+	}
+}
@@ -0,0 +1,75 @@
+package com.example.productcatalogapi.index;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.event.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductRangeIndexTests {
+
+	private final ProductRangeIndex index = new ProductRangeIndex();
+
+	@Test
+	void pagesByPriceAndLowStockAcrossChanges() {
+		index.beginLoad();
+		index.load(product(1L, "9.99", 5, true));
+		index.load(product(2L, "1.50", 0, true));
+		index.load(product(3L, "9.99", 2, false));
+		index.load(product(4L, "20.00", null, true));
+		index.finishLoad();
+
+		ProductRangeIndex.RangePage page = index.findByPriceBetween(new BigDecimal("1.5"), new BigDecimal("10"), 0, 2, false);
+		assertThat(page.getIds()).containsExactly(2L, 1L);
+		assertThat(page.getTotal()).isEqualTo(3);
+		assertThat(index.findByPriceBetween(new BigDecimal("1.501"), new BigDecimal("9.989"), 0, 10, true).getIds()).isEmpty();
+		assertThat(index.findByPriceBetween(BigDecimal.ZERO, new BigDecimal("100"), 1, 10, true).getIds()).containsExactly(3L, 1L, 2L);
+		assertThat(index.findLowStock(5, 0, 10).getIds()).containsExactly(2L, 1L);
+
+		index.onProductChanged(ProductChangedEvent.updated(product(2L, "1.50", 0, true), product(2L, "30.00", 8, true)));
+		index.onProductChanged(ProductChangedEvent.deleted(product(1L, "9.99", 5, true)));
+
+		assertThat(index.findByPriceBetween(BigDecimal.ZERO, new BigDecimal("100"), 0, 10, false).getIds()).containsExactly(3L, 4L, 2L);
+		assertThat(index.findLowStock(5, 0, 10).getIds()).isEmpty();
+		assertThat(index.findLowStock(8, 0, 10).getIds()).containsExactly(2L);
+	}
+
+	@Test
+	void boundsBeyondAnyPriceMatchEverythingOnThatSide() {
+		index.beginLoad();
+		index.load(product(1L, "9.99", 5, true));
+		index.finishLoad();
+
+		assertThat(index.findByPriceBetween(new BigDecimal("-1e30"), new BigDecimal("1e30"), 0, 10, false).getIds()).containsExactly(1L);
+		assertThat(index.findByPriceBetween(new BigDecimal("1e30"), new BigDecimal("1e31"), 0, 10, false).getIds()).isEmpty();
+	}
+
+	@Test
+	void stopsCountingPastTheRequestedPage() {
+		index.beginLoad();
+		for (long id = 1; id <= ProductRangeIndex.MAX_COUNTED + 500; id++) {
+			index.load(product(id, "1.00", 1, true));
+		}
+		index.finishLoad();
+
+		ProductRangeIndex.RangePage first = index.findLowStock(1, 0, 10);
+		assertThat(first.getIds()).hasSize(10);
+		assertThat(first.getTotal()).isEqualTo(ProductRangeIndex.MAX_COUNTED);
+
+		//Deep pages still see the page after them
+		ProductRangeIndex.RangePage deep = index.findByPriceBetween(BigDecimal.ZERO, BigDecimal.TEN, ProductRangeIndex.MAX_COUNTED, 100, false);
+		assertThat(deep.getIds()).hasSize(100);
+		assertThat(deep.getTotal()).isEqualTo(ProductRangeIndex.MAX_COUNTED + 101);
+	}
+
+	private static ProductResponseDTO product(Long id, String price, Integer stock, boolean active) {
+		ProductResponseDTO product = new ProductResponseDTO();
+		product.setId(id);
+		product.setPrice(new BigDecimal(price));
+		product.setStockQuantity(stock);
+		product.setIsActive(active);
+		return product;
+	}
+}
@@ -0,0 +1,61 @@
+package com.example.productcatalogapi.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RequestQueryMetricsTests {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@Test
+	void recordsTheQueriesOfAStreamingExportOnce() throws Exception {
+		MvcResult result = mockMvc.perform(get("/api/v1/products/export").param("format", "csv"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		result.getAsyncResult();
+		assertThat(summary()).isNull();
+
+		mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+		DistributionSummary statements = summary();
+		assertThat(statements).isNotNull();
+		assertThat(statements.count()).isEqualTo(1);
+		assertThat(statements.totalAmount()).isPositive();
+	}
+
+	@Test
+	void countedTasksStartAndEndAtZero() {
+		QueryCounter.statementExecuted();
+		long[] seen = new long[1];
+
+		QueryCounter.counted(() -> {
+			seen[0] = QueryCounter.getStatements();
+			QueryCounter.statementExecuted();
+		}).run();
+
+		assertThat(seen[0]).isZero();
+		assertThat(QueryCounter.getStatements()).isZero();
+	}
+
+	private DistributionSummary summary() {
+		return meterRegistry.find("catalog.jdbc.statements").tag("uri", "/api/v1/products/export").summary();
+	}
+}
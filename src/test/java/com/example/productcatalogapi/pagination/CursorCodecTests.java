@@ -0,0 +1,65 @@
+package com.example.productcatalogapi.pagination;
+
+import com.example.productcatalogapi.exception.InvalidCursorException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorCodecTests {
+
+	private final CursorCodec codec = new CursorCodec(new ObjectMapper().registerModule(new JavaTimeModule()));
+
+	@Test
+	void roundTripsTypedSortKeys() {
+		Sort sort = Sort.by(Sort.Order.desc("price"), Sort.Order.asc("createdAt"));
+		Map<String, Object> keys = new LinkedHashMap<>();
+		keys.put("price", new BigDecimal("9.90"));
+		keys.put("createdAt", LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123_000));
+		keys.put("id", 42L);
+
+		ScrollPosition position = codec.decode(codec.encode(keys, sort), sort);
+
+		assertThat(((KeysetScrollPosition) position).getKeys()).isEqualTo(keys);
+		assertThat(codec.decode(null, sort)).isEqualTo(ScrollPosition.keyset());
+	}
+
+	@Test
+	void rejectsTokensItCannotSeekFrom() {
+		Sort byPrice = Sort.by("price");
+		String cursor = codec.encode(Map.of("price", "1.00", "id", 1L), byPrice);
+
+		assertThatThrownBy(() -> codec.decode(cursor, Sort.by("name")))
+				.isInstanceOf(InvalidCursorException.class).hasMessageContaining("different sort");
+		assertThatThrownBy(() -> codec.decode("not a cursor!", byPrice))
+				.isInstanceOf(InvalidCursorException.class).hasMessage("Malformed cursor");
+		assertThatThrownBy(() -> codec.decode(codec.encode(Map.of("price", "cheap", "id", 1L), byPrice), byPrice))
+				.isInstanceOf(InvalidCursorException.class);
+		assertThatThrownBy(() -> codec.decode(codec.encode(Map.of("id", 1L), byPrice), byPrice))
+				.isInstanceOf(InvalidCursorException.class);
+		assertThatThrownBy(() -> codec.decode(codec.encode(Map.of("price", "1.00"), byPrice), byPrice))
+				.isInstanceOf(InvalidCursorException.class);
+		String unknownKey = Base64.getUrlEncoder().encodeToString(
+				"{\"s\":\"price: ASC\",\"k\":{\"stock\":\"1\",\"id\":\"1\"}}".getBytes(StandardCharsets.UTF_8));
+		assertThatThrownBy(() -> codec.decode(unknownKey, byPrice)).isInstanceOf(InvalidCursorException.class);
+	}
+
+	@Test
+	void acceptsOnlySortsTheSeekSupports() {
+		assertThat(codec.validateSort(Sort.by("name", "id"))).isEqualTo(Sort.by("name", "id"));
+		assertThatThrownBy(() -> codec.validateSort(Sort.by("stockQuantity"))).isInstanceOf(InvalidCursorException.class);
+		assertThatThrownBy(() -> codec.validateSort(Sort.by("score"))).isInstanceOf(InvalidCursorException.class);
+	}
+}
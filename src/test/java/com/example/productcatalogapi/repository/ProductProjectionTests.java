@@ -0,0 +1,23 @@
+package com.example.productcatalogapi.repository;
+
+import com.example.productcatalogapi.exception.InvalidViewException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductProjectionTests {
+
+	@Test
+	void resolvesKnownViews() {
+		assertThat(ProductProjection.of("full")).isSameAs(ProductProjection.DETAIL);
+		assertThat(ProductProjection.of("SUMMARY")).isSameAs(ProductProjection.SUMMARY);
+	}
+
+	@Test
+	void rejectsUnknownViews() {
+		assertThatThrownBy(() -> ProductProjection.of("summry"))
+				.isInstanceOf(InvalidViewException.class)
+				.hasMessageContaining("summry");
+	}
+}
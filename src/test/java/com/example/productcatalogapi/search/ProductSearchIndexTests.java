@@ -0,0 +1,58 @@
+package com.example.productcatalogapi.search;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductSearchIndexTests {
+
+	private final ProductSearchIndex index = new ProductSearchIndex();
+
+	@Test
+	void ranksNameMatchesAboveDescriptionMatches() {
+		index.index(product(1L, "Charging cable", "Works with any wireless phone"));
+		index.index(product(2L, "Wireless phone", "Latest model"));
+		index.index(product(3L, "Desk lamp", "Warm light"));
+
+		assertThat(ids(index.search("wireless phone"))).containsExactly(2L, 1L);
+	}
+
+	@Test
+	void matchesTokenPrefixesAndRequiresAllTerms() {
+		index.index(product(1L, "Smartwatch band", null));
+		index.index(product(2L, "Smart speaker", null));
+
+		assertThat(ids(index.search("smart"))).containsExactly(2L, 1L);
+		assertThat(ids(index.search("smart speaker"))).containsExactly(2L);
+		assertThat(index.search("lamp")).isEmpty();
+	}
+
+	@Test
+	void reindexingAndRemovalKeepPostingsCurrent() {
+		index.index(product(1L, "Red mug", null));
+		index.index(product(1L, "Blue mug", null));
+
+		assertThat(index.search("red")).isEmpty();
+		assertThat(ids(index.search("blue"))).containsExactly(1L);
+
+		index.remove(1L);
+		assertThat(index.search("mug")).isEmpty();
+		assertThat(index.size()).isZero();
+	}
+
+	private static List<Long> ids(List<SearchHit> hits) {
+		return hits.stream().map(SearchHit::getProductId).collect(Collectors.toList());
+	}
+
+	private static ProductResponseDTO product(Long id, String name, String description) {
+		ProductResponseDTO product = new ProductResponseDTO();
+		product.setId(id);
+		product.setName(name);
+		product.setDescription(description);
+		return product;
+	}
+}
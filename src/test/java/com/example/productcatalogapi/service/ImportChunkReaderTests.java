@@ -0,0 +1,77 @@
+package com.example.productcatalogapi.service;
+
+import com.example.productcatalogapi.dto.ImportFormat;
+import com.example.productcatalogapi.dto.ProductRequestDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImportChunkReaderTests {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void cutsWholeRecordsAndResumesAtTheChunkEnd() throws IOException {
+		Path file = write("\uFEFFcode,name,price\r\n" +
+				"A,\"Phone\nwith two lines\",1.00\r\n" +
+				"\r\n" +
+				"B,\"Cable, \"\"long\"\"\",2.00\n" +
+				"C,Charger,3.00");
+
+		ImportChunkReader.Chunk header;
+		ImportChunkReader.Chunk first;
+		try (ImportChunkReader reader = new ImportChunkReader(file, 0, 0, ImportFormat.CSV)) {
+			header = reader.next(1);
+			first = reader.next(2);
+		}
+		assertThat(header.record(0)).isEqualTo("code,name,price");
+		assertThat(first.size()).isEqualTo(2);
+		assertThat(first.record(0)).isEqualTo("A,\"Phone\nwith two lines\",1.00");
+		assertThat(first.record(1)).isEqualTo("B,\"Cable, \"\"long\"\"\",2.00");
+
+		try (ImportChunkReader reader = new ImportChunkReader(file, first.endOffset(), 2, ImportFormat.CSV)) {
+			ImportChunkReader.Chunk last = reader.next(2);
+			assertThat(last.firstIndex()).isEqualTo(2);
+			assertThat(last.size()).isEqualTo(1);
+			assertThat(last.record(0)).isEqualTo("C,Charger,3.00");
+			assertThat(last.endOffset()).isEqualTo(Files.size(file));
+			assertThat(reader.next(2)).isNull();
+		}
+	}
+
+	@Test
+	void stopsAtARecordThatNeverEnds() throws IOException {
+		Path file = write("code,name,price\nA,\"Phone," + "x".repeat(ImportChunkReader.MAX_RECORD_BYTES) + "\n");
+
+		try (ImportChunkReader reader = new ImportChunkReader(file, 0, 0, ImportFormat.CSV)) {
+			reader.next(1);
+			assertThatThrownBy(() -> reader.next(10)).hasMessageContaining("unbalanced quote");
+		}
+	}
+
+	@Test
+	void parsesCsvColumnsByHeaderName() {
+		ImportRecordParser parser = ImportRecordParser.csv("id,CODE,name,description,price,category,stock_quantity,isActive,createdAt");
+
+		ProductRequestDTO product = parser.parse("7,P-1,\"Phone, black\",,9.90,Phones,,FALSE,2024-01-01T00:00");
+		assertThat(product).isEqualTo(new ProductRequestDTO("P-1", "Phone, black", null, new BigDecimal("9.90"),
+				"Phones", 0, false));
+
+		assertThatThrownBy(() -> parser.parse("7,P-1,Phone,,cheap,Phones,1,true,")).hasMessage("price: 'cheap' is not a number");
+		assertThatThrownBy(() -> parser.parse("7,P-1,Phone")).hasMessage("Expected 9 fields but found 3");
+		assertThatThrownBy(() -> ImportRecordParser.csv("code,name")).hasMessage("CSV header has no price column");
+	}
+
+	private Path write(String content) throws IOException {
+		return Files.writeString(directory.resolve("import.csv"), content, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,65 @@
+package com.example.productcatalogapi.service;
+
+import com.example.productcatalogapi.dto.ExportFormat;
+import com.example.productcatalogapi.dto.ProductRequestDTO;
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ProductExportServiceTests {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	ProductService productService;
+
+	@Autowired
+	ProductExportService productExportService;
+
+	@Test
+	void quotesCsvFieldsWithSeparatorsQuotesAndLineBreaks() {
+		ProductResponseDTO product = productService.createProduct(new ProductRequestDTO("EXPORT-CSV-1",
+				"Chair, \"oak\"", "Solid oak.\nSeats one, \"comfortably\"", new BigDecimal("49.50"),
+				"ExportCsv", 3, true));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long written = productExportService.export(ExportFormat.CSV, "ExportCsv", null, null, null, out);
+
+		assertThat(written).isEqualTo(1);
+		String csv = out.toString(StandardCharsets.UTF_8);
+		assertThat(csv).startsWith(
+				"id,code,name,description,price,category,stockQuantity,isActive,createdAt,updatedAt\n" +
+				product.getId() + ",EXPORT-CSV-1,\"Chair, \"\"oak\"\"\",\"Solid oak.\nSeats one, \"\"comfortably\"\"\"," +
+				"49.50,ExportCsv,3,true,");
+		//Header, one record spanning two lines because of the quoted line break
+		assertThat(csv.split("\n")).hasSize(3);
+	}
+
+	@Test
+	void rejectsAnUnknownExportFormat() throws Exception {
+		mockMvc.perform(get("/api/v1/products/export").param("format", "xml"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void acceptsLowerCaseExportFormats() throws Exception {
+		mockMvc.perform(get("/api/v1/products/export").param("format", "csv").param("category", "ExportNone"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Type", "text/csv"));
+	}
+}
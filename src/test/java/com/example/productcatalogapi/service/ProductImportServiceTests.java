@@ -0,0 +1,153 @@
+package com.example.productcatalogapi.service;
+
+import com.example.productcatalogapi.dto.BulkItemResultDTO;
+import com.example.productcatalogapi.dto.BulkMode;
+import com.example.productcatalogapi.dto.ImportFormat;
+import com.example.productcatalogapi.dto.ImportStatus;
+import com.example.productcatalogapi.dto.ProductImportDTO;
+import com.example.productcatalogapi.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+@SpringBootTest(properties = {
+		"catalog.import.dir=target/test-imports",
+		"catalog.import.chunk-size=2",
+		"catalog.import.max-pending-chunks=1"
+})
+class ProductImportServiceTests {
+
+	@Autowired
+	ProductImportService importService;
+
+	@Autowired
+	ProductRepository productRepository;
+
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@MockitoSpyBean
+	ProductBulkService productBulkService;
+
+	@Test
+	void resumesAfterTheLastCommittedChunkWithoutDuplicatesOrLostErrors() throws Exception {
+		//The third chunk fails after its products and error lines were written, so all of it rolls back
+		AtomicInteger chunks = new AtomicInteger();
+		doAnswer(invocation -> {
+			if (chunks.incrementAndGet() == 3) {
+				Function<Object, Object> afterWrite = invocation.getArgument(2);
+				invocation.getRawArguments()[2] = (Function<Object, Object>) results -> {
+					afterWrite.apply(results);
+					throw new IllegalStateException("Simulated failure");
+				};
+			}
+			return invocation.callRealMethod();
+		}).when(productBulkService).writeChunk(anyList(), any(BulkMode.class), any());
+
+		String file = String.join("\n",
+				record("IMPORT-RESUME-0"), record("IMPORT-RESUME-1"),
+				record("IMPORT-RESUME-2"), "{\"code\":\"IMPORT-RESUME-3\"}",
+				record("IMPORT-RESUME-4"), "{\"code\":\"IMPORT-RESUME-5\"}",
+				record("IMPORT-RESUME-6"), record("IMPORT-RESUME-6")) + "\n";
+		ProductImportDTO started = importService.startImport(ImportFormat.NDJSON, BulkMode.CREATE,
+				new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)));
+
+		ProductImportDTO failed = await(started.getId());
+		assertThat(failed.getStatus()).isEqualTo(ImportStatus.FAILED);
+		assertThat(failed.getRows()).isEqualTo(4);
+		assertThat(productRepository.findByCode("IMPORT-RESUME-4")).isEmpty();
+		assertThat(errorIndexes(started.getId())).containsExactly(3);
+
+		importService.resumeImport(started.getId());
+		ProductImportDTO completed = await(started.getId());
+
+		assertThat(completed.getStatus()).isEqualTo(ImportStatus.COMPLETED);
+		assertThat(completed.getRows()).isEqualTo(8);
+		assertThat(completed.getCreated()).isEqualTo(5);
+		assertThat(completed.getFailed()).isEqualTo(3);
+		assertThat(errorIndexes(started.getId())).containsExactly(3, 5, 7);
+		assertThat(productRepository.findByCode("IMPORT-RESUME-4")).isPresent();
+	}
+
+	@Test
+	void pausesARunningImportAfterItsCurrentChunk() throws Exception {
+		//The pause arrives while the second chunk is being written
+		AtomicInteger chunks = new AtomicInteger();
+		AtomicReference<ProductImportDTO> pausedWhileRunning = new AtomicReference<>();
+		doAnswer(invocation -> {
+			if (chunks.incrementAndGet() == 2) {
+				Long id = importService.getImports(1).get(0).getId();
+				CompletableFuture.runAsync(() -> pausedWhileRunning.set(importService.pauseImport(id)))
+						.get(5, TimeUnit.SECONDS);
+			}
+			return invocation.callRealMethod();
+		}).when(productBulkService).writeChunk(anyList(), any(BulkMode.class), any());
+
+		StringBuilder file = new StringBuilder();
+		for (int i = 0; i < 8; i++) {
+			file.append(record("IMPORT-PAUSE-" + i)).append('\n');
+		}
+		ProductImportDTO started = importService.startImport(ImportFormat.NDJSON, BulkMode.CREATE,
+				new ByteArrayInputStream(file.toString().getBytes(StandardCharsets.UTF_8)));
+
+		ProductImportDTO paused = await(started.getId());
+		assertThat(pausedWhileRunning.get().getStatus()).isEqualTo(ImportStatus.RUNNING);
+		assertThat(paused.getStatus()).isEqualTo(ImportStatus.PAUSED);
+		assertThat(paused.getRows()).isEqualTo(4);
+		assertThat(paused.getCreated()).isEqualTo(4);
+
+		importService.resumeImport(started.getId());
+		ProductImportDTO completed = await(started.getId());
+
+		assertThat(completed.getStatus()).isEqualTo(ImportStatus.COMPLETED);
+		assertThat(completed.getRows()).isEqualTo(8);
+		assertThat(completed.getCreated()).isEqualTo(8);
+		assertThat(completed.getFailed()).isZero();
+		assertThat(chunks.get()).isEqualTo(4);
+	}
+
+	private ProductImportDTO await(Long id) throws InterruptedException {
+		for (int i = 0; i < 200; i++) {
+			ProductImportDTO current = importService.getImport(id);
+			if (current.getStatus() != ImportStatus.QUEUED && current.getStatus() != ImportStatus.RUNNING) {
+				return current;
+			}
+			Thread.sleep(50);
+		}
+		throw new AssertionError("Import " + id + " did not stop");
+	}
+
+	private List<Integer> errorIndexes(Long id) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		importService.writeErrors(id, out);
+		List<Integer> indexes = new ArrayList<>();
+		for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+			if (!line.isEmpty()) {
+				indexes.add(objectMapper.readValue(line, BulkItemResultDTO.class).getIndex());
+			}
+		}
+		return indexes;
+	}
+
+	private static String record(String code) {
+		return "{\"code\":\"" + code + "\",\"name\":\"Import " + code + "\",\"price\":4.50,\"stockQuantity\":2}";
+	}
+}
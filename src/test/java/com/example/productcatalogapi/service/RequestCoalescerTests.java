@@ -0,0 +1,121 @@
+package com.example.productcatalogapi.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RequestCoalescerTests {
+
+	private final List<Set<Long>> loads = new CopyOnWriteArrayList<>();
+	private final CountDownLatch release = new CountDownLatch(1);
+	private final ExecutorService callers = Executors.newFixedThreadPool(8);
+
+	@Test
+	void identicalCallsShareOneLoad() throws Exception {
+		RequestCoalescer<Long, String> coalescer = coalescer(Duration.ZERO, this::blockingLoad);
+
+		List<CompletableFuture<String>> results = call(coalescer, List.of(7L, 7L, 7L, 7L));
+		awaitLoads(1);
+		release.countDown();
+
+		assertThat(results).allSatisfy(result -> assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("product-7"));
+		assertThat(loads).containsExactly(Set.of(7L));
+		assertThat(coalescer.getStats().getSaved()).isEqualTo(3);
+		callers.shutdown();
+	}
+
+	@Test
+	void loneMissDoesNotWaitForTheWindow() throws Exception {
+		release.countDown();
+		RequestCoalescer<Long, String> coalescer = coalescer(Duration.ofSeconds(10), this::blockingLoad);
+
+		List<CompletableFuture<String>> results = call(coalescer, List.of(1L));
+
+		assertThat(results.get(0).get(2, TimeUnit.SECONDS)).isEqualTo("product-1");
+		assertThat(loads).containsExactly(Set.of(1L));
+		callers.shutdown();
+	}
+
+	@Test
+	void distinctCallsWhileALoadRunsShareOneBatch() throws Exception {
+		RequestCoalescer<Long, String> coalescer = coalescer(Duration.ofSeconds(10), this::blockingLoad);
+
+		List<CompletableFuture<String>> results = call(coalescer, List.of(1L, 2L, 3L, 4L));
+		awaitLoads(2);
+		release.countDown();
+
+		assertThat(results.get(0).get(5, TimeUnit.SECONDS)).isEqualTo("product-1");
+		assertThat(results.get(3).get(5, TimeUnit.SECONDS)).isEqualTo("product-4");
+		//The second batch filled up to max-batch and did not wait out the window
+		assertThat(loads).containsExactly(Set.of(1L), Set.of(2L, 3L, 4L));
+		callers.shutdown();
+	}
+
+	@Test
+	void failuresReachEveryCallerAndForgottenKeysLoadAgain() throws Exception {
+		RequestCoalescer<Long, String> failing = coalescer(Duration.ZERO, ids -> {
+			blockingLoad(ids);
+			throw new IllegalStateException("database down");
+		});
+		List<CompletableFuture<String>> results = call(failing, List.of(5L, 5L));
+		awaitLoads(1);
+		failing.forget(5L);
+		List<CompletableFuture<String>> later = call(failing, List.of(5L));
+		awaitLoads(2);
+		release.countDown();
+
+		for (CompletableFuture<String> result : List.of(results.get(0), results.get(1), later.get(0))) {
+			assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasRootCauseMessage("database down");
+		}
+		assertThat(loads).hasSize(2);
+		callers.shutdown();
+	}
+
+	private RequestCoalescer<Long, String> coalescer(Duration window, Function<Set<Long>, Map<Long, String>> loader) {
+		return new RequestCoalescer<>("test", loader, window, 3, new SimpleMeterRegistry());
+	}
+
+	private Map<Long, String> blockingLoad(Set<Long> ids) {
+		loads.add(Set.copyOf(ids));
+		try {
+			release.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		return ids.stream().collect(Collectors.toMap(Function.identity(), id -> "product-" + id));
+	}
+
+	//Starts one caller per key, a moment apart so the first one leads
+	private List<CompletableFuture<String>> call(RequestCoalescer<Long, String> coalescer, List<Long> keys)
+			throws InterruptedException {
+		List<CompletableFuture<String>> results = new CopyOnWriteArrayList<>();
+		for (int i : IntStream.range(0, keys.size()).toArray()) {
+			results.add(CompletableFuture.supplyAsync(() -> coalescer.get(keys.get(i)), callers));
+			Thread.sleep(50);
+		}
+		return results;
+	}
+
+	private void awaitLoads(int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (loads.size() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+}
@@ -0,0 +1,138 @@
+package com.example.productcatalogapi.service;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.dto.StockAdjustmentDTO;
+import com.example.productcatalogapi.dto.StockAdjustmentResultDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StockWriteBehindQueueTests {
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void mergesDeltasPerCodeUntilFlushed() {
+		ProductStockService stockService = mock(ProductStockService.class);
+		when(stockService.applyDeltas(any(List.class))).thenReturn(new StockAdjustmentResultDTO(true, 2, 0, List.of()));
+		StockWriteBehindQueue queue = new StockWriteBehindQueue(stockService, new SimpleMeterRegistry(), true, Duration.ofHours(1), 1000);
+		queue.start();
+		try {
+			queue.submit(List.of(new StockAdjustmentDTO("A", -2), new StockAdjustmentDTO("B", 5)));
+			queue.submit(List.of(new StockAdjustmentDTO("A", -3)));
+			verify(stockService, never()).applyDeltas(any(List.class));
+			assertThat(queue.withPendingStock(product("A", 10)).getStockQuantity()).isEqualTo(5);
+
+			queue.flush();
+
+			ArgumentCaptor<List<StockAdjustmentDTO>> batch = ArgumentCaptor.forClass(List.class);
+			verify(stockService, times(1)).applyDeltas(batch.capture());
+			assertThat(batch.getValue()).containsExactlyInAnyOrder(new StockAdjustmentDTO("A", -5), new StockAdjustmentDTO("B", 5));
+			assertThat(queue.withPendingStock(product("A", 10)).getStockQuantity()).isEqualTo(10);
+		} finally {
+			queue.stop();
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void keepsDeltasWhenAFlushFails() {
+		ProductStockService stockService = mock(ProductStockService.class);
+		when(stockService.applyDeltas(any(List.class)))
+				.thenThrow(new IllegalStateException("Could not serialize change"))
+				.thenReturn(new StockAdjustmentResultDTO(true, 1, 0, List.of()));
+		StockWriteBehindQueue queue = new StockWriteBehindQueue(stockService, new SimpleMeterRegistry(), true, Duration.ofHours(1), 1000);
+		queue.start();
+		try {
+			queue.submit(List.of(new StockAdjustmentDTO("A", -2)));
+
+			queue.flush();
+			assertThat(queue.hasPendingStock("A")).isTrue();
+			queue.flush();
+
+			ArgumentCaptor<List<StockAdjustmentDTO>> batch = ArgumentCaptor.forClass(List.class);
+			verify(stockService, times(2)).applyDeltas(batch.capture());
+			assertThat(batch.getAllValues().get(1)).containsExactly(new StockAdjustmentDTO("A", -2));
+			assertThat(queue.hasPendingStock()).isFalse();
+		} finally {
+			queue.stop();
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void flushesEarlyOnceMaxPendingProductsHaveDeltas() {
+		ProductStockService stockService = mock(ProductStockService.class);
+		when(stockService.applyDeltas(any(List.class))).thenReturn(new StockAdjustmentResultDTO(true, 2, 0, List.of()));
+		StockWriteBehindQueue queue = new StockWriteBehindQueue(stockService, new SimpleMeterRegistry(), true, Duration.ofHours(1), 2);
+		queue.start();
+		try {
+			//Many deltas for one product are still one pending update
+			for (int i = 0; i < 5; i++) {
+				queue.submit(List.of(new StockAdjustmentDTO("A", -1)));
+			}
+			verify(stockService, after(200).never()).applyDeltas(any(List.class));
+
+			queue.submit(List.of(new StockAdjustmentDTO("B", 1)));
+
+			ArgumentCaptor<List<StockAdjustmentDTO>> batch = ArgumentCaptor.forClass(List.class);
+			verify(stockService, timeout(5000)).applyDeltas(batch.capture());
+			assertThat(batch.getValue()).containsExactlyInAnyOrder(new StockAdjustmentDTO("A", -5), new StockAdjustmentDTO("B", 1));
+		} finally {
+			queue.stop();
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void sumsBeyondTheIntRangeAreWrittenInParts() {
+		ProductStockService stockService = mock(ProductStockService.class);
+		when(stockService.applyDeltas(any(List.class))).thenReturn(new StockAdjustmentResultDTO(true, 1, 0, List.of()));
+		StockWriteBehindQueue queue = new StockWriteBehindQueue(stockService, new SimpleMeterRegistry(), true, Duration.ofHours(1), 1000);
+		queue.start();
+		try {
+			queue.submit(List.of(new StockAdjustmentDTO("A", Integer.MIN_VALUE), new StockAdjustmentDTO("A", -10)));
+			assertThat(queue.withPendingStock(product("A", 10)).getStockQuantity()).isZero();
+
+			queue.flush();
+			queue.flush();
+
+			ArgumentCaptor<List<StockAdjustmentDTO>> batch = ArgumentCaptor.forClass(List.class);
+			verify(stockService, times(2)).applyDeltas(batch.capture());
+			assertThat(batch.getAllValues()).containsExactly(List.of(new StockAdjustmentDTO("A", Integer.MIN_VALUE)),
+					List.of(new StockAdjustmentDTO("A", -10)));
+		} finally {
+			queue.stop();
+		}
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void appliesImmediatelyWhenDisabled() {
+		ProductStockService stockService = mock(ProductStockService.class);
+		StockWriteBehindQueue queue = new StockWriteBehindQueue(stockService, new SimpleMeterRegistry(), false, Duration.ofHours(1), 1000);
+		queue.start();
+
+		queue.submit(List.of(new StockAdjustmentDTO("A", -2)));
+
+		verify(stockService, times(1)).applyDeltas(any(List.class));
+		assertThat(queue.isRunning()).isFalse();
+	}
+
+	private static ProductResponseDTO product(String code, int stock) {
+		return new ProductResponseDTO(1L, code, "Product " + code, null, BigDecimal.ONE, null, stock, true, null, null);
+	}
+}
@@ -0,0 +1,58 @@
+package com.example.productcatalogapi.web;
+
+import com.example.productcatalogapi.dto.ProductRequestDTO;
+import com.example.productcatalogapi.dto.StockAdjustmentDTO;
+import com.example.productcatalogapi.service.ProductService;
+import com.example.productcatalogapi.service.StockWriteBehindQueue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//Deltas stay pending for the whole test
+@SpringBootTest(properties = {
+		"catalog.etag.refresh-interval=0s",
+		"catalog.stock.write-behind.enabled=true",
+		"catalog.stock.write-behind.flush-interval=1h"
+})
+@AutoConfigureMockMvc
+class BatchETagWriteBehindTests {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	ProductService productService;
+
+	@Autowired
+	StockWriteBehindQueue stockWriteBehindQueue;
+
+	@Test
+	void pendingStockIsNotAnsweredWith304() throws Exception {
+		productService.createProduct(new ProductRequestDTO("ETAG-BATCH", "ETag batch",
+				null, new BigDecimal("5.00"), "ETag", 10, true));
+		String eTag = mockMvc.perform(get("/api/v1/products/batch").param("codes", "ETAG-BATCH"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(eTag).startsWith("W/\"");
+
+		stockWriteBehindQueue.submit(List.of(new StockAdjustmentDTO("ETAG-BATCH", -3)));
+
+		mockMvc.perform(get("/api/v1/products/batch").param("codes", "ETAG-BATCH")
+						.header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.ETAG))
+				.andExpect(jsonPath("$[0].product.stockQuantity").value(7));
+	}
+}
@@ -0,0 +1,81 @@
+package com.example.productcatalogapi.web;
+
+import com.example.productcatalogapi.dto.ProductRequestDTO;
+import com.example.productcatalogapi.index.CatalogVersion;
+import com.example.productcatalogapi.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "catalog.etag.refresh-interval=0s")
+@AutoConfigureMockMvc
+class CatalogETagTests {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	ProductService productService;
+
+	@Autowired
+	CatalogVersion catalogVersion;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Test
+	void answersAnUnchangedListWith304() throws Exception {
+		String eTag = eTag();
+
+		mockMvc.perform(get("/api/v1/products/categories").header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	void localWriteChangesTheETag() throws Exception {
+		String eTag = eTag();
+		long version = catalogVersion.getVersion();
+
+		productService.createProduct(new ProductRequestDTO("ETAG-LOCAL", "ETag local",
+				null, new BigDecimal("5.00"), "ETag", 1, true));
+
+		assertThat(catalogVersion.getVersion()).isGreaterThan(version);
+		assertThat(catalogVersion.getLastModified()).isPositive();
+		mockMvc.perform(get("/api/v1/products/categories").header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void writeThroughAnotherInstanceChangesTheETag() throws Exception {
+		String eTag = eTag();
+		long version = catalogVersion.getVersion();
+
+		//What another instance leaves behind: an outbox row, and no event on this one
+		jdbcTemplate.update("INSERT INTO product_changes (product_id, product_code, change_type, payload, created_at) " +
+				"VALUES (?, ?, ?, ?, ?)", 999999L, "ETAG-REMOTE", "UPDATED", null, Timestamp.valueOf(LocalDateTime.now()));
+
+		assertThat(catalogVersion.getVersion()).isGreaterThan(version);
+		mockMvc.perform(get("/api/v1/products/categories").header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk());
+	}
+
+	private String eTag() throws Exception {
+		String eTag = mockMvc.perform(get("/api/v1/products/categories"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertThat(eTag).startsWith("W/\"");
+		return eTag;
+	}
+}
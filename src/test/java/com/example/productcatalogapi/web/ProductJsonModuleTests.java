@@ -0,0 +1,58 @@
+package com.example.productcatalogapi.web;
+
+import com.example.productcatalogapi.dto.ProductResponseDTO;
+import com.example.productcatalogapi.dto.ProductSummaryDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductJsonModuleTests {
+
+	//Dates as ISO strings, as Spring Boot configures the application mapper
+	private final ObjectMapper beanMapper = Jackson2ObjectMapperBuilder.json()
+			.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+	private final ObjectMapper moduleMapper = Jackson2ObjectMapperBuilder.json()
+			.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+			.modulesToInstall(new ProductJsonModule()).build();
+
+	@Test
+	void writesTheSameJsonAsTheBeanSerializer() throws Exception {
+		List<ProductResponseDTO> products = List.of(
+				new ProductResponseDTO(1L, "P-1", "Lamp \"Nova\"", "Desk lamp\nwith dimmer", new BigDecimal("10.50"), "Home",
+						3, true, LocalDateTime.of(2024, 5, 1, 12, 0), LocalDateTime.of(2024, 5, 2, 8, 30, 15, 120_000)),
+				new ProductResponseDTO(2L, "P-2", "Chair", null, new BigDecimal("99"), "Home", 0, false,
+						LocalDateTime.of(987, 12, 31, 23, 59, 59, 999_999_999), null),
+				new ProductResponseDTO(3L, "P-3", "Table", "", BigDecimal.ZERO, null, null, null,
+						LocalDateTime.of(12345, 1, 1, 0, 0, 0, 1), LocalDateTime.of(-1, 1, 1, 0, 0)));
+
+		assertThat(moduleMapper.writeValueAsString(products)).isEqualTo(beanMapper.writeValueAsString(products));
+	}
+
+	@Test
+	void writesTheSameSummaryJsonAsTheBeanSerializer() throws Exception {
+		ProductSummaryDTO summary = new ProductSummaryDTO(1L, "P-1", "Lamp", new BigDecimal("10.50"), "Home", 3, null,
+				LocalDateTime.of(2024, 5, 1, 12, 0));
+
+		assertThat(moduleMapper.writeValueAsString(summary)).isEqualTo(beanMapper.writeValueAsString(summary));
+	}
+
+	@Test
+	void writesSmileThatReadsBackToTheSameProduct() throws Exception {
+		ObjectMapper smileMapper = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory())
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).modulesToInstall(new ProductJsonModule()).build();
+		ProductResponseDTO product = new ProductResponseDTO(1L, "P-1", "Lamp", "Desk lamp", new BigDecimal("10.50"),
+				"Home", 3, true, LocalDateTime.of(2024, 5, 1, 12, 0), LocalDateTime.of(2024, 5, 2, 8, 30));
+
+		byte[] smile = smileMapper.writeValueAsBytes(product);
+
+		assertThat(smileMapper.readValue(smile, ProductResponseDTO.class)).isEqualTo(product);
+	}
+}